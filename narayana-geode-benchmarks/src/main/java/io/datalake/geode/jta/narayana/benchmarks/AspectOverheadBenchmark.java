@@ -0,0 +1,189 @@
+/*
+ * Copyright (c) 2026. The original author or authors.
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package io.datalake.geode.jta.narayana.benchmarks;
+
+import com.arjuna.ats.jta.utils.JNDIManager;
+import io.datalake.geode.jta.narayana.EnableGeodeNarayanaJta;
+import io.datalake.geode.jta.narayana.NarayanaLrcoMode;
+import org.apache.geode.cache.Cache;
+import org.apache.geode.cache.CacheFactory;
+import org.jnp.server.SingletonNamingServer;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Import;
+import org.springframework.core.env.MapPropertySource;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.EnableTransactionManagement;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.jta.JtaTransactionManager;
+
+import javax.transaction.TransactionManager;
+import javax.transaction.UserTransaction;
+import java.util.Collections;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the overhead the {@link EnableGeodeNarayanaJta} integration adds to a no-op @Transactional method:
+ * <ul>
+ * <li>none - plain @EnableTransactionManagement, no Geode integration (the baseline).</li>
+ * <li>disabled - @EnableGeodeNarayanaJta with spring.jta.narayana.onePhaseCommit=false. Expected to match the
+ * baseline, because the NarayanaLrcoAspect is not registered at all.</li>
+ * <li>enabled - @EnableGeodeNarayanaJta with spring.jta.narayana.onePhaseCommit=true. The NarayanaLrcoAspect
+ * enlists Geode as LRCO.</li>
+ * <li>transactionManager - @EnableGeodeNarayanaJta(mode = TRANSACTION_MANAGER) with
+ * spring.jta.narayana.onePhaseCommit=true. The NarayanaGeodeJtaTransactionManager enlists Geode as LRCO on begin,
+ * without the additional aspect interceptor.</li>
+ * </ul>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class AspectOverheadBenchmark {
+
+    @Param({"none", "disabled", "enabled", "transactionManager"})
+    public String lrco;
+
+    private SingletonNamingServer jndiServer;
+
+    private AnnotationConfigApplicationContext context;
+
+    private Cache cache;
+
+    private TransactionalService service;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        context = new AnnotationConfigApplicationContext();
+        if ("none".equals(lrco)) {
+            jndiServer = new SingletonNamingServer();
+            JNDIManager.bindJTAImplementation();
+            context.register(PlainConfiguration.class);
+        } else {
+            context.getEnvironment().getPropertySources().addFirst(new MapPropertySource("benchmark",
+                    Collections.<String, Object>singletonMap("spring.jta.narayana.onePhaseCommit",
+                            String.valueOf(!"disabled".equals(lrco)))));
+            context.register("transactionManager".equals(lrco) ?
+                    GeodeNarayanaJtaTransactionManagerConfiguration.class : GeodeNarayanaJtaConfiguration.class);
+        }
+        context.refresh();
+
+        // Geode looks up the JTA TM at cache creation, so the cache is created after the JNDI server has started.
+        cache = new CacheFactory()
+                .set("mcast-port", "0")
+                .set("locators", "")
+                .set("log-level", "error")
+                .create();
+
+        service = context.getBean(TransactionalService.class);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws Exception {
+        cache.close();
+        context.close();
+        if (jndiServer != null) {
+            jndiServer.destroy();
+        }
+    }
+
+    @Benchmark
+    public int transactionalNoop() {
+        return service.noop();
+    }
+
+    public static class TransactionalService {
+
+        private int counter;
+
+        @Transactional
+        public int noop() {
+            return ++counter;
+        }
+    }
+
+    @Configuration
+    static class CommonConfiguration {
+
+        @Bean
+        public UserTransaction narayanaUserTransaction() {
+            return com.arjuna.ats.jta.UserTransaction.userTransaction();
+        }
+
+        @Bean
+        public TransactionManager narayanaTransactionManager() {
+            return com.arjuna.ats.jta.TransactionManager.transactionManager();
+        }
+
+        @Bean
+        public TransactionalService transactionalService() {
+            return new TransactionalService();
+        }
+    }
+
+    @Configuration
+    @Import(CommonConfiguration.class)
+    static class JtaConfiguration {
+
+        @Bean
+        public PlatformTransactionManager transactionManager(UserTransaction userTransaction,
+                                                             TransactionManager transactionManager) {
+            return new JtaTransactionManager(userTransaction, transactionManager);
+        }
+    }
+
+    @Configuration
+    @EnableTransactionManagement(order = 1)
+    @Import(JtaConfiguration.class)
+    static class PlainConfiguration {
+    }
+
+    @Configuration
+    @EnableGeodeNarayanaJta
+    @EnableTransactionManagement(order = 1)
+    @Import(JtaConfiguration.class)
+    static class GeodeNarayanaJtaConfiguration {
+    }
+
+    @Configuration
+    @EnableGeodeNarayanaJta(mode = NarayanaLrcoMode.TRANSACTION_MANAGER)
+    @EnableTransactionManagement
+    @Import(CommonConfiguration.class)
+    static class GeodeNarayanaJtaTransactionManagerConfiguration {
+    }
+}
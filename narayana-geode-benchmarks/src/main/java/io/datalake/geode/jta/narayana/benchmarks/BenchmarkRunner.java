@@ -0,0 +1,79 @@
+/*
+ * Copyright (c) 2026. The original author or authors.
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package io.datalake.geode.jta.narayana.benchmarks;
+
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Runs the selected benchmarks for each thread count twice: once in {@link Mode#Throughput} mode (ops/s) and once in
+ * {@link Mode#SampleTime} mode (per-op latency percentiles). Both runs use the {@link GCProfiler} to report the
+ * allocation rate. The JSON results are written to the target folder.
+ * <p>
+ * Usage: java -jar target/benchmarks.jar [include-regex] [thread-count ...]
+ * <p>
+ * Defaults to the {@link LrcoTransactionBenchmark} benchmarks with 1, 4, 16 and 64 threads.
+ */
+public class BenchmarkRunner {
+
+    private static final int[] DEFAULT_THREADS = {1, 4, 16, 64};
+
+    public static void main(String[] args) throws RunnerException {
+
+        String include = (args.length > 0) ? args[0] : LrcoTransactionBenchmark.class.getSimpleName();
+
+        int[] threads = DEFAULT_THREADS;
+        if (args.length > 1) {
+            threads = new int[args.length - 1];
+            for (int i = 1; i < args.length; i++) {
+                threads[i - 1] = Integer.parseInt(args[i]);
+            }
+        }
+
+        for (int threadCount : threads) {
+            run(include, threadCount, Mode.Throughput, TimeUnit.SECONDS);
+            run(include, threadCount, Mode.SampleTime, TimeUnit.MICROSECONDS);
+        }
+    }
+
+    private static void run(String include, int threadCount, Mode mode, TimeUnit timeUnit) throws RunnerException {
+        Options options = new OptionsBuilder()
+                .include(include)
+                .threads(threadCount)
+                .mode(mode)
+                .timeUnit(timeUnit)
+                .addProfiler(GCProfiler.class)
+                .resultFormat(ResultFormatType.JSON)
+                .result(String.format("target/jmh-%s-%s-%d-threads.json",
+                        include.replaceAll("\\W", ""), mode.shortLabel(), threadCount))
+                .build();
+
+        new Runner(options).run();
+    }
+}
@@ -0,0 +1,83 @@
+/*
+ * Copyright (c) 2026. The original author or authors.
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package io.datalake.geode.jta.narayana.benchmarks;
+
+import com.arjuna.ats.jta.utils.JNDIManager;
+import org.apache.geode.cache.Cache;
+import org.apache.geode.cache.CacheFactory;
+import org.apache.geode.cache.Region;
+import org.jnp.server.SingletonNamingServer;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import javax.transaction.TransactionManager;
+
+import static org.apache.geode.cache.DataPolicy.PARTITION;
+
+/**
+ * Shared benchmark state: a standalone JNDI server with the Narayana TM bound under "java:/TransactionManager"
+ * and an embedded (loner) Geode cache with a single partitioned region.
+ * <p>
+ * The JNDI server must be started before the cache is created, because Geode looks up the JTA transaction manager
+ * only once, during the cache initialization.
+ */
+@State(Scope.Benchmark)
+public class GeodeNarayanaState {
+
+    public static final String REGION_NAME = "benchmarkRegion";
+
+    private SingletonNamingServer jndiServer;
+
+    private Cache cache;
+
+    public Region<String, Object> region;
+
+    public TransactionManager transactionManager;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        jndiServer = new SingletonNamingServer();
+        // Bind JTA implementation with default names
+        JNDIManager.bindJTAImplementation();
+
+        cache = new CacheFactory()
+                .set("mcast-port", "0")
+                .set("locators", "")
+                .set("log-level", "error")
+                .create();
+
+        region = cache.<String, Object>createRegionFactory()
+                .setDataPolicy(PARTITION)
+                .create(REGION_NAME);
+
+        transactionManager = com.arjuna.ats.jta.TransactionManager.transactionManager();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws Exception {
+        cache.close();
+        jndiServer.destroy();
+    }
+}
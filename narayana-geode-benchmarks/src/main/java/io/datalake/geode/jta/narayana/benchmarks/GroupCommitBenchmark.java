@@ -0,0 +1,96 @@
+/*
+ * Copyright (c) 2026. The original author or authors.
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package io.datalake.geode.jta.narayana.benchmarks;
+
+import io.datalake.geode.jta.narayana.NarayanaGeodeGroupCommitCoordinator;
+import io.datalake.geode.jta.narayana.NarayanaGeodeSupport;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import javax.transaction.TransactionManager;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares one LRCO transaction per write with the {@link NarayanaGeodeGroupCommitCoordinator} batching the writes of
+ * the concurrent benchmark threads. A maxBatchSize of 0 runs the plain, one transaction per write, path. The gain is
+ * visible with many threads in the throughput mode, the added latency (up to the maxWaitMicros window) in the
+ * sample-time percentiles:
+ * <pre>
+ *     java -jar target/benchmarks.jar GroupCommitBenchmark 1 16 64
+ * </pre>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class GroupCommitBenchmark {
+
+    @Param({"0", "16", "64"})
+    public int maxBatchSize;
+
+    @Param({"200", "1000"})
+    public long maxWaitMicros;
+
+    private NarayanaGeodeGroupCommitCoordinator coordinator;
+
+    @Setup(Level.Trial)
+    public void setUp(GeodeNarayanaState state) {
+        // The state parameter orders the cache creation before the coordinator start.
+        if (maxBatchSize > 0) {
+            coordinator = new NarayanaGeodeGroupCommitCoordinator(maxBatchSize, maxWaitMicros,
+                    TimeUnit.MICROSECONDS, 4096).start();
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws InterruptedException {
+        if (coordinator != null) {
+            coordinator.close();
+        }
+    }
+
+    @Benchmark
+    public void commit(GeodeNarayanaState state, ThreadKeyState thread) throws Exception {
+        if (coordinator == null) {
+            TransactionManager tm = state.transactionManager;
+            tm.begin();
+            NarayanaGeodeSupport.enlistGeodeAsLastCommitResource();
+            state.region.put(thread.key, thread.value);
+            tm.commit();
+        } else {
+            coordinator.execute(() -> state.region.put(thread.key, thread.value));
+        }
+    }
+}
@@ -0,0 +1,91 @@
+/*
+ * Copyright (c) 2026. The original author or authors.
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package io.datalake.geode.jta.narayana.benchmarks;
+
+import io.datalake.geode.jta.narayana.NarayanaGeodeLatencyRecorder;
+import io.datalake.geode.jta.narayana.NarayanaGeodeSupport;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import javax.transaction.TransactionManager;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the {@link NarayanaGeodeLatencyRecorder} overhead: the cost of a single phase record (the budget is 50ns
+ * per record, also with many threads) and of a complete LRCO commit with and without the recorder registered:
+ * <pre>
+ *     java -jar target/benchmarks.jar LatencyRecorderBenchmark 1 16
+ * </pre>
+ */
+@State(Scope.Benchmark)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class LatencyRecorderBenchmark {
+
+    @Param({"false", "true"})
+    public boolean recorded;
+
+    private NarayanaGeodeLatencyRecorder recorder;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        recorder = new NarayanaGeodeLatencyRecorder();
+        if (recorded) {
+            recorder.register();
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        recorder.unregister();
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.AverageTime)
+    @OutputTimeUnit(TimeUnit.NANOSECONDS)
+    public void record(ThreadKeyState thread) {
+        recorder.record(NarayanaGeodeLatencyRecorder.Phase.COMMIT, 1000L + thread.threadIndex);
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.Throughput)
+    @OutputTimeUnit(TimeUnit.SECONDS)
+    public void lrcoCommit(GeodeNarayanaState state, ThreadKeyState thread) throws Exception {
+        TransactionManager tm = state.transactionManager;
+        tm.begin();
+        NarayanaGeodeSupport.enlistGeodeAsLastCommitResource();
+        state.region.put(thread.key, thread.value);
+        tm.commit();
+    }
+}
@@ -0,0 +1,120 @@
+/*
+ * Copyright (c) 2026. The original author or authors.
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package io.datalake.geode.jta.narayana.benchmarks;
+
+import io.datalake.geode.jta.narayana.NarayanaGeodeLastCommitResource;
+import io.datalake.geode.jta.narayana.NarayanaGeodeSupport;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Warmup;
+
+import javax.transaction.TransactionManager;
+import javax.transaction.xa.XAResource;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the cost of a global Narayana transaction with Geode enlisted as Last Resource Commit Optimization (LRCO)
+ * and compares it with the default Geode JTA Synchronization mode (e.g. the one exercised by the
+ * TestCase#nonLastResourceCommitOptimization test).
+ * <p>
+ * The resourceCommitCycle and resourceRollbackCycle benchmarks drive the {@link NarayanaGeodeLastCommitResource}
+ * directly, isolating the resource start/commit/rollback cost from the Narayana coordination cost.
+ * <p>
+ * Use the {@link BenchmarkRunner} to run the benchmarks with 1, 4, 16 and 64 threads, the gc profiler and both
+ * throughput and sample-time (latency percentiles) modes.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class LrcoTransactionBenchmark {
+
+    @Benchmark
+    public void lrcoEnlist(GeodeNarayanaState state) throws Exception {
+        TransactionManager tm = state.transactionManager;
+        tm.begin();
+        NarayanaGeodeSupport.enlistGeodeAsLastCommitResource();
+        tm.commit();
+    }
+
+    @Benchmark
+    public void lrcoCommit(GeodeNarayanaState state, ThreadKeyState thread) throws Exception {
+        TransactionManager tm = state.transactionManager;
+        tm.begin();
+        NarayanaGeodeSupport.enlistGeodeAsLastCommitResource();
+        state.region.put(thread.key, thread.value);
+        tm.commit();
+    }
+
+    @Benchmark
+    public void lrcoRollback(GeodeNarayanaState state, ThreadKeyState thread) throws Exception {
+        TransactionManager tm = state.transactionManager;
+        tm.begin();
+        NarayanaGeodeSupport.enlistGeodeAsLastCommitResource();
+        state.region.put(thread.key, thread.value);
+        tm.rollback();
+    }
+
+    @Benchmark
+    public void synchronizationCommit(GeodeNarayanaState state, ThreadKeyState thread) throws Exception {
+        TransactionManager tm = state.transactionManager;
+        tm.begin();
+        state.region.put(thread.key, thread.value);
+        tm.commit();
+    }
+
+    @Benchmark
+    public void synchronizationRollback(GeodeNarayanaState state, ThreadKeyState thread) throws Exception {
+        TransactionManager tm = state.transactionManager;
+        tm.begin();
+        state.region.put(thread.key, thread.value);
+        tm.rollback();
+    }
+
+    @Benchmark
+    public void resourceCommitCycle(GeodeNarayanaState state, ThreadKeyState thread) throws Exception {
+        TransactionManager tm = state.transactionManager;
+        // The resource begins a Geode transaction only inside a running JTA transaction.
+        tm.begin();
+        NarayanaGeodeLastCommitResource resource = new NarayanaGeodeLastCommitResource();
+        resource.start(thread.xid, XAResource.TMNOFLAGS);
+        state.region.put(thread.key, thread.value);
+        resource.commit(thread.xid, true);
+        tm.rollback();
+    }
+
+    @Benchmark
+    public void resourceRollbackCycle(GeodeNarayanaState state, ThreadKeyState thread) throws Exception {
+        TransactionManager tm = state.transactionManager;
+        tm.begin();
+        NarayanaGeodeLastCommitResource resource = new NarayanaGeodeLastCommitResource();
+        resource.start(thread.xid, XAResource.TMNOFLAGS);
+        state.region.put(thread.key, thread.value);
+        resource.rollback(thread.xid);
+        tm.rollback();
+    }
+}
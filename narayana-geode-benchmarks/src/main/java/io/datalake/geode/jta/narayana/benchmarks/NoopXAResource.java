@@ -0,0 +1,79 @@
+/*
+ * Copyright (c) 2026. The original author or authors.
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package io.datalake.geode.jta.narayana.benchmarks;
+
+import javax.transaction.xa.XAException;
+import javax.transaction.xa.XAResource;
+import javax.transaction.xa.Xid;
+
+/**
+ * Two-phase XA resource that votes commit and does no work. Stands in for a data source, so Narayana runs the two
+ * phase commit and writes the transaction log.
+ */
+public class NoopXAResource implements XAResource {
+
+    @Override
+    public void start(Xid xid, int flags) throws XAException {
+    }
+
+    @Override
+    public void end(Xid xid, int flags) throws XAException {
+    }
+
+    @Override
+    public int prepare(Xid xid) throws XAException {
+        return XA_OK;
+    }
+
+    @Override
+    public void commit(Xid xid, boolean onePhase) throws XAException {
+    }
+
+    @Override
+    public void rollback(Xid xid) throws XAException {
+    }
+
+    @Override
+    public void forget(Xid xid) throws XAException {
+    }
+
+    @Override
+    public Xid[] recover(int flag) throws XAException {
+        return new Xid[0];
+    }
+
+    @Override
+    public boolean isSameRM(XAResource xaResource) throws XAException {
+        return xaResource == this;
+    }
+
+    @Override
+    public int getTransactionTimeout() throws XAException {
+        return 0;
+    }
+
+    @Override
+    public boolean setTransactionTimeout(int seconds) throws XAException {
+        return false;
+    }
+}
+}
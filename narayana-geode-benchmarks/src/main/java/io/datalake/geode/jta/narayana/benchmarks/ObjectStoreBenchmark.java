@@ -0,0 +1,108 @@
+/*
+ * Copyright (c) 2026. The original author or authors.
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package io.datalake.geode.jta.narayana.benchmarks;
+
+import io.datalake.geode.jta.narayana.NarayanaGeodeSupport;
+import io.datalake.geode.jta.narayana.NarayanaObjectStoreConfigurer;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import javax.transaction.TransactionManager;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Comparator;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * Compares the transactions per second of the Narayana object stores. Every transaction enlists a no-op two-phase
+ * XA resource (standing in for a data source) and Geode as Last Resource Commit, so Narayana writes the transaction
+ * log. Each store runs in a fresh JVM, because the store is selected before Narayana is initialized:
+ * <pre>
+ *     java -jar target/benchmarks.jar ObjectStoreBenchmark 1 16 64
+ * </pre>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ObjectStoreBenchmark {
+
+    @Param({"FILE", "JOURNAL", "VOLATILE"})
+    public NarayanaObjectStoreConfigurer.StoreType storeType;
+
+    private GeodeNarayanaState geodeNarayana;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        Path storeDir = Paths.get("target", "object-store-" + storeType.name().toLowerCase());
+        deleteRecursively(storeDir);
+
+        NarayanaObjectStoreConfigurer configurer = new NarayanaObjectStoreConfigurer();
+        configurer.setStoreType(storeType);
+        configurer.setStoreDir(storeDir.toAbsolutePath().toString());
+        configurer.apply();
+
+        // Created here, not injected, so the store is configured before the Narayana initialization.
+        geodeNarayana = new GeodeNarayanaState();
+        geodeNarayana.setUp();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws Exception {
+        geodeNarayana.tearDown();
+    }
+
+    @Benchmark
+    public void twoResourceCommit(ThreadKeyState thread) throws Exception {
+        TransactionManager tm = geodeNarayana.transactionManager;
+        tm.begin();
+        tm.getTransaction().enlistResource(new NoopXAResource());
+        NarayanaGeodeSupport.enlistGeodeAsLastCommitResource();
+        geodeNarayana.region.put(thread.key, thread.value);
+        tm.commit();
+    }
+
+    private static void deleteRecursively(Path dir) throws IOException {
+        if (Files.exists(dir)) {
+            try (Stream<Path> paths = Files.walk(dir)) {
+                paths.sorted(Comparator.reverseOrder()).map(Path::toFile).forEach(File::delete);
+            }
+        }
+    }
+}
@@ -0,0 +1,145 @@
+/*
+ * Copyright (c) 2026. The original author or authors.
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package io.datalake.geode.jta.narayana.benchmarks;
+
+import io.datalake.geode.jta.narayana.EnableGeodeNarayanaJta;
+import org.apache.geode.cache.Cache;
+import org.apache.geode.cache.CacheFactory;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.MapPropertySource;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.EnableTransactionManagement;
+import org.springframework.transaction.jta.JtaTransactionManager;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the cold startup time of a Spring application context with a Geode cache bean, with and without the
+ * {@link EnableGeodeNarayanaJta @EnableGeodeNarayanaJta} integration. Every measurement runs in a fresh JVM (one
+ * single-shot invocation per fork), because Geode allows a single cache and Narayana a single transaction manager per
+ * JVM.
+ * <p>
+ * The mode param selects:
+ * <ul>
+ * <li>geode - the Geode cache only, with the Geode JTA integration disabled (the baseline).</li>
+ * <li>jnp - @EnableGeodeNarayanaJta with the standalone JNP naming server. The cache waits, through dependsOn, for
+ * the naming server startup and the Narayana initialization.</li>
+ * <li>inProcess - @EnableGeodeNarayanaJta with the in-process JNDI context (spring.jta.narayana.inProcessJndi=true).
+ * Narayana is initialized on the Geode transaction manager lookup, inside the cache creation.</li>
+ * <li>parallel - inProcess plus spring.jta.narayana.parallelInit=true. Narayana is initialized on a background
+ * thread, overlapping with the Geode distributed system connect.</li>
+ * </ul>
+ * The difference to the geode baseline is the boot time added by the integration. The configuration mirrors the
+ * narayana-geode-springboot-example application, without its JPA and JMS resources, so their startup noise does not
+ * hide the measured difference.
+ * <p>
+ * Run it with the JMH main class, the {@link BenchmarkRunner} forces the throughput and sample-time modes:
+ * java -cp target/benchmarks.jar org.openjdk.jmh.Main StartupBenchmark
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 0)
+@Measurement(iterations = 1)
+@Fork(10)
+public class StartupBenchmark {
+
+    @Param({"geode", "jnp", "inProcess", "parallel"})
+    public String mode;
+
+    private AnnotationConfigApplicationContext context;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        if ("geode".equals(mode)) {
+            System.setProperty("gemfire.ignoreJTA", "true");
+        }
+    }
+
+    @Benchmark
+    public AnnotationConfigApplicationContext startup() {
+        context = new AnnotationConfigApplicationContext();
+        if ("geode".equals(mode)) {
+            context.register(GeodeConfiguration.class);
+        } else {
+            Map<String, Object> properties = new HashMap<>();
+            properties.put("spring.jta.narayana.onePhaseCommit", "true");
+            properties.put("spring.jta.narayana.inProcessJndi", String.valueOf(!"jnp".equals(mode)));
+            properties.put("spring.jta.narayana.parallelInit", String.valueOf("parallel".equals(mode)));
+            context.getEnvironment().getPropertySources().addFirst(new MapPropertySource("benchmark", properties));
+            context.register(GeodeNarayanaJtaConfiguration.class);
+        }
+        context.refresh();
+        return context;
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        if (context != null) {
+            context.close();
+        }
+    }
+
+    @Configuration
+    static class GeodeConfiguration {
+
+        @Bean(destroyMethod = "close")
+        public Cache gemfireCache() {
+            return new CacheFactory()
+                    .set("mcast-port", "0")
+                    .set("locators", "")
+                    .set("log-level", "error")
+                    .create();
+        }
+    }
+
+    // The cache bean is declared before the transaction manager, as a Spring Data Gemfire cache would be created
+    // before the JPA and JMS resources using the transaction manager.
+    @Configuration
+    @EnableGeodeNarayanaJta
+    @EnableTransactionManagement(order = 1)
+    static class GeodeNarayanaJtaConfiguration extends GeodeConfiguration {
+
+        @Bean
+        public PlatformTransactionManager transactionManager() {
+            return new JtaTransactionManager(com.arjuna.ats.jta.UserTransaction.userTransaction(),
+                    com.arjuna.ats.jta.TransactionManager.transactionManager());
+        }
+    }
+}
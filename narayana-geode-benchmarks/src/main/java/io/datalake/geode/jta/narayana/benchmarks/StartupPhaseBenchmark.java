@@ -0,0 +1,130 @@
+/*
+ * Copyright (c) 2026. The original author or authors.
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package io.datalake.geode.jta.narayana.benchmarks;
+
+import com.arjuna.ats.jta.utils.JNDIManager;
+import io.datalake.geode.jta.narayana.NarayanaJtaInitialContextFactory;
+import org.apache.geode.cache.Cache;
+import org.apache.geode.cache.CacheFactory;
+import org.jnp.server.SingletonNamingServer;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import javax.naming.InitialContext;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Breaks down the {@link StartupBenchmark} numbers: the cold cost of each startup phase, measured in a fresh JVM.
+ * <ul>
+ * <li>narayanaInitialization - the Narayana transaction manager initialization.</li>
+ * <li>jnpNamingServerStartup - the SingletonNamingServer startup and the JTA bindings, Narayana already
+ * initialized.</li>
+ * <li>inProcessJndiStartup - the in-process JNDI context installation and first lookup, Narayana already
+ * initialized.</li>
+ * <li>geodeCacheCreation - the Geode (loner) cache creation, without the JTA integration. The dependsOn ordering
+ * serializes the previous phases before this one.</li>
+ * </ul>
+ * Run it with: java -cp target/benchmarks.jar org.openjdk.jmh.Main StartupPhaseBenchmark
+ */
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 0)
+@Measurement(iterations = 1)
+@Fork(10)
+public class StartupPhaseBenchmark {
+
+    @Benchmark
+    public int narayanaInitialization() throws Exception {
+        return com.arjuna.ats.jta.TransactionManager.transactionManager().getStatus();
+    }
+
+    @Benchmark
+    public Object jnpNamingServerStartup(NarayanaState state) throws Exception {
+        state.jndiServer = new SingletonNamingServer();
+        JNDIManager.bindJTAImplementation();
+        return state.jndiServer;
+    }
+
+    @Benchmark
+    public Object inProcessJndiStartup(NarayanaState state) throws Exception {
+        NarayanaJtaInitialContextFactory.install();
+        return new InitialContext().lookup("java:/TransactionManager");
+    }
+
+    @Benchmark
+    public Cache geodeCacheCreation(CacheState state) {
+        state.cache = new CacheFactory()
+                .set("mcast-port", "0")
+                .set("locators", "")
+                .set("log-level", "error")
+                .create();
+        return state.cache;
+    }
+
+    @State(Scope.Benchmark)
+    public static class NarayanaState {
+
+        SingletonNamingServer jndiServer;
+
+        @Setup(Level.Trial)
+        public void setUp() throws Exception {
+            // Initializes Narayana, so the JNDI phases are measured on their own.
+            com.arjuna.ats.jta.TransactionManager.transactionManager().getStatus();
+        }
+
+        @TearDown(Level.Trial)
+        public void tearDown() {
+            NarayanaJtaInitialContextFactory.uninstall();
+            if (jndiServer != null) {
+                jndiServer.destroy();
+            }
+        }
+    }
+
+    @State(Scope.Benchmark)
+    public static class CacheState {
+
+        Cache cache;
+
+        @Setup(Level.Trial)
+        public void setUp() {
+            System.setProperty("gemfire.ignoreJTA", "true");
+        }
+
+        @TearDown(Level.Trial)
+        public void tearDown() {
+            if (cache != null) {
+                cache.close();
+            }
+        }
+    }
+}
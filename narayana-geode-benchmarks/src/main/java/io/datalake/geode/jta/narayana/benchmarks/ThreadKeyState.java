@@ -0,0 +1,76 @@
+/*
+ * Copyright (c) 2026. The original author or authors.
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package io.datalake.geode.jta.narayana.benchmarks;
+
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+
+import javax.transaction.xa.Xid;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Per benchmark thread state. Every thread writes its own key, so the measured numbers are not distorted by
+ * Geode commit conflicts between the benchmark threads.
+ */
+@State(Scope.Thread)
+public class ThreadKeyState {
+
+    private static final AtomicInteger threadCounter = new AtomicInteger();
+
+    public final int threadIndex = threadCounter.getAndIncrement();
+
+    public final String key = "key-" + threadIndex;
+
+    public final Integer value = threadIndex;
+
+    public final Xid xid = new BenchmarkXid(threadIndex);
+
+    /**
+     * Immutable {@link Xid} used when the {@link io.datalake.geode.jta.narayana.NarayanaGeodeLastCommitResource} is
+     * driven directly, bypassing the Narayana coordinator.
+     */
+    static class BenchmarkXid implements Xid {
+
+        private final byte[] globalTransactionId;
+        private final byte[] branchQualifier;
+
+        BenchmarkXid(int threadIndex) {
+            this.globalTransactionId = ("benchmark-gtrid-" + threadIndex).getBytes();
+            this.branchQualifier = ("benchmark-bqual-" + threadIndex).getBytes();
+        }
+
+        @Override
+        public int getFormatId() {
+            return 666;
+        }
+
+        @Override
+        public byte[] getGlobalTransactionId() {
+            return globalTransactionId;
+        }
+
+        @Override
+        public byte[] getBranchQualifier() {
+            return branchQualifier;
+        }
+    }
+}
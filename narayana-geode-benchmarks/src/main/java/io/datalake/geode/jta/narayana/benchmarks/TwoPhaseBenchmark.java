@@ -0,0 +1,80 @@
+/*
+ * Copyright (c) 2026. The original author or authors.
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package io.datalake.geode.jta.narayana.benchmarks;
+
+import io.datalake.geode.jta.narayana.NarayanaGeodeSupport;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Warmup;
+
+import javax.transaction.TransactionManager;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares Geode enlisted as Last Resource Commit with Geode enlisted as the two-phase
+ * {@link io.datalake.geode.jta.narayana.NarayanaGeodeXAResource}, next to a two-phase {@link NoopXAResource}. The
+ * sample-time mode of the {@link BenchmarkRunner} reports the latency percentiles:
+ * <pre>
+ *     java -jar target/benchmarks.jar TwoPhaseBenchmark 1 16
+ * </pre>
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class TwoPhaseBenchmark {
+
+    @Benchmark
+    public void lastResourceCommit(GeodeNarayanaState state, ThreadKeyState thread) throws Exception {
+        TransactionManager tm = state.transactionManager;
+        tm.begin();
+        tm.getTransaction().enlistResource(new NoopXAResource());
+        NarayanaGeodeSupport.enlistGeodeAsLastCommitResource();
+        state.region.put(thread.key, thread.value);
+        tm.commit();
+    }
+
+    @Benchmark
+    public void twoPhaseCommit(GeodeNarayanaState state, ThreadKeyState thread) throws Exception {
+        TransactionManager tm = state.transactionManager;
+        tm.begin();
+        tm.getTransaction().enlistResource(new NoopXAResource());
+        NarayanaGeodeSupport.enlistGeodeAsXAResource();
+        state.region.put(thread.key, thread.value);
+        tm.commit();
+    }
+
+    @Benchmark
+    public void twoPhaseResourceOnePhaseCommit(GeodeNarayanaState state, ThreadKeyState thread) throws Exception {
+        // The only participant, Narayana commits it in one phase.
+        TransactionManager tm = state.transactionManager;
+        tm.begin();
+        NarayanaGeodeSupport.enlistGeodeAsXAResource();
+        state.region.put(thread.key, thread.value);
+        tm.commit();
+    }
+}
@@ -0,0 +1,177 @@
+/*
+ * Copyright (c) 2026. The original author or authors.
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package io.datalake.geode.jta.narayana;
+
+import org.apache.geode.LogWriter;
+import org.apache.geode.cache.CacheFactory;
+import org.apache.geode.cache.GemFireCache;
+import org.apache.geode.cache.client.ClientCacheFactory;
+import org.apache.geode.internal.cache.GemFireCacheImpl;
+import org.apache.geode.internal.cache.TXManagerImpl;
+
+import javax.transaction.TransactionManager;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Immutable holder of the Geode objects used on every transaction: the cache, its {@link TXManagerImpl}, the JTA
+ * {@link TransactionManager} Geode has looked up from JNDI and the cache {@link LogWriter}.
+ * <p>
+ * The shared instance is initialized lazily on first use and reloaded only when the cached Geode cache has been
+ * closed (e.g. after a cache close or a forced disconnect and reconnect). On the hot path the lookup is a single
+ * volatile read and an isClosed() check, instead of the synchronized CacheFactory.getAnyInstance() call.
+ * <p>
+ * The reload is guarded by a {@link ReentrantLock}, not a monitor, so a virtual thread waiting for it does not pin its
+ * carrier thread.
+ * <p>
+ * The peer/server cache context is resolved with {@link #get()} and the client cache context with {@link #getClient()}.
+ * The contexts of specific caches, resolved with {@link #of(GemFireCache)}, are kept per cache until it is closed.
+ */
+public final class GeodeCacheContext {
+
+    private static volatile GeodeCacheContext current;
+
+    private static volatile GeodeCacheContext currentClient;
+
+    private static final Map<GemFireCache, GeodeCacheContext> cacheContexts = new ConcurrentHashMap<>();
+
+    private static final ReentrantLock reloadLock = new ReentrantLock();
+
+    private final GemFireCacheImpl cache;
+    private final TXManagerImpl txManager;
+    private final TransactionManager jtaTransactionManager;
+    private final LogWriter logger;
+
+    private GeodeCacheContext(GemFireCacheImpl cache) {
+        this.cache = cache;
+        this.txManager = cache.getTxManager();
+        this.jtaTransactionManager = cache.getJTATransactionManager();
+        this.logger = cache.getLogger();
+    }
+
+    /**
+     * @return Returns the context of the current Geode cache, reloading it if the previously cached cache was closed.
+     * @throws org.apache.geode.cache.CacheClosedException if no open Geode cache exists.
+     */
+    public static GeodeCacheContext get() {
+        GeodeCacheContext context = current;
+        if (context == null || context.cache.isClosed()) {
+            context = reload();
+        }
+        return context;
+    }
+
+    /**
+     * @return Returns the context of the current Geode client cache, reloading it if the previously cached client cache
+     * was closed.
+     * @throws org.apache.geode.cache.CacheClosedException if no open Geode client cache exists.
+     */
+    public static GeodeCacheContext getClient() {
+        GeodeCacheContext context = currentClient;
+        if (context == null || context.cache.isClosed()) {
+            context = reloadClient();
+        }
+        return context;
+    }
+
+    /**
+     * @param cache A specific Geode cache.
+     * @return Returns the context of the given cache, created on the first call for the cache.
+     */
+    public static GeodeCacheContext of(GemFireCache cache) {
+        GeodeCacheContext context = cacheContexts.get(cache);
+        if (context == null) {
+            // Drop the contexts of the closed caches, so they can be garbage collected.
+            cacheContexts.values().removeIf(closed -> closed.cache.isClosed());
+            context = cacheContexts.computeIfAbsent(cache, GeodeCacheContext::load);
+        }
+        return context;
+    }
+
+    /**
+     * Drops the cached contexts. The next {@link #get()}, {@link #getClient()} or {@link #of(GemFireCache)} call
+     * resolves the Geode cache again.
+     */
+    public static void invalidate() {
+        current = null;
+        currentClient = null;
+        cacheContexts.clear();
+    }
+
+    private static GeodeCacheContext reload() {
+        reloadLock.lock();
+        try {
+            GeodeCacheContext context = current;
+            if (context == null || context.cache.isClosed()) {
+                context = load(CacheFactory.getAnyInstance());
+                current = context;
+            }
+            return context;
+        } finally {
+            reloadLock.unlock();
+        }
+    }
+
+    private static GeodeCacheContext reloadClient() {
+        reloadLock.lock();
+        try {
+            GeodeCacheContext context = currentClient;
+            if (context == null || context.cache.isClosed()) {
+                context = load(ClientCacheFactory.getAnyInstance());
+                currentClient = context;
+            }
+            return context;
+        } finally {
+            reloadLock.unlock();
+        }
+    }
+
+    private static GeodeCacheContext load(GemFireCache cache) {
+        GeodeCacheContext context = new GeodeCacheContext((GemFireCacheImpl) cache);
+        if (context.logger.fineEnabled()) {
+            context.logger.fine("GeodeCacheContext: (re)loaded the Geode " +
+                    (context.cache.isClient() ? "client " : "") + "cache context");
+        }
+        return context;
+    }
+
+    public GemFireCacheImpl getCache() {
+        return cache;
+    }
+
+    public TXManagerImpl getTxManager() {
+        return txManager;
+    }
+
+    public TransactionManager getJtaTransactionManager() {
+        return jtaTransactionManager;
+    }
+
+    public LogWriter getLogger() {
+        return logger;
+    }
+
+    public boolean isClosed() {
+        return cache.isClosed();
+    }
+}
@@ -0,0 +1,463 @@
+/*
+ * Copyright (c) 2026. The original author or authors.
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package io.datalake.geode.jta.narayana;
+
+import javax.transaction.xa.Xid;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Compact, append-only, memory-mapped log of the Geode Last Resource Commit intents. It closes the LRCO window in
+ * which Narayana has prepared the other (e.g. JPA/XA) participants and commits Geode, but has not yet written its own
+ * transaction log. A crash in that window leaves the other participants presumed aborted, while the Geode commit may
+ * have been applied.
+ * <p>
+ * Every transaction appends three fixed size records: INTENT before the Geode commit, GEODE_COMMITTED after it and
+ * END when the whole transaction has completed. On open, the INTENT records without END, left by a previous run, are
+ * the in doubt intents, resolved by the {@link NarayanaGeodeRecoveryHelper}.
+ * <p>
+ * The records are written into the mapped file pages, so they survive a JVM crash as soon as written. Enable
+ * forceWrites to also survive an operating system crash, at the cost of a sync per record. The log rolls over
+ * fixed size segment files. The oldest segments are deleted once all their intents have ended, so the recovery scan
+ * reads only the tail with open intents. The scan is a sequential read of the mapped fixed size records.
+ */
+public class GeodeCommitIntentLog implements Closeable {
+
+    public static final int DEFAULT_SEGMENT_SIZE = 8 * 1024 * 1024;
+
+    static final byte INTENT = 1;
+    static final byte GEODE_COMMITTED = 2;
+    static final byte END = 3;
+
+    private static final int MAX_XID_PART = Xid.MAXGTRIDSIZE;
+    // type, gtrid length, bqual length, reserved, format id, timestamp, gtrid, bqual
+    static final int RECORD_SIZE = 4 + 4 + 8 + 2 * MAX_XID_PART;
+    private static final String SEGMENT_PREFIX = "geode-intents-";
+    private static final String SEGMENT_SUFFIX = ".log";
+
+    private final Path directory;
+    private final int recordsPerSegment;
+    private final boolean forceWrites;
+    private final ReentrantLock rollLock = new ReentrantLock();
+    private final TreeMap<Long, Segment> segments = new TreeMap<>();
+    private final Map<XidKey, InDoubtIntent> inDoubt;
+    private volatile Segment current;
+
+    private GeodeCommitIntentLog(Path directory, int segmentSize, boolean forceWrites) throws IOException {
+        this.directory = directory;
+        this.recordsPerSegment = segmentSize / RECORD_SIZE;
+        if (this.recordsPerSegment < 1) {
+            throw new IllegalArgumentException("The segment size must be at least " + RECORD_SIZE);
+        }
+        this.forceWrites = forceWrites;
+        Files.createDirectories(directory);
+        this.inDoubt = Collections.synchronizedMap(scan());
+        this.current = newSegment(nextSequence());
+    }
+
+    /**
+     * Opens (or creates) the log in the given directory and scans the segments left by the previous run.
+     *
+     * @param directory   The log directory, used by one JVM at a time.
+     * @param segmentSize The segment file size in bytes.
+     * @param forceWrites Syncs every record to the disk, to survive the operating system crashes too.
+     * @return Returns the opened log.
+     */
+    public static GeodeCommitIntentLog open(Path directory, int segmentSize, boolean forceWrites) throws IOException {
+        return new GeodeCommitIntentLog(directory, segmentSize, forceWrites);
+    }
+
+    public static GeodeCommitIntentLog open(Path directory) throws IOException {
+        return open(directory, DEFAULT_SEGMENT_SIZE, false);
+    }
+
+    /**
+     * @return Returns the intents left open by the previous run and not yet resolved.
+     */
+    public Collection<InDoubtIntent> getInDoubtIntents() {
+        synchronized (inDoubt) {
+            return new ArrayList<>(inDoubt.values());
+        }
+    }
+
+    /**
+     * Records the intent to commit Geode in the given transaction.
+     *
+     * @param xid The global transaction branch id.
+     * @return Returns the handle used to record the rest of the transaction outcome.
+     */
+    public Intent logIntent(Xid xid) {
+        Segment segment = append(INTENT, xid);
+        return new Intent(xid, segment);
+    }
+
+    /**
+     * @return Returns the open intent, left by the previous run, of the given transaction branch or null.
+     */
+    InDoubtIntent getInDoubtIntent(Xid xid) {
+        return inDoubt.get(new XidKey(xid));
+    }
+
+    /**
+     * Records the END of an in doubt intent resolved by the recovery.
+     */
+    void resolve(InDoubtIntent intent) {
+        if (inDoubt.remove(new XidKey(intent.getXid())) != null) {
+            append(END, intent.getXid());
+            release(intent.segment);
+        }
+    }
+
+    private Segment append(byte type, Xid xid) {
+        while (true) {
+            Segment segment = this.current;
+            // Counted before the slot is taken, so the segment can not be deleted under the writer.
+            if (type == INTENT) {
+                segment.open.incrementAndGet();
+            }
+            int slot = segment.next.getAndIncrement();
+            if (slot < recordsPerSegment) {
+                segment.write(slot, type, xid, forceWrites);
+                return segment;
+            }
+            if (type == INTENT) {
+                segment.open.decrementAndGet();
+            }
+            roll(segment);
+        }
+    }
+
+    private void roll(Segment full) {
+        rollLock.lock();
+        try {
+            if (this.current == full) {
+                Segment next = newSegment(full.sequence + 1);
+                this.current = next;
+                // The writers of the full segment that lost the slot race move on to the new one.
+                full.sealed = true;
+            }
+        } finally {
+            rollLock.unlock();
+        }
+        deleteCompletedSegments();
+    }
+
+    private void release(Segment segment) {
+        if (segment.open.decrementAndGet() == 0 && segment.sealed) {
+            deleteCompletedSegments();
+        }
+    }
+
+    /**
+     * Deletes the oldest segments without open intents. The deletion is in order, because the GEODE_COMMITTED and
+     * END records of an intent may land in a later segment than the intent itself.
+     */
+    private void deleteCompletedSegments() {
+        rollLock.lock();
+        try {
+            synchronized (segments) {
+                Iterator<Segment> iterator = segments.values().iterator();
+                while (iterator.hasNext()) {
+                    Segment segment = iterator.next();
+                    if (!segment.sealed || segment.open.get() > 0) {
+                        break;
+                    }
+                    iterator.remove();
+                    try {
+                        Files.deleteIfExists(segment.file);
+                    } catch (IOException e) {
+                        // Rescanned and deleted on the next open.
+                    }
+                }
+            }
+        } finally {
+            rollLock.unlock();
+        }
+    }
+
+    private Segment newSegment(long sequence) {
+        try {
+            Path file = directory.resolve(SEGMENT_PREFIX + String.format("%019d", sequence) + SEGMENT_SUFFIX);
+            MappedByteBuffer buffer;
+            try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE_NEW,
+                    StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+                buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, (long) recordsPerSegment * RECORD_SIZE);
+            }
+            Segment segment = new Segment(sequence, file, buffer);
+            synchronized (segments) {
+                segments.put(sequence, segment);
+            }
+            return segment;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to create a Geode commit intent log segment", e);
+        }
+    }
+
+    private long nextSequence() {
+        synchronized (segments) {
+            return segments.isEmpty() ? 0 : segments.lastKey() + 1;
+        }
+    }
+
+    /**
+     * Reads the segments in order, each one to its end. The record type is written last, a zero type marks a slot not
+     * written (yet) by the crash. The slots are taken concurrently, so such a hole may precede complete records.
+     */
+    private Map<XidKey, InDoubtIntent> scan() throws IOException {
+        Map<XidKey, InDoubtIntent> open = new LinkedHashMap<>();
+        List<Path> files = new ArrayList<>();
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(directory, SEGMENT_PREFIX + "*" + SEGMENT_SUFFIX)) {
+            for (Path file : stream) {
+                files.add(file);
+            }
+        }
+        Collections.sort(files);
+        for (Path file : files) {
+            String name = file.getFileName().toString();
+            long sequence = Long.parseLong(name.substring(SEGMENT_PREFIX.length(), name.length() - SEGMENT_SUFFIX.length()));
+            MappedByteBuffer buffer;
+            try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+                buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, channel.size());
+            }
+            Segment segment = new Segment(sequence, file, buffer);
+            segment.sealed = true;
+            segments.put(sequence, segment);
+            int records = buffer.capacity() / RECORD_SIZE;
+            for (int slot = 0; slot < records; slot++) {
+                int offset = slot * RECORD_SIZE;
+                byte type = buffer.get(offset);
+                if (type == 0) {
+                    continue;
+                }
+                Xid xid = readXid(buffer, offset);
+                XidKey key = new XidKey(xid);
+                if (type == INTENT) {
+                    segment.open.incrementAndGet();
+                    open.put(key, new InDoubtIntent(xid, buffer.getLong(offset + 8), segment));
+                } else {
+                    InDoubtIntent intent = open.get(key);
+                    if (intent == null) {
+                        continue;
+                    }
+                    if (type == GEODE_COMMITTED) {
+                        intent.geodeCommitted = true;
+                    } else if (type == END) {
+                        open.remove(key);
+                        intent.segment.open.decrementAndGet();
+                    }
+                }
+            }
+        }
+        deleteCompletedSegments();
+        return open;
+    }
+
+    private static Xid readXid(MappedByteBuffer buffer, int offset) {
+        int gtridLength = buffer.get(offset + 1) & 0xFF;
+        int bqualLength = buffer.get(offset + 2) & 0xFF;
+        int formatId = buffer.getInt(offset + 4);
+        byte[] gtrid = new byte[gtridLength];
+        byte[] bqual = new byte[bqualLength];
+        for (int i = 0; i < gtridLength; i++) {
+            gtrid[i] = buffer.get(offset + 16 + i);
+        }
+        for (int i = 0; i < bqualLength; i++) {
+            bqual[i] = buffer.get(offset + 16 + MAX_XID_PART + i);
+        }
+        return new LoggedXid(formatId, gtrid, bqual);
+    }
+
+    /**
+     * Flushes the mapped segments. The buffers are unmapped by the garbage collector.
+     */
+    @Override
+    public void close() {
+        synchronized (segments) {
+            for (Segment segment : segments.values()) {
+                segment.buffer.force();
+            }
+        }
+    }
+
+    /**
+     * Handle of a logged intent, owned by the committing resource.
+     */
+    public final class Intent {
+
+        private final Xid xid;
+        private final Segment segment;
+        private volatile boolean ended;
+
+        private Intent(Xid xid, Segment segment) {
+            this.xid = xid;
+            this.segment = segment;
+        }
+
+        /**
+         * Records the successful Geode commit.
+         */
+        public void geodeCommitted() {
+            append(GEODE_COMMITTED, xid);
+        }
+
+        /**
+         * Records the completion of the whole transaction, committed or rolled back.
+         */
+        public void end() {
+            if (!ended) {
+                ended = true;
+                append(END, xid);
+                release(segment);
+            }
+        }
+    }
+
+    /**
+     * Intent left open by a previous run.
+     */
+    public static final class InDoubtIntent {
+
+        private final Xid xid;
+        private final long timestampMillis;
+        private final Segment segment;
+        private volatile boolean geodeCommitted;
+
+        private InDoubtIntent(Xid xid, long timestampMillis, Segment segment) {
+            this.xid = xid;
+            this.timestampMillis = timestampMillis;
+            this.segment = segment;
+        }
+
+        public Xid getXid() {
+            return xid;
+        }
+
+        public long getTimestampMillis() {
+            return timestampMillis;
+        }
+
+        /**
+         * @return Returns true if the Geode commit is known to have succeeded, false if its outcome is unknown.
+         */
+        public boolean isGeodeCommitted() {
+            return geodeCommitted;
+        }
+
+        @Override
+        public String toString() {
+            return "InDoubtIntent{xid=" + xid + ", geodeCommitted=" + geodeCommitted
+                    + ", timestampMillis=" + timestampMillis + '}';
+        }
+    }
+
+    private final class Segment {
+
+        private final long sequence;
+        private final Path file;
+        private final MappedByteBuffer buffer;
+        private final AtomicInteger next = new AtomicInteger();
+        private final AtomicInteger open = new AtomicInteger();
+        private volatile boolean sealed;
+        // Written between a record payload and its type, see write().
+        private volatile int lastWritten;
+
+        Segment(long sequence, Path file, MappedByteBuffer buffer) {
+            this.sequence = sequence;
+            this.file = file;
+            this.buffer = buffer;
+        }
+
+        void write(int slot, byte type, Xid xid, boolean force) {
+            int offset = slot * RECORD_SIZE;
+            byte[] gtrid = xid.getGlobalTransactionId();
+            byte[] bqual = xid.getBranchQualifier();
+            buffer.put(offset + 1, (byte) gtrid.length);
+            buffer.put(offset + 2, (byte) bqual.length);
+            buffer.putInt(offset + 4, xid.getFormatId());
+            buffer.putLong(offset + 8, System.currentTimeMillis());
+            for (int i = 0; i < gtrid.length; i++) {
+                buffer.put(offset + 16 + i, gtrid[i]);
+            }
+            for (int i = 0; i < bqual.length; i++) {
+                buffer.put(offset + 16 + MAX_XID_PART + i, bqual[i]);
+            }
+            // The type goes last, a record with no type is ignored by the scan. Java 8 has no release store for the
+            // buffers (VarHandle), the volatile write keeps the payload stores before the type store instead.
+            lastWritten = slot;
+            buffer.put(offset, type);
+            if (force) {
+                buffer.force();
+            }
+        }
+    }
+
+    private static final class LoggedXid implements Xid {
+
+        private final int formatId;
+        private final byte[] globalTransactionId;
+        private final byte[] branchQualifier;
+
+        LoggedXid(int formatId, byte[] globalTransactionId, byte[] branchQualifier) {
+            this.formatId = formatId;
+            this.globalTransactionId = globalTransactionId;
+            this.branchQualifier = branchQualifier;
+        }
+
+        @Override
+        public int getFormatId() {
+            return formatId;
+        }
+
+        @Override
+        public byte[] getGlobalTransactionId() {
+            return globalTransactionId;
+        }
+
+        @Override
+        public byte[] getBranchQualifier() {
+            return branchQualifier;
+        }
+
+        @Override
+        public String toString() {
+            return "Xid{formatId=" + formatId + ", gtrid=" + Arrays.toString(globalTransactionId) + '}';
+        }
+    }
+}
@@ -0,0 +1,232 @@
+/*
+ * Copyright (c) 2026. The original author or authors.
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package io.datalake.geode.jta.narayana;
+
+import org.apache.geode.cache.CommitConflictException;
+import org.apache.geode.cache.TransactionId;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import javax.transaction.xa.XAException;
+import javax.transaction.xa.Xid;
+import java.lang.management.ManagementFactory;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Pattern;
+
+/**
+ * Opt-in {@link NarayanaGeodeTransactionListener} that records the Region keys of Geode commit conflicts and slow
+ * commits. The keys are captured from the Geode transaction state just before the commit and are counted in two
+ * bounded {@link SpaceSavingTopK} sketches, so the memory stays constant regardless the key space.
+ * <p>
+ * Only the conflicting key of a commit conflict is counted, not every key of the failed transaction. Geode stops the
+ * commit at the first conflicting entry and names it in the {@link CommitConflictException} message only, so the
+ * captured keys are matched against the message.
+ * <p>
+ * Use {@link #register()} to register the profiler as a transaction listener and as the
+ * "io.datalake.geode.jta.narayana:type=GeodeKeyContentionProfiler" MBean, and {@link #unregister()} to remove it.
+ * <p>
+ * The key capture walks the transaction state before every commit, so enable the profiler while investigating
+ * contention, not permanently.
+ */
+public class GeodeKeyContentionProfiler implements NarayanaGeodeTransactionListener, GeodeKeyContentionProfilerMBean {
+
+    public static final String OBJECT_NAME = "io.datalake.geode.jta.narayana:type=GeodeKeyContentionProfiler";
+
+    public static final int DEFAULT_CAPACITY = 100;
+    public static final long DEFAULT_SLOW_COMMIT_THRESHOLD_MILLIS = 100;
+
+    // The keys are captured and consumed on the thread committing the Geode transaction.
+    private final ThreadLocal<Map<String, Set<Object>>> pendingKeys = new ThreadLocal<>();
+
+    private final SpaceSavingTopK conflictKeys;
+    private final SpaceSavingTopK slowCommitKeys;
+    private volatile long slowCommitThresholdNanos;
+
+    public GeodeKeyContentionProfiler() {
+        this(DEFAULT_CAPACITY, DEFAULT_SLOW_COMMIT_THRESHOLD_MILLIS);
+    }
+
+    /**
+     * @param capacity                  Maximum number of keys monitored per sketch.
+     * @param slowCommitThresholdMillis Geode commits lasting at least that long are considered slow.
+     */
+    public GeodeKeyContentionProfiler(int capacity, long slowCommitThresholdMillis) {
+        this.conflictKeys = new SpaceSavingTopK(capacity);
+        this.slowCommitKeys = new SpaceSavingTopK(capacity);
+        this.setSlowCommitThresholdMillis(slowCommitThresholdMillis);
+    }
+
+    public void register() {
+        try {
+            MBeanServer mBeanServer = ManagementFactory.getPlatformMBeanServer();
+            ObjectName objectName = new ObjectName(OBJECT_NAME);
+            if (!mBeanServer.isRegistered(objectName)) {
+                mBeanServer.registerMBean(this, objectName);
+            }
+        } catch (JMException e) {
+            throw new NarayanaGeodeException("Failed to register the " + OBJECT_NAME + " MBean", e);
+        }
+        NarayanaGeodeTransactionListeners.add(this);
+    }
+
+    public void unregister() {
+        NarayanaGeodeTransactionListeners.remove(this);
+        try {
+            MBeanServer mBeanServer = ManagementFactory.getPlatformMBeanServer();
+            ObjectName objectName = new ObjectName(OBJECT_NAME);
+            if (mBeanServer.isRegistered(objectName)) {
+                mBeanServer.unregisterMBean(objectName);
+            }
+        } catch (JMException e) {
+            throw new NarayanaGeodeException("Failed to unregister the " + OBJECT_NAME + " MBean", e);
+        }
+    }
+
+    @Override
+    public boolean isKeyCaptureRequired() {
+        return true;
+    }
+
+    @Override
+    public void beforeCommit(Xid xid, TransactionId transactionId, Map<String, Set<Object>> regionKeys) {
+        this.pendingKeys.set(regionKeys);
+    }
+
+    @Override
+    public void afterCommit(Xid xid, TransactionId transactionId, long commitNanos, long transactionNanos) {
+        Map<String, Set<Object>> regionKeys = this.takePendingKeys();
+        if (regionKeys != null && commitNanos >= this.slowCommitThresholdNanos) {
+            offer(this.slowCommitKeys, regionKeys);
+        }
+    }
+
+    @Override
+    public void afterRollback(Xid xid, TransactionId transactionId, long rollbackNanos, long transactionNanos) {
+        this.takePendingKeys();
+    }
+
+    @Override
+    public void onFailure(Xid xid, TransactionId transactionId, XAException exception) {
+        Map<String, Set<Object>> regionKeys = this.takePendingKeys();
+        if (regionKeys != null && exception.errorCode == XAException.XA_RBTRANSIENT
+                && exception.getCause() instanceof CommitConflictException) {
+            offer(this.conflictKeys, conflictingKeys(regionKeys, exception.getCause().getMessage()));
+        }
+    }
+
+    public List<SpaceSavingTopK.Entry> getConflictEntries(int k) {
+        return this.conflictKeys.top(k);
+    }
+
+    public List<SpaceSavingTopK.Entry> getSlowCommitEntries(int k) {
+        return this.slowCommitKeys.top(k);
+    }
+
+    @Override
+    public String[] getTopConflictKeys() {
+        return toStrings(this.conflictKeys.top(this.conflictKeys.getCapacity()));
+    }
+
+    @Override
+    public String[] getTopSlowCommitKeys() {
+        return toStrings(this.slowCommitKeys.top(this.slowCommitKeys.getCapacity()));
+    }
+
+    @Override
+    public long getSlowCommitThresholdMillis() {
+        return TimeUnit.NANOSECONDS.toMillis(this.slowCommitThresholdNanos);
+    }
+
+    @Override
+    public void setSlowCommitThresholdMillis(long slowCommitThresholdMillis) {
+        this.slowCommitThresholdNanos = TimeUnit.MILLISECONDS.toNanos(slowCommitThresholdMillis);
+    }
+
+    @Override
+    public void reset() {
+        this.conflictKeys.clear();
+        this.slowCommitKeys.clear();
+    }
+
+    private Map<String, Set<Object>> takePendingKeys() {
+        Map<String, Set<Object>> regionKeys = this.pendingKeys.get();
+        if (regionKeys != null) {
+            this.pendingKeys.remove();
+        }
+        return regionKeys;
+    }
+
+    /**
+     * @param regionKeys Keys of the failed transaction, grouped by region full path.
+     * @param message    CommitConflictException message, e.g. "Entry for key hotKey on region /orders had already been
+     *                   changed from ...".
+     * @return Returns the keys named by the message, under a region also named by the message.
+     */
+    static Map<String, Set<Object>> conflictingKeys(Map<String, Set<Object>> regionKeys, String message) {
+        if (message == null) {
+            return Collections.emptyMap();
+        }
+        Map<String, Set<Object>> conflicting = new HashMap<>();
+        for (Map.Entry<String, Set<Object>> region : regionKeys.entrySet()) {
+            // The message names a partitioned region by the bucket, which contains the region name.
+            String regionName = region.getKey().substring(region.getKey().lastIndexOf('/') + 1);
+            if (!message.contains(regionName)) {
+                continue;
+            }
+            for (Object key : region.getValue()) {
+                if (containsToken(message, String.valueOf(key))) {
+                    conflicting.computeIfAbsent(region.getKey(), path -> new HashSet<>()).add(key);
+                }
+            }
+        }
+        return conflicting;
+    }
+
+    // Matches the whole key only, e.g. "hotKey" does not match "hotKey2".
+    private static boolean containsToken(String message, String token) {
+        return !token.isEmpty()
+                && Pattern.compile("(^|[^\\w])" + Pattern.quote(token) + "([^\\w]|$)").matcher(message).find();
+    }
+
+    private static void offer(SpaceSavingTopK sketch, Map<String, Set<Object>> regionKeys) {
+        for (Map.Entry<String, Set<Object>> region : regionKeys.entrySet()) {
+            for (Object key : region.getValue()) {
+                sketch.offer(region.getKey() + ":" + key);
+            }
+        }
+    }
+
+    private static String[] toStrings(List<SpaceSavingTopK.Entry> entries) {
+        String[] result = new String[entries.size()];
+        for (int i = 0; i < result.length; i++) {
+            result[i] = entries.get(i).toString();
+        }
+        return result;
+    }
+}
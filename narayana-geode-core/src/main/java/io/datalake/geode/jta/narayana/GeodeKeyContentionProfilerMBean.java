@@ -0,0 +1,47 @@
+/*
+ * Copyright (c) 2026. The original author or authors.
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package io.datalake.geode.jta.narayana;
+
+/**
+ * JMX management interface of the {@link GeodeKeyContentionProfiler}.
+ */
+public interface GeodeKeyContentionProfilerMBean {
+
+    /**
+     * @return Returns the region keys most frequently involved in Geode commit conflicts, as "regionPath:key=count".
+     */
+    String[] getTopConflictKeys();
+
+    /**
+     * @return Returns the region keys most frequently involved in slow Geode commits, as "regionPath:key=count".
+     */
+    String[] getTopSlowCommitKeys();
+
+    long getSlowCommitThresholdMillis();
+
+    void setSlowCommitThresholdMillis(long slowCommitThresholdMillis);
+
+    /**
+     * Clears the collected statistics.
+     */
+    void reset();
+}
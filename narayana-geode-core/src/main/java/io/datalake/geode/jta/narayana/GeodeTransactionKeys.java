@@ -0,0 +1,72 @@
+/*
+ * Copyright (c) 2026. The original author or authors.
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package io.datalake.geode.jta.narayana;
+
+import org.apache.geode.internal.cache.BucketRegion;
+import org.apache.geode.internal.cache.LocalRegion;
+import org.apache.geode.internal.cache.TXRegionState;
+import org.apache.geode.internal.cache.TXStateProxy;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Collects the keys touched by a Geode transaction from its {@link TXStateProxy}. The partitioned region buckets are
+ * reported under the full path of their partitioned region.
+ */
+final class GeodeTransactionKeys {
+
+    private GeodeTransactionKeys() {
+    }
+
+    /**
+     * @param txState Geode transaction state, could be null.
+     * @return Returns the keys read or written by the transaction, grouped by region full path. Empty if the state is
+     * not available (e.g. no transaction or a client transaction hosted on a server).
+     */
+    @SuppressWarnings("unchecked")
+    static Map<String, Set<Object>> capture(TXStateProxy txState) {
+        if (txState == null) {
+            return Collections.emptyMap();
+        }
+        try {
+            Map<String, Set<Object>> regionKeys = new HashMap<>();
+            for (LocalRegion region : txState.getRegions()) {
+                TXRegionState regionState = txState.readRegion(region);
+                if (regionState == null) {
+                    continue;
+                }
+                String regionPath = (region instanceof BucketRegion) ?
+                        ((BucketRegion) region).getPartitionedRegion().getFullPath() : region.getFullPath();
+                regionKeys.computeIfAbsent(regionPath, path -> new HashSet<>())
+                        .addAll((Set<Object>) regionState.getEntryKeys());
+            }
+            return regionKeys;
+        } catch (RuntimeException e) {
+            // The key capture is best effort diagnostic, it must never fail the commit.
+            return Collections.emptyMap();
+        }
+    }
+}
@@ -0,0 +1,70 @@
+/*
+ * Copyright (c) 2026. The original author or authors.
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package io.datalake.geode.jta.narayana;
+
+import org.apache.geode.cache.Region;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * {@link Region} proxy handler that enlists Geode as Last Resource Commit before the first transactional region
+ * operation, instead of at the beginning of the transaction.
+ */
+class LazyEnlistingRegionInvocationHandler implements InvocationHandler {
+
+    /**
+     * Region methods that never participate in a transaction.
+     */
+    private static final Set<String> NON_TRANSACTIONAL_METHODS = Collections.unmodifiableSet(new HashSet<>(Arrays.asList(
+            "getName", "getFullPath", "getParentRegion", "getAttributes", "getAttributesMutator", "getStatistics",
+            "getRegionService", "getCache", "getSubregion", "subregions", "isDestroyed", "getUserAttribute",
+            "setUserAttribute", "getInterestList", "getInterestListRegex", "toString", "hashCode", "equals")));
+
+    private final Region<?, ?> region;
+
+    LazyEnlistingRegionInvocationHandler(Region<?, ?> region) {
+        this.region = region;
+    }
+
+    @Override
+    public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+
+        if (!NON_TRANSACTIONAL_METHODS.contains(method.getName())) {
+            NarayanaGeodeSupport.enlistGeodeAsLastCommitResourceIfNecessary();
+            if (NarayanaGeodeTransactionListeners.isActive()) {
+                NarayanaGeodeTransactionListeners.beforeOperation();
+            }
+        }
+
+        try {
+            return method.invoke(this.region, args);
+        } catch (InvocationTargetException e) {
+            throw e.getTargetException();
+        }
+    }
+}
@@ -0,0 +1,193 @@
+/*
+ * Copyright (c) 2026. The original author or authors.
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package io.datalake.geode.jta.narayana;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Chooses how Geode takes part in a transaction, per transaction type (e.g. the @Transactional method), from the
+ * outcomes observed for that type:
+ * <ul>
+ * <li>{@link Mode#GEODE_LOCAL} - a Geode-only transaction, bypassing Narayana. Never chosen from the observations,
+ * only for the types {@link #pin(String, Mode) pinned} to it.</li>
+ * <li>{@link Mode#LAST_RESOURCE_COMMIT} - Geode enlisted as Last Resource Commit. The default.</li>
+ * <li>{@link Mode#SYNCHRONIZATION} - Geode registered as JTA Synchronization. Geode validates the transaction in
+ * beforeCompletion, before the other resources prepare, so a conflicting transaction aborts before the resource
+ * managers have done the prepare work. Chosen while the commit conflict rate of the type is at or above the
+ * conflictThreshold (until it drops below half of it), or while its commits are faster than the Last Resource Commit
+ * ones by the latencyRatio. Note that the Synchronization mode is not atomic if Geode fails after the validation.</li>
+ * </ul>
+ * The conflict rate and the per mode commit latencies are exponentially weighted moving averages. Every probeInterval-th
+ * global transaction of a type runs in the other global mode, to keep both latencies current.
+ * <p>
+ * The observations can not prove that a type never touches another resource: a rare code path could, and would then
+ * run without a global transaction. So the Geode-only types are an explicit allow-list, the pinned types.
+ */
+public class NarayanaGeodeAdaptivePolicy {
+
+    public enum Mode {
+        GEODE_LOCAL, LAST_RESOURCE_COMMIT, SYNCHRONIZATION
+    }
+
+    public static final double DEFAULT_CONFLICT_THRESHOLD = 0.1;
+    public static final int DEFAULT_PROBE_INTERVAL = 64;
+    public static final double DEFAULT_LATENCY_RATIO = 1.5;
+
+    // Weight of the newest sample in the moving averages.
+    private static final double ALPHA = 0.05;
+
+    private final Map<String, TypeStats> types = new ConcurrentHashMap<>();
+    private final Map<String, Mode> pinned = new ConcurrentHashMap<>();
+    private volatile double conflictThreshold = DEFAULT_CONFLICT_THRESHOLD;
+    private volatile int probeInterval = DEFAULT_PROBE_INTERVAL;
+    private volatile double latencyRatio = DEFAULT_LATENCY_RATIO;
+
+    /**
+     * @param type The transaction type, e.g. the class and method name.
+     * @return Returns the mode to run the next transaction of the type in.
+     */
+    public Mode select(String type) {
+        Mode mode = pinned.get(type);
+        if (mode != null) {
+            return mode;
+        }
+        TypeStats stats = this.stats(type);
+        mode = stats.mode;
+        int probeInterval = this.probeInterval;
+        if (probeInterval > 0 && stats.selections.incrementAndGet() % probeInterval == 0) {
+            return (mode == Mode.LAST_RESOURCE_COMMIT) ? Mode.SYNCHRONIZATION : Mode.LAST_RESOURCE_COMMIT;
+        }
+        return mode;
+    }
+
+    /**
+     * Records the outcome of a committed, or failed to commit, transaction. Only the successful commits are latency
+     * samples: a failed commit stops early, or waits for a timeout, and says nothing about the commit cost.
+     *
+     * @param type     The transaction type.
+     * @param mode     The mode the transaction ran in.
+     * @param nanos    The duration of the commit alone, in nanoseconds, or a negative value if the commit failed.
+     * @param conflict True if the commit failed with a Geode commit conflict.
+     */
+    public void record(String type, Mode mode, long nanos, boolean conflict) {
+        TypeStats stats = this.stats(type);
+        synchronized (stats) {
+            stats.conflictRate += ALPHA * ((conflict ? 1.0 : 0.0) - stats.conflictRate);
+            if (mode != Mode.GEODE_LOCAL && !conflict && nanos >= 0) {
+                double latency = stats.latencyNanos[mode.ordinal()];
+                stats.latencyNanos[mode.ordinal()] = (latency == 0.0) ? nanos : latency + ALPHA * (nanos - latency);
+            }
+            double threshold = (stats.mode == Mode.SYNCHRONIZATION) ? conflictThreshold / 2 : conflictThreshold;
+            double lrcoLatency = stats.latencyNanos[Mode.LAST_RESOURCE_COMMIT.ordinal()];
+            double synchronizationLatency = stats.latencyNanos[Mode.SYNCHRONIZATION.ordinal()];
+            boolean synchronizationFaster = lrcoLatency > 0.0 && synchronizationLatency > 0.0
+                    && synchronizationLatency * latencyRatio < lrcoLatency;
+            stats.mode = (stats.conflictRate >= threshold || synchronizationFaster)
+                    ? Mode.SYNCHRONIZATION : Mode.LAST_RESOURCE_COMMIT;
+        }
+    }
+
+    /**
+     * Runs the transaction type always in the given mode. Pin to GEODE_LOCAL only the types that never use a resource
+     * other than Geode.
+     *
+     * @param type The transaction type.
+     * @param mode The mode, or null to let the policy choose again.
+     */
+    public void pin(String type, Mode mode) {
+        if (mode == null) {
+            pinned.remove(type);
+        } else {
+            pinned.put(type, mode);
+        }
+    }
+
+    /**
+     * @return Returns the mode the next, non-probing, transaction of every known type runs in.
+     */
+    public Map<String, Mode> getModes() {
+        Map<String, Mode> modes = new HashMap<>();
+        for (Map.Entry<String, TypeStats> type : types.entrySet()) {
+            modes.put(type.getKey(), type.getValue().mode);
+        }
+        modes.putAll(pinned);
+        return Collections.unmodifiableMap(modes);
+    }
+
+    /**
+     * Forgets the observations of all types. The pinned modes are kept.
+     */
+    public void reset() {
+        types.clear();
+    }
+
+    private TypeStats stats(String type) {
+        TypeStats stats = types.get(type);
+        return (stats != null) ? stats : types.computeIfAbsent(type, key -> new TypeStats());
+    }
+
+    public double getConflictThreshold() {
+        return conflictThreshold;
+    }
+
+    /**
+     * @param conflictThreshold Commit conflict rate, from 0 to 1, switching a type to the Synchronization mode.
+     */
+    public void setConflictThreshold(double conflictThreshold) {
+        this.conflictThreshold = conflictThreshold;
+    }
+
+    public int getProbeInterval() {
+        return probeInterval;
+    }
+
+    /**
+     * @param probeInterval Every probeInterval-th transaction runs in the other global mode. Zero disables the probes.
+     */
+    public void setProbeInterval(int probeInterval) {
+        this.probeInterval = probeInterval;
+    }
+
+    public double getLatencyRatio() {
+        return latencyRatio;
+    }
+
+    /**
+     * @param latencyRatio How many times faster the Synchronization mode commits have to be to be preferred.
+     */
+    public void setLatencyRatio(double latencyRatio) {
+        this.latencyRatio = latencyRatio;
+    }
+
+    private static final class TypeStats {
+
+        private final AtomicLong selections = new AtomicLong();
+        private volatile Mode mode = Mode.LAST_RESOURCE_COMMIT;
+        // Guarded by the TypeStats monitor.
+        private double conflictRate;
+        private final double[] latencyNanos = new double[Mode.values().length];
+    }
+}
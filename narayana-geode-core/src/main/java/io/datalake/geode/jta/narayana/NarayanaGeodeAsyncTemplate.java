@@ -0,0 +1,159 @@
+/*
+ * Copyright (c) 2026. The original author or authors.
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package io.datalake.geode.jta.narayana;
+
+import javax.transaction.TransactionManager;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+/**
+ * Asynchronous counterpart of the {@link NarayanaGeodeRetryTemplate#execute(java.util.concurrent.Callable)}: runs a
+ * unit of work in a Narayana JTA transaction with Geode enlisted as Last Resource Commit, without blocking the caller
+ * thread for the duration of the transaction.
+ * <p>
+ * The transaction begins, runs its {@link NarayanaGeodeAsyncTransaction#call(java.util.concurrent.Callable) steps}
+ * and commits (or rolls back) on the template executor. The JTA and the Geode transactions are suspended between
+ * the steps and resumed on the thread running the next step, so the unit of work can hop threads (e.g. wait for a
+ * remote call) without holding one. Use a bounded executor (see {@link #newBoundedExecutor(int, int)}), the Geode
+ * commit is blocking.
+ * <p>
+ * For example:
+ * <pre>
+ *     NarayanaGeodeAsyncTemplate asyncTemplate = new NarayanaGeodeAsyncTemplate(executor);
+ *     CompletableFuture&lt;Integer&gt; value = asyncTemplate.execute(tx -&gt;
+ *         tx.call(() -&gt; region.get(KEY))
+ *           .thenCompose(current -&gt; remotePricingService.price(current))
+ *           .thenCompose(price -&gt; tx.call(() -&gt; {
+ *               region.put(KEY, price);
+ *               return price;
+ *           })));
+ * </pre>
+ * The returned future completes after the commit, with the unit result, or with the unit or the commit failure
+ * after the rollback. Reactor users can adapt it with Mono.fromFuture.
+ */
+public class NarayanaGeodeAsyncTemplate {
+
+    private final Executor executor;
+
+    /**
+     * @param executor Runs the transaction begin, steps and commit. Should be bounded.
+     */
+    public NarayanaGeodeAsyncTemplate(Executor executor) {
+        if (executor == null) {
+            throw new IllegalArgumentException("The executor must not be null");
+        }
+        this.executor = executor;
+    }
+
+    /**
+     * Creates a fixed size executor with a bounded queue. The tasks submitted to a saturated executor are rejected,
+     * failing the transaction, instead of blocking the caller.
+     *
+     * @param threads       Number of the executor threads.
+     * @param queueCapacity Maximum number of the queued tasks.
+     * @return Returns the new executor. The caller is responsible for its shutdown.
+     */
+    public static ThreadPoolExecutor newBoundedExecutor(int threads, int queueCapacity) {
+        AtomicInteger threadCounter = new AtomicInteger();
+        ThreadFactory threadFactory = runnable -> {
+            Thread thread = new Thread(runnable, "narayana-geode-async-" + threadCounter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+        return new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity), threadFactory, new ThreadPoolExecutor.AbortPolicy());
+    }
+
+    /**
+     * Begins a new transaction and applies the unit of work to it. The transaction is committed when the unit stage
+     * completes normally and rolled back when it completes exceptionally.
+     *
+     * @param unit The transactional unit of work. Its steps must run through the given transaction.
+     * @return Returns a future completed after the transaction completion.
+     */
+    public <T> CompletableFuture<T> execute(Function<NarayanaGeodeAsyncTransaction, ? extends CompletionStage<T>> unit) {
+        TransactionManager tm = com.arjuna.ats.jta.TransactionManager.transactionManager();
+        NarayanaGeodeAsyncTransaction tx =
+                new NarayanaGeodeAsyncTransaction(tm, NarayanaGeodeSupport.cacheContext().getTxManager(), executor);
+        CompletableFuture<T> result = new CompletableFuture<>();
+
+        Runnable begin = () -> {
+            CompletionStage<T> stage;
+            try {
+                tx.begin();
+                stage = unit.apply(tx);
+            } catch (Throwable t) {
+                complete(tx, null, t, result);
+                return;
+            }
+            stage.whenComplete((value, failure) -> {
+                try {
+                    executor.execute(() -> complete(tx, value, failure, result));
+                } catch (RuntimeException rejected) {
+                    // Never leave the transaction open, roll it back on the completing thread.
+                    complete(tx, null, (failure != null) ? failure : rejected, result);
+                }
+            });
+        };
+        try {
+            executor.execute(begin);
+        } catch (RuntimeException rejected) {
+            // Nothing has begun yet.
+            result.completeExceptionally(rejected);
+        }
+        return result;
+    }
+
+    private static <T> void complete(NarayanaGeodeAsyncTransaction tx, T value, Throwable failure,
+                                     CompletableFuture<T> result) {
+        failure = unwrap(failure);
+        if (failure == null) {
+            try {
+                tx.commit();
+                result.complete(value);
+                return;
+            } catch (Throwable t) {
+                failure = t;
+            }
+        }
+        if (tx.getTransaction() != null) {
+            try {
+                tx.rollback();
+            } catch (Throwable t) {
+                failure.addSuppressed(t);
+            }
+        }
+        result.completeExceptionally(failure);
+    }
+
+    private static Throwable unwrap(Throwable failure) {
+        return (failure instanceof CompletionException && failure.getCause() != null) ? failure.getCause() : failure;
+    }
+}
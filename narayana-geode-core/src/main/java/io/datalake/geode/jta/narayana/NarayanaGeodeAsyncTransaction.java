@@ -0,0 +1,163 @@
+/*
+ * Copyright (c) 2026. The original author or authors.
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package io.datalake.geode.jta.narayana;
+
+import org.apache.geode.cache.TransactionId;
+import org.apache.geode.internal.cache.TXManagerImpl;
+
+import javax.transaction.InvalidTransactionException;
+import javax.transaction.SystemException;
+import javax.transaction.Transaction;
+import javax.transaction.TransactionManager;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * A Narayana JTA transaction, with Geode enlisted as Last Resource Commit, that is not bound to a thread. Between the
+ * steps both the JTA and the Geode transactions are suspended, and every {@link #call(Callable) step} resumes them on
+ * the executor thread that runs it.
+ * <p>
+ * The steps of one transaction must run one after the other (e.g. chained with thenCompose). A step submitted while
+ * another one is running waits for it.
+ * <p>
+ * Created by the {@link NarayanaGeodeAsyncTemplate}.
+ */
+public final class NarayanaGeodeAsyncTransaction {
+
+    private final TransactionManager transactionManager;
+    private final TXManagerImpl geodeTxManager;
+    private final Executor executor;
+    private final ReentrantLock lock = new ReentrantLock();
+
+    private Transaction transaction;
+    private TransactionId geodeTransactionId;
+
+    NarayanaGeodeAsyncTransaction(TransactionManager transactionManager, TXManagerImpl geodeTxManager,
+                                  Executor executor) {
+        this.transactionManager = transactionManager;
+        this.geodeTxManager = geodeTxManager;
+        this.executor = executor;
+    }
+
+    /**
+     * Runs the step on the executor, inside this transaction.
+     *
+     * @param step The transactional step, e.g. Geode region operations.
+     * @return Returns a future completed with the step result, or the step failure.
+     */
+    public <T> CompletableFuture<T> call(Callable<T> step) {
+        CompletableFuture<T> result = new CompletableFuture<>();
+        executor.execute(() -> {
+            try {
+                result.complete(inTransaction(step));
+            } catch (Throwable t) {
+                result.completeExceptionally(t);
+            }
+        });
+        return result;
+    }
+
+    /**
+     * @return Returns the suspended JTA transaction.
+     */
+    public Transaction getTransaction() {
+        return transaction;
+    }
+
+    <T> T inTransaction(Callable<T> step) throws Exception {
+        lock.lock();
+        try {
+            resume();
+            try {
+                return step.call();
+            } finally {
+                suspend();
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Begins the transaction on the calling thread, enlists Geode and suspends both.
+     */
+    void begin() throws Exception {
+        lock.lock();
+        try {
+            transactionManager.begin();
+            try {
+                NarayanaGeodeSupport.enlistGeodeAsLastCommitResource();
+            } finally {
+                suspend();
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    void commit() throws Exception {
+        lock.lock();
+        try {
+            resume();
+            transactionManager.commit();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    void rollback() throws Exception {
+        lock.lock();
+        try {
+            resume();
+            transactionManager.rollback();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void suspend() throws SystemException {
+        this.transaction = transactionManager.suspend();
+        // Narayana does not end the resources with TMSUSPEND by default, detach the Geode transaction explicitly.
+        this.geodeTransactionId = (TXManagerImpl.getCurrentTXState() != null) ? geodeTxManager.suspend() : null;
+    }
+
+    private void resume() throws SystemException, InvalidTransactionException {
+        if (this.transaction == null) {
+            throw new IllegalStateException("The transaction is already completed");
+        }
+        transactionManager.resume(this.transaction);
+        this.transaction = null;
+        TransactionId geodeTransactionId = this.geodeTransactionId;
+        this.geodeTransactionId = null;
+        if (geodeTransactionId != null && TXManagerImpl.getCurrentTXState() == null
+                && !geodeTxManager.tryResume(geodeTransactionId)) {
+            // Expired (see the Geode suspendedTransactionTimeout). Leave the JTA transaction suspended, it can only
+            // be rolled back.
+            Transaction transaction = transactionManager.suspend();
+            transaction.setRollbackOnly();
+            this.transaction = transaction;
+            throw new IllegalStateException("The Geode transaction " + geodeTransactionId + " is no longer suspended");
+        }
+    }
+}
@@ -0,0 +1,275 @@
+/*
+ * Copyright (c) 2026. The original author or authors.
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package io.datalake.geode.jta.narayana;
+
+import org.apache.geode.cache.Region;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+/**
+ * Writes a large stream of entries (or removes a stream of keys) through {@link Region#putAll(Map)} and
+ * {@link Region#removeAll(java.util.Collection)} in chunks. Every chunk is written in its own Narayana JTA transaction
+ * with Geode enlisted as Last Resource Commit, and re-run on Geode commit conflicts by a
+ * {@link NarayanaGeodeRetryTemplate}. Up to parallelism chunks are written concurrently.
+ * <p>
+ * The optional {@link Checkpoint} makes the load resumable. It records the number of the leading entries whose chunks
+ * are all committed. A restarted load, fed with the same stream in the same order, skips them. Chunks committed
+ * after a failed chunk (out of order, with parallelism above 1) are written again on resume, which is harmless for
+ * putAll and removeAll.
+ * <p>
+ * For example:
+ * <pre>
+ *     NarayanaGeodeBatchLoader&lt;String, Customer&gt; loader = new NarayanaGeodeBatchLoader&lt;&gt;(region, 1000, 4)
+ *             .withCheckpoint(NarayanaGeodeBatchLoader.fileCheckpoint(Paths.get("customers.checkpoint")));
+ *     loader.putAll(customers.entrySet().iterator());
+ * </pre>
+ */
+public class NarayanaGeodeBatchLoader<K, V> {
+
+    public static final int DEFAULT_CHUNK_SIZE = 1000;
+
+    /**
+     * Stores the load progress: the number of the leading stream entries already committed.
+     */
+    public interface Checkpoint {
+
+        /**
+         * @return Returns the number of the leading entries committed by a previous run, 0 if none.
+         */
+        long load() throws IOException;
+
+        /**
+         * @param committedEntries The number of the leading entries committed so far.
+         */
+        void save(long committedEntries) throws IOException;
+    }
+
+    private final Region<K, V> region;
+    private final int chunkSize;
+    private final int parallelism;
+    private NarayanaGeodeRetryTemplate retryTemplate = new NarayanaGeodeRetryTemplate();
+    private Checkpoint checkpoint;
+
+    /**
+     * @param region      The region to write to.
+     * @param chunkSize   Number of entries written in one transaction.
+     * @param parallelism Number of the chunks written concurrently.
+     */
+    public NarayanaGeodeBatchLoader(Region<K, V> region, int chunkSize, int parallelism) {
+        if (chunkSize < 1 || parallelism < 1) {
+            throw new IllegalArgumentException("The chunkSize and parallelism must be at least 1, but were: "
+                    + chunkSize + ", " + parallelism);
+        }
+        this.region = region;
+        this.chunkSize = chunkSize;
+        this.parallelism = parallelism;
+    }
+
+    /**
+     * @param checkpoint Stores the load progress. Null disables the checkpoint.
+     * @return Returns this loader.
+     */
+    public NarayanaGeodeBatchLoader<K, V> withCheckpoint(Checkpoint checkpoint) {
+        this.checkpoint = checkpoint;
+        return this;
+    }
+
+    /**
+     * @param retryTemplate Runs the chunk transactions. Defaults to 3 attempts on commit conflicts.
+     * @return Returns this loader.
+     */
+    public NarayanaGeodeBatchLoader<K, V> withRetryTemplate(NarayanaGeodeRetryTemplate retryTemplate) {
+        this.retryTemplate = retryTemplate;
+        return this;
+    }
+
+    /**
+     * Puts the entries in chunks. Must be called outside of a running JTA transaction.
+     *
+     * @param entries The entries to put, in a stable order if a checkpoint is used.
+     * @return Returns the number of the entries put by this call (excluding the ones skipped on resume).
+     * @throws Exception The first chunk failure. The chunks before it are committed and recorded in the checkpoint.
+     */
+    public long putAll(Iterator<? extends Map.Entry<? extends K, ? extends V>> entries) throws Exception {
+        return load(entries, chunk -> {
+            Map<K, V> map = new HashMap<>(chunk.size() * 4 / 3 + 1);
+            for (Map.Entry<? extends K, ? extends V> entry : chunk) {
+                map.put(entry.getKey(), entry.getValue());
+            }
+            region.putAll(map);
+        });
+    }
+
+    /**
+     * Removes the keys in chunks. Must be called outside of a running JTA transaction.
+     *
+     * @param keys The keys to remove, in a stable order if a checkpoint is used.
+     * @return Returns the number of the keys processed by this call (excluding the ones skipped on resume).
+     * @throws Exception The first chunk failure. The chunks before it are committed and recorded in the checkpoint.
+     */
+    public long removeAll(Iterator<? extends K> keys) throws Exception {
+        return load(keys, chunk -> region.removeAll(new ArrayList<>(chunk)));
+    }
+
+    private <E> long load(Iterator<E> items, Consumer<List<E>> writer) throws Exception {
+        long skip = (checkpoint != null) ? checkpoint.load() : 0;
+        for (long i = 0; i < skip && items.hasNext(); i++) {
+            items.next();
+        }
+
+        AtomicInteger threadCounter = new AtomicInteger();
+        ExecutorService executor = Executors.newFixedThreadPool(parallelism, runnable -> {
+            Thread thread = new Thread(runnable, "narayana-geode-batch-" + threadCounter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        ExecutorCompletionService<ChunkResult> completion = new ExecutorCompletionService<>(executor);
+        Progress progress = new Progress(skip);
+        int inFlight = 0;
+        long chunkIndex = 0;
+        Exception failure = null;
+        try {
+            while (failure == null && items.hasNext()) {
+                List<E> chunk = new ArrayList<>(chunkSize);
+                while (chunk.size() < chunkSize && items.hasNext()) {
+                    chunk.add(items.next());
+                }
+                long index = chunkIndex++;
+                completion.submit(() -> {
+                    try {
+                        retryTemplate.execute(() -> {
+                            writer.accept(chunk);
+                            return null;
+                        });
+                        return new ChunkResult(index, chunk.size(), null);
+                    } catch (Exception e) {
+                        return new ChunkResult(index, chunk.size(), e);
+                    }
+                });
+                if (++inFlight == parallelism) {
+                    failure = progress.complete(completion.take());
+                    inFlight--;
+                }
+            }
+            for (; inFlight > 0; inFlight--) {
+                Exception chunkFailure = progress.complete(completion.take());
+                if (failure == null) {
+                    failure = chunkFailure;
+                }
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        if (failure != null) {
+            throw failure;
+        }
+        return progress.committed - skip;
+    }
+
+    /**
+     * Advances the checkpoint over the contiguous prefix of the committed chunks.
+     */
+    private final class Progress {
+
+        private final TreeMap<Long, Integer> committedOutOfOrder = new TreeMap<>();
+        private long nextChunk;
+        private long firstFailedChunk = Long.MAX_VALUE;
+        private long committed;
+
+        Progress(long committed) {
+            this.committed = committed;
+        }
+
+        Exception complete(Future<ChunkResult> chunk) throws IOException, InterruptedException, ExecutionException {
+            ChunkResult result = chunk.get();
+            if (result.failure != null) {
+                firstFailedChunk = Math.min(firstFailedChunk, result.index);
+                return result.failure;
+            }
+            committedOutOfOrder.put(result.index, result.size);
+            long before = committed;
+            Integer size;
+            // Never move past a failed chunk, it has to be written again on resume.
+            while (nextChunk < firstFailedChunk && (size = committedOutOfOrder.remove(nextChunk)) != null) {
+                committed += size;
+                nextChunk++;
+            }
+            if (checkpoint != null && committed != before) {
+                checkpoint.save(committed);
+            }
+            return null;
+        }
+    }
+
+    private static final class ChunkResult {
+
+        private final long index;
+        private final int size;
+        private final Exception failure;
+
+        ChunkResult(long index, int size, Exception failure) {
+            this.index = index;
+            this.size = size;
+            this.failure = failure;
+        }
+    }
+
+    /**
+     * @param file The file storing the committed entries count. It is replaced atomically on every save.
+     * @return Returns a checkpoint backed by the given file.
+     */
+    public static Checkpoint fileCheckpoint(Path file) {
+        return new Checkpoint() {
+            @Override
+            public long load() throws IOException {
+                if (!Files.exists(file)) {
+                    return 0;
+                }
+                return Long.parseLong(new String(Files.readAllBytes(file), StandardCharsets.UTF_8).trim());
+            }
+
+            @Override
+            public void save(long committedEntries) throws IOException {
+                Path temp = file.resolveSibling(file.getFileName() + ".tmp");
+                Files.write(temp, Long.toString(committedEntries).getBytes(StandardCharsets.UTF_8));
+                Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            }
+        };
+    }
+}
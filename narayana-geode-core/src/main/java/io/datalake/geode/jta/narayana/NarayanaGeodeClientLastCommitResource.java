@@ -0,0 +1,51 @@
+/*
+ * Copyright (c) 2026. The original author or authors.
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package io.datalake.geode.jta.narayana;
+
+import org.apache.geode.cache.client.ClientCache;
+
+/**
+ * Last Resource Commit for a Geode {@link org.apache.geode.cache.client.ClientCache ClientCache}.
+ * <p>
+ * The client transaction life-cycle is the one of the {@link NarayanaGeodeLastCommitResource}, but the cost profile
+ * differs: the begin, the JCA association and the state checks are local to the client (no server round trip), the
+ * transaction is hosted on a server with the first region operation and the commit is a single CommitOp call to that
+ * server. In the default JTA Synchronization mode the client needs two server calls to complete the transaction, one
+ * for the beforeCompletion and one for the afterCompletion.
+ * <p>
+ * A rollback of a transaction that did not touch any region is local too.
+ */
+public class NarayanaGeodeClientLastCommitResource extends NarayanaGeodeLastCommitResource {
+
+    public NarayanaGeodeClientLastCommitResource() {
+        super();
+    }
+
+    public NarayanaGeodeClientLastCommitResource(ClientCache clientCache) {
+        super(clientCache);
+    }
+
+    @Override
+    protected GeodeCacheContext resolveContext() {
+        return (this.getTargetCache() != null) ? super.resolveContext() : GeodeCacheContext.getClient();
+    }
+}
@@ -0,0 +1,321 @@
+/*
+ * Copyright (c) 2026. The original author or authors.
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package io.datalake.geode.jta.narayana;
+
+import javax.transaction.RollbackException;
+import javax.transaction.TransactionManager;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Opt-in group commit of many small units of work. The units submitted by concurrent callers within the batch window
+ * (or up to the batch size) are run one after the other in a single Narayana JTA transaction, with Geode enlisted as
+ * Last Resource Commit, and committed together. The per transaction begin, enlist and Geode commit costs are paid
+ * once per batch.
+ * <p>
+ * Every unit keeps its own outcome. When a unit fails, or the batch commit rolls back (e.g. on a Geode commit
+ * conflict), the batch is rolled back and each unit is re-run alone, in its own transaction, and completed with its
+ * own result or failure. The units must therefore be re-runnable and must not depend on each other's failure. A unit
+ * sees the writes of the units run before it in the same batch, as if they were run serially.
+ * <p>
+ * Any other commit failure (a heuristic or in-doubt outcome) may have applied the batch, in part or in full, so the
+ * units are not re-run: all of them are completed exceptionally with the commit failure.
+ * <p>
+ * For example:
+ * <pre>
+ *     NarayanaGeodeGroupCommitCoordinator coordinator =
+ *             new NarayanaGeodeGroupCommitCoordinator(64, 2, TimeUnit.MILLISECONDS, 4096).start();
+ *     coordinator.execute(() -&gt; region.put(key, value));
+ * </pre>
+ * The batching trades latency for throughput: a unit waits up to the batch window before its transaction begins.
+ */
+public class NarayanaGeodeGroupCommitCoordinator implements AutoCloseable {
+
+    private static final PendingUnit<?> STOP = new PendingUnit<>(null);
+
+    private static final long STOP_OFFER_MILLIS = 100;
+
+    private final int maxBatchSize;
+    private final long maxWaitNanos;
+    private final BlockingQueue<PendingUnit<?>> queue;
+    private final AtomicLong batches = new AtomicLong();
+    private final AtomicLong fallbacks = new AtomicLong();
+
+    private volatile Thread worker;
+    private volatile boolean closed;
+
+    /**
+     * @param maxBatchSize  Maximum number of units committed in one transaction.
+     * @param maxWait       Maximum time the first unit of a batch waits for more units.
+     * @param unit          The maxWait time unit.
+     * @param queueCapacity Maximum number of the pending units. The submits beyond it are rejected.
+     */
+    public NarayanaGeodeGroupCommitCoordinator(int maxBatchSize, long maxWait, TimeUnit unit, int queueCapacity) {
+        if (maxBatchSize < 1) {
+            throw new IllegalArgumentException("The maxBatchSize must be at least 1, but was: " + maxBatchSize);
+        }
+        if (maxWait < 0) {
+            throw new IllegalArgumentException("The maxWait must not be negative, but was: " + maxWait);
+        }
+        this.maxBatchSize = maxBatchSize;
+        this.maxWaitNanos = unit.toNanos(maxWait);
+        this.queue = new ArrayBlockingQueue<>(queueCapacity);
+    }
+
+    /**
+     * Starts the daemon thread running the batches.
+     *
+     * @return Returns this coordinator.
+     * @throws IllegalStateException If the coordinator is closed.
+     */
+    public synchronized NarayanaGeodeGroupCommitCoordinator start() {
+        if (closed) {
+            throw new IllegalStateException("The coordinator is closed");
+        }
+        if (worker == null) {
+            Thread thread = new Thread(this::run, "narayana-geode-group-commit");
+            thread.setDaemon(true);
+            thread.start();
+            worker = thread;
+        }
+        return this;
+    }
+
+    /**
+     * Stops the coordinator after the units submitted so far are completed. The units submitted concurrently with the
+     * close are either completed or rejected, none is left pending.
+     */
+    @Override
+    public synchronized void close() throws InterruptedException {
+        closed = true;
+        Thread thread = worker;
+        if (thread != null) {
+            // The queue may be full, but no unit is added any more, so the worker frees a slot unless it is gone.
+            while (!queue.offer(STOP, STOP_OFFER_MILLIS, TimeUnit.MILLISECONDS)) {
+                if (!thread.isAlive()) {
+                    break;
+                }
+            }
+            thread.join();
+            worker = null;
+        }
+        rejectPending();
+    }
+
+    /**
+     * Queues the unit of work for the next batch. Must be called outside of a running JTA transaction.
+     *
+     * @param unit The transactional unit of work.
+     * @return Returns a future completed after the unit transaction completion, with the unit result or failure.
+     */
+    public <T> CompletableFuture<T> submit(Callable<T> unit) {
+        PendingUnit<T> pending = new PendingUnit<>(unit);
+        if (closed) {
+            pending.result.completeExceptionally(new RejectedExecutionException("The coordinator is closed"));
+        } else if (worker == null) {
+            pending.result.completeExceptionally(new RejectedExecutionException("The coordinator is not started"));
+        } else if (!queue.offer(pending)) {
+            pending.result.completeExceptionally(new RejectedExecutionException("The group commit queue is full"));
+        } else if (closed && queue.remove(pending)) {
+            // Queued after the worker or the close drained the queue, nothing would complete it.
+            pending.result.completeExceptionally(new RejectedExecutionException("The coordinator is closed"));
+        }
+        return pending.result;
+    }
+
+    /**
+     * Queues the unit of work and waits for its transaction completion.
+     *
+     * @param unit The transactional unit of work.
+     * @return Returns the unit result.
+     * @throws Exception The unit or commit failure.
+     */
+    public <T> T execute(Callable<T> unit) throws Exception {
+        try {
+            return submit(unit).get();
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof Exception) {
+                throw (Exception) cause;
+            }
+            if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * @return Returns the number of the batches committed so far.
+     */
+    public long getBatchCount() {
+        return batches.get();
+    }
+
+    /**
+     * @return Returns the number of the batches re-run unit by unit, after a unit failure or a commit rollback.
+     */
+    public long getFallbackCount() {
+        return fallbacks.get();
+    }
+
+    private void run() {
+        TransactionManager tm = com.arjuna.ats.jta.TransactionManager.transactionManager();
+        List<PendingUnit<?>> batch = new ArrayList<>(maxBatchSize);
+        boolean stopped = false;
+        while (!stopped) {
+            try {
+                PendingUnit<?> first = queue.take();
+                if (first == STOP) {
+                    break;
+                }
+                batch.add(first);
+                long deadline = System.nanoTime() + maxWaitNanos;
+                while (batch.size() < maxBatchSize) {
+                    PendingUnit<?> next = queue.poll();
+                    if (next == null) {
+                        long remaining = deadline - System.nanoTime();
+                        if (remaining <= 0) {
+                            break;
+                        }
+                        next = queue.poll(remaining, TimeUnit.NANOSECONDS);
+                        if (next == null) {
+                            break;
+                        }
+                    }
+                    if (next == STOP) {
+                        stopped = true;
+                        break;
+                    }
+                    batch.add(next);
+                }
+            } catch (InterruptedException e) {
+                stopped = true;
+            }
+            if (!batch.isEmpty()) {
+                runBatch(tm, batch);
+                batch.clear();
+            }
+        }
+        // Fail the units left behind by an interrupt, or queued concurrently with the close.
+        rejectPending();
+    }
+
+    private void rejectPending() {
+        for (PendingUnit<?> pending; (pending = queue.poll()) != null; ) {
+            if (pending != STOP) {
+                pending.result.completeExceptionally(new RejectedExecutionException("The coordinator is closed"));
+            }
+        }
+    }
+
+    private void runBatch(TransactionManager tm, List<PendingUnit<?>> batch) {
+        if (batch.size() > 1) {
+            try {
+                tm.begin();
+                try {
+                    NarayanaGeodeSupport.enlistGeodeAsLastCommitResource();
+                    for (PendingUnit<?> pending : batch) {
+                        pending.run();
+                    }
+                } catch (Exception | Error e) {
+                    NarayanaGeodeRetryTemplate.rollbackIfActive(tm);
+                    throw e;
+                }
+            } catch (Exception | Error e) {
+                // Nothing was committed. Re-run the units alone, so each one gets its own outcome.
+                runEachAlone(tm, batch);
+                return;
+            }
+            try {
+                tm.commit();
+            } catch (RollbackException e) {
+                // Nothing was committed either (e.g. a Geode commit conflict).
+                runEachAlone(tm, batch);
+                return;
+            } catch (Exception | Error e) {
+                // Heuristic or in-doubt outcome: the batch may be applied, re-running the units could apply them twice.
+                for (PendingUnit<?> pending : batch) {
+                    pending.result.completeExceptionally(e);
+                }
+                return;
+            }
+            batches.incrementAndGet();
+            for (PendingUnit<?> pending : batch) {
+                pending.complete();
+            }
+            return;
+        }
+        runAlone(tm, batch.get(0));
+    }
+
+    private void runEachAlone(TransactionManager tm, List<PendingUnit<?>> batch) {
+        fallbacks.incrementAndGet();
+        for (PendingUnit<?> pending : batch) {
+            runAlone(tm, pending);
+        }
+    }
+
+    private static void runAlone(TransactionManager tm, PendingUnit<?> pending) {
+        try {
+            tm.begin();
+            try {
+                NarayanaGeodeSupport.enlistGeodeAsLastCommitResource();
+                pending.run();
+            } catch (Exception | Error e) {
+                NarayanaGeodeRetryTemplate.rollbackIfActive(tm);
+                throw e;
+            }
+            tm.commit();
+            pending.complete();
+        } catch (Throwable t) {
+            pending.result.completeExceptionally(t);
+        }
+    }
+
+    private static final class PendingUnit<T> {
+
+        private final Callable<T> unit;
+        private final CompletableFuture<T> result = new CompletableFuture<>();
+        private T value;
+
+        PendingUnit(Callable<T> unit) {
+            this.unit = unit;
+        }
+
+        void run() throws Exception {
+            this.value = unit.call();
+        }
+
+        void complete() {
+            result.complete(value);
+        }
+    }
+}
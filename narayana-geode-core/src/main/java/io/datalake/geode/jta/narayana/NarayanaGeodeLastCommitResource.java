@@ -21,20 +21,27 @@
 
 package io.datalake.geode.jta.narayana;
 
+import com.arjuna.ats.internal.jta.transaction.arjunacore.TransactionImple;
+import com.arjuna.ats.jta.common.jtaPropertyManager;
 import com.arjuna.ats.jta.resources.LastResourceCommitOptimisation;
 import org.apache.geode.LogWriter;
-import org.apache.geode.cache.CacheFactory;
+import org.apache.geode.cache.CommitConflictException;
+import org.apache.geode.cache.GemFireCache;
 import org.apache.geode.cache.TransactionId;
-import org.apache.geode.internal.cache.GemFireCacheImpl;
+import org.apache.geode.cache.TransactionInDoubtException;
 import org.apache.geode.internal.cache.TXManagerImpl;
 import org.apache.geode.internal.cache.TXStateProxy;
 import org.apache.geode.internal.i18n.LocalizedStrings;
 
+import javax.transaction.Synchronization;
 import javax.transaction.SystemException;
+import javax.transaction.Transaction;
 import javax.transaction.TransactionManager;
 import javax.transaction.xa.XAException;
 import javax.transaction.xa.XAResource;
 import javax.transaction.xa.Xid;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  * Implements the {@link LastResourceCommitOptimisation} marker interface. It extends the {@link XAResource} interface
@@ -50,15 +57,100 @@ import javax.transaction.xa.Xid;
  * Note: To large extend the {@link NarayanaGeodeLastCommitResource} implementation reuses the
  * {@link org.apache.geode.internal.ra.spi.JCALocalTransaction JCALocalTransaction} code:
  * https://github.com/apache/geode/blob/develop/geode-core/src/jca/java/org/apache/geode/internal/ra/spi/JCALocalTransaction.java
+ * <p>
+ * The JTA transaction timeout, set by Narayana on enlistment, is enforced on the Geode side too. When it elapses a
+ * shared timing wheel thread marks the Geode transaction expired, without touching it: Geode transactions are bound
+ * to their thread. The expired transaction is rolled back by the rollback called by the Narayana reaper thread, or by
+ * the owner thread on completion, and the commit fails with XA_RBTIMEOUT. A Geode transaction rolled back by the
+ * reaper stays associated with the owner thread until its next Geode enlistment, which drops it.
+ * <p>
+ * When a {@link GeodeCommitIntentLog} is set (see {@link NarayanaGeodeSupport#setRecoveryLog(GeodeCommitIntentLog)})
+ * the commit intent is logged before the Geode commit and ended by an interposed Synchronization once the whole
+ * transaction completes, so the {@link NarayanaGeodeRecoveryHelper} can resolve the commits interrupted by a crash.
  *
  * @author Christian Tzolov (christian.tzolov@gmail.com)
  */
 public class NarayanaGeodeLastCommitResource implements LastResourceCommitOptimisation {
 
-    private volatile GemFireCacheImpl cache;
-    private volatile TXManagerImpl gfTxMgr;
+    // The transaction states: the completion is claimed once, by commit, rollback or, before them, the expiry.
+    private static final int ACTIVE = 0;
+    private static final int EXPIRED = 1;
+    private static final int COMPLETING = 2;
+
+    private final GemFireCache cache;
+    private volatile GeodeCacheContext context;
     private volatile TransactionId tid;
-    private volatile boolean initDone = false;
+    private volatile Xid xid;
+    private volatile boolean inUse;
+    private volatile int transactionTimeout;
+    private volatile TXStateProxy txState;
+    private volatile HashedTimingWheel.Timeout expiry;
+    private final AtomicInteger state = new AtomicInteger(ACTIVE);
+    private volatile IntentCompletion intentCompletion;
+    private volatile long startNanos;
+
+    /**
+     * Creates a resource for the current Geode cache, resolved when the resource is started.
+     */
+    public NarayanaGeodeLastCommitResource() {
+        this(null);
+    }
+
+    /**
+     * Creates a resource bound to the given Geode cache.
+     *
+     * @param cache The cache to begin and commit the transaction in. If null the current cache is used.
+     */
+    public NarayanaGeodeLastCommitResource(GemFireCache cache) {
+        this.cache = cache;
+    }
+
+    /**
+     * Marks the resource as used by a transaction. Thread-bound resources are reused only by their owner thread, so
+     * the acquire needs no CAS. The release could happen on another thread (e.g. the Narayana reaper).
+     *
+     * @return Returns true if the resource was free and is now acquired.
+     */
+    boolean tryAcquire() {
+        if (this.inUse) {
+            return false;
+        }
+        this.inUse = true;
+        return true;
+    }
+
+    /**
+     * Resets the resource so it can be reused by the next transaction.
+     */
+    void release() {
+        this.tid = null;
+        this.xid = null;
+        this.txState = null;
+        this.intentCompletion = null;
+        this.inUse = false;
+    }
+
+    /**
+     * Claims the completion of the transaction and cancels the timeout.
+     *
+     * @return Returns the state before the claim: ACTIVE, EXPIRED if the Geode transaction has expired but is not yet
+     * rolled back, or COMPLETING if another thread has claimed the completion.
+     */
+    private int beginCompletion() {
+        int previous;
+        do {
+            previous = this.state.get();
+            if (previous == COMPLETING) {
+                return COMPLETING;
+            }
+        } while (!this.state.compareAndSet(previous, COMPLETING));
+        HashedTimingWheel.Timeout expiry = this.expiry;
+        if (expiry != null) {
+            expiry.cancel();
+            this.expiry = null;
+        }
+        return previous;
+    }
 
     /**
      * If the resource manager did not commit the transaction and the parameter onePhase is set to true, the resource
@@ -68,12 +160,18 @@ public class NarayanaGeodeLastCommitResource implements LastResourceCommitOptimi
      * @param xid      A global transaction identifier
      * @param onePhase If true, the resource manager should use a one-phase commit protocol to commit the work done on
      *                 behalf of xid.
+     * <p>
+     * A Geode {@link CommitConflictException} is reported as XA_RBTRANSIENT (with the conflict as the cause), so the
+     * callers can tell the transient write-write conflicts apart from the other failures and retry the unit of work
+     * (see {@link NarayanaGeodeRetryTemplate}). A {@link TransactionInDoubtException} (e.g. the server hosting a client
+     * transaction departed during the commit) is reported as XA_HEURHAZ, because the outcome is unknown.
+     *
      * @throws XAException An error has occurred. Possible XAExceptions are XA_HEURHAZ, XA_HEURCOM, XA_HEURRB,
-     *                     XA_HEURMIX, XAER_RMERR, XAER_RMFAIL, XAER_NOTA, XAER_INVAL, or XAER_PROTO.*
+     *                     XA_HEURMIX, XAER_RMERR, XAER_RMFAIL, XAER_NOTA, XAER_INVAL, XAER_PROTO or XA_RBTRANSIENT.
      */
     @Override
     public void commit(Xid xid, boolean onePhase) throws XAException {
-        LogWriter logger = this.cache.getLogger();
+        LogWriter logger = this.context.getLogger();
         if (logger.fineEnabled()) {
             logger.fine("NarayanaGeodeLastCommitResource:invoked commit");
         }
@@ -84,19 +182,73 @@ public class NarayanaGeodeLastCommitResource implements LastResourceCommitOptimi
             }
         }
 
-        TXStateProxy tsp = this.gfTxMgr.getTXState();
+        int previous = this.beginCompletion();
+        if (previous != ACTIVE) {
+            // Expired, the expiry has already notified the listeners. Unless the Narayana reaper is rolling back,
+            // roll back here, on the owner thread.
+            if (previous == EXPIRED) {
+                this.rollbackExpired();
+            }
+            this.release();
+            throw new XAException(XAException.XA_RBTIMEOUT);
+        }
+
+        TXStateProxy tsp = this.context.getTxManager().getTXState();
 
         if (tsp != null && this.tid != tsp.getTransactionId()) {
-            throw new IllegalStateException("Local Transaction associated with Tid = " + this.tid + " attempting to " +
-                    "commit a different transaction");
+            throw this.foreignTransaction(xid, "commit");
         } else {
+            TransactionId transactionId = this.tid;
+            boolean instrumented = NarayanaGeodeTransactionListeners.isActive();
+            if (instrumented && NarayanaGeodeTransactionListeners.isKeyCaptureActive()) {
+                NarayanaGeodeTransactionListeners.beforeCommit(xid, transactionId, GeodeTransactionKeys.capture(tsp));
+            }
+            long commitStartNanos = instrumented ? System.nanoTime() : 0L;
+            long transactionStartNanos = this.startNanos;
+            GeodeCommitIntentLog.Intent intent = this.logIntent(xid);
             try {
-                this.gfTxMgr.commit();
-                this.tid = null;
+                this.context.getTxManager().commit();
+                if (intent != null) {
+                    intent.geodeCommitted();
+                }
+            } catch (CommitConflictException e) {
+                if (intent != null) {
+                    // Geode has rolled back, there is nothing to recover.
+                    intent.end();
+                }
+                NarayanaGeodeRetryTemplate.markCommitConflict();
+                XAException xae = new XAException(XAException.XA_RBTRANSIENT);
+                xae.initCause(e);
+                throw this.failure(xid, transactionId, xae, instrumented);
+            } catch (TransactionInDoubtException e) {
+                XAException xae = new XAException(XAException.XA_HEURHAZ);
+                xae.initCause(e);
+                throw this.failure(xid, transactionId, xae, instrumented);
             } catch (Exception e) {
-                throw new XAException(e.toString());
+                XAException xae = new XAException(e.toString());
+                if (instrumented) {
+                    NarayanaGeodeTransactionListeners.onFailure(xid, transactionId, xae);
+                }
+                throw xae;
+            } finally {
+                // Geode disassociates the transaction from the thread on both, successful and failed commit.
+                this.release();
             }
+            if (instrumented) {
+                long now = System.nanoTime();
+                NarayanaGeodeTransactionListeners.afterCommit(xid, transactionId,
+                        now - commitStartNanos, now - transactionStartNanos);
+            }
+        }
+    }
+
+    private GeodeCommitIntentLog.Intent logIntent(Xid xid) {
+        IntentCompletion completion = this.intentCompletion;
+        if (completion == null || completion.soleParticipant) {
+            return null;
         }
+        completion.intent = completion.log.logIntent(xid);
+        return completion.intent;
     }
 
     @Override
@@ -111,12 +263,36 @@ public class NarayanaGeodeLastCommitResource implements LastResourceCommitOptimi
 
     @Override
     public int getTransactionTimeout() throws XAException {
-        return 0;
+        return this.transactionTimeout;
     }
 
     @Override
     public boolean isSameRM(XAResource xaResource) throws XAException {
-        return xaResource instanceof NarayanaGeodeLastCommitResource;
+        // The resource manager is the Geode cache.
+        return xaResource instanceof NarayanaGeodeLastCommitResource
+                && ((NarayanaGeodeLastCommitResource) xaResource).getResourceManager() == this.getResourceManager();
+    }
+
+    /**
+     * @return Returns the transaction branch the Geode transaction was started in, or null if none is started.
+     */
+    Xid getXid() {
+        return xid;
+    }
+
+    /**
+     * @return Returns the cache the resource was created for, or null if it uses the current cache.
+     */
+    public GemFireCache getTargetCache() {
+        return cache;
+    }
+
+    private GemFireCache getResourceManager() {
+        if (this.cache != null) {
+            return this.cache;
+        }
+        GeodeCacheContext context = this.context;
+        return (context != null) ? context.getCache() : this.resolveContext().getCache();
     }
 
     /**
@@ -131,6 +307,9 @@ public class NarayanaGeodeLastCommitResource implements LastResourceCommitOptimi
     /**
      * The RM should return an empty list of XIDs for XAResource.recover, because the RM is not required to maintain
      * stable knowledge about transaction branches. (JCA ver.1.6, Chapter 7, page 7-17).
+     * <p>
+     * The Last Resource is not recorded in the Narayana transaction log, so it is never asked to recover. The logged
+     * commit intents are recovered by the {@link NarayanaGeodeRecoveryHelper} instead.
      */
     @Override
     public Xid[] recover(int i) throws XAException {
@@ -139,47 +318,78 @@ public class NarayanaGeodeLastCommitResource implements LastResourceCommitOptimi
 
     @Override
     public void rollback(Xid xid) throws XAException {
-        TXStateProxy tsp = this.gfTxMgr.getTXState();
+        int previous = this.beginCompletion();
+        if (previous == COMPLETING) {
+            // Completed by another thread.
+            this.release();
+            return;
+        }
+        TXStateProxy tsp = this.context.getTxManager().getTXState();
         if (tsp != null && this.tid != tsp.getTransactionId()) {
-            throw new IllegalStateException("Local Transaction associated with Tid = " + this.tid + " attempting to commit a different transaction");
+            throw this.foreignTransaction(xid, "rollback");
         } else {
-            LogWriter logger = this.cache.getLogger();
+            LogWriter logger = this.context.getLogger();
             if (logger.fineEnabled()) {
                 logger.fine("NarayanaGeodeLastCommitResource:invoked rollback");
             }
 
+            TransactionId transactionId = this.tid;
+            boolean instrumented = NarayanaGeodeTransactionListeners.isActive();
+            long transactionStartNanos = this.startNanos;
+            long rollbackStartNanos = instrumented ? System.nanoTime() : 0L;
             try {
-                this.gfTxMgr.rollback();
+                this.rollbackGeode(tsp);
             } catch (IllegalStateException var8) {
                 if (!var8.getMessage().equals(LocalizedStrings.TXManagerImpl_THREAD_DOES_NOT_HAVE_AN_ACTIVE_TRANSACTION.toLocalizedString())) {
-                    throw new XAException(var8.toString());
+                    throw this.failure(xid, transactionId, new XAException(var8.toString()), instrumented);
                 }
             } catch (Exception var9) {
-                throw new XAException(var9.toString());
+                throw this.failure(xid, transactionId, new XAException(var9.toString()), instrumented);
             } finally {
-                this.tid = null;
+                this.release();
+            }
+            // The expiry has already reported the failure.
+            if (instrumented && previous == ACTIVE) {
+                long now = System.nanoTime();
+                NarayanaGeodeTransactionListeners.afterRollback(xid, transactionId,
+                        now - rollbackStartNanos, now - transactionStartNanos);
             }
         }
     }
 
+    /**
+     * Narayana sets the JTA transaction timeout (in seconds) before it starts the resource. Zero disables the Geode
+     * side timeout.
+     */
     @Override
     public boolean setTransactionTimeout(int i) throws XAException {
-        return false;
+        if (i < 0) {
+            throw new XAException(XAException.XAER_INVAL);
+        }
+        this.transactionTimeout = i;
+        return true;
     }
 
     @Override
     public void start(Xid xid, int i) throws XAException {
         try {
-            if (!this.initDone || this.cache.isClosed()) {
-                this.init();
-            }
+            this.doStart(xid, i);
+        } catch (XAException e) {
+            throw this.failure(xid, null, e, NarayanaGeodeTransactionListeners.isActive());
+        }
+    }
+
+    private void doStart(Xid xid, int i) throws XAException {
+        try {
+            GeodeCacheContext context = this.resolveContext();
+            this.context = context;
 
-            LogWriter logger = this.cache.getLogger();
+            LogWriter logger = context.getLogger();
             if (logger.fineEnabled()) {
                 logger.fine("NarayanaGeodeLastCommitResource::start:" + xid + ", i=" + i);
             }
 
-            TransactionManager tm = this.cache.getJTATransactionManager();
+            TransactionManager tm = context.getJtaTransactionManager();
 
             if (logger.fineEnabled()) {
                 logger.fine("Start Geode Transaction using TransactionManager: " + tm.getClass());
@@ -188,23 +398,45 @@ public class NarayanaGeodeLastCommitResource implements LastResourceCommitOptimi
             if (this.tid != null) {
                 throw new XAException(" A transaction is already in progress");
             } else {
+                this.state.set(ACTIVE);
                 if (tm != null && tm.getTransaction() != null) {
                     if (logger.fineEnabled()) {
                         logger.fine("NarayanaGeodeLastCommitResource: JTA transaction is on");
                     }
 
-                    TXStateProxy tsp = this.gfTxMgr.getTXState();
+                    TXManagerImpl gfTxMgr = context.getTxManager();
+                    TXStateProxy tsp = gfTxMgr.getTXState();
+                    if (tsp != null && !tsp.isInProgress()) {
+                        // Rolled back by the Narayana reaper, Geode has cleared the association of the reaper thread
+                        // only.
+                        gfTxMgr.internalSuspend();
+                        tsp = null;
+                    }
                     if (tsp != null) {
                         throw new XAException("GemFire is already associated with a transaction");
                     }
 
-                    this.gfTxMgr.begin();
-                    tsp = this.gfTxMgr.getTXState();
+                    // Registered first: if the registration fails no Geode transaction or expiry is left behind.
+                    this.registerIntentCompletion(tm.getTransaction());
+
+                    boolean instrumented = NarayanaGeodeTransactionListeners.isActive();
+                    long beginStartNanos = instrumented ? System.nanoTime() : 0L;
+                    gfTxMgr.begin();
+                    tsp = gfTxMgr.getTXState();
                     tsp.setJCATransaction();
+                    long beginNanos = instrumented ? System.nanoTime() - beginStartNanos : 0L;
                     this.tid = tsp.getTransactionId();
+                    this.xid = xid;
+                    this.txState = tsp;
+                    // Set even without listeners, one could be registered before the transaction completes.
+                    this.startNanos = System.nanoTime();
+                    this.scheduleExpiry(xid);
                     if (logger.fineEnabled()) {
                         logger.fine("NarayanaGeodeLastCommitResource:begun GFE transaction");
                     }
+                    if (instrumented) {
+                        NarayanaGeodeTransactionListeners.afterStart(xid, this.tid, beginNanos);
+                    }
                 } else if (logger.fineEnabled()) {
                     logger.fine("NarayanaGeodeLastCommitResource: JTA Transaction does not exist.");
                 }
@@ -215,14 +447,145 @@ public class NarayanaGeodeLastCommitResource implements LastResourceCommitOptimi
         }
     }
 
-    private void init() throws SystemException {
-        this.cache = (GemFireCacheImpl) CacheFactory.getAnyInstance();
-        LogWriter logger = this.cache.getLogger();
-        if (logger.fineEnabled()) {
-            logger.fine("NarayanaGeodeLastCommitResource:init. Inside init");
+    private void scheduleExpiry(Xid xid) {
+        int timeout = this.transactionTimeout;
+        if (timeout > 0) {
+            TransactionId expiringTid = this.tid;
+            this.expiry = Reaper.WHEEL.schedule(() -> this.expire(xid, expiringTid), timeout, TimeUnit.SECONDS);
+        }
+    }
+
+    /**
+     * Marks the Geode transaction expired. Called on the timing wheel thread, that must not touch the Geode
+     * transaction of the owner thread: the rollback is left to the Narayana reaper or to the owner thread.
+     */
+    private void expire(Xid xid, TransactionId expiringTid) {
+        if (this.tid != expiringTid || !this.state.compareAndSet(ACTIVE, EXPIRED)) {
+            return;
+        }
+        this.expiry = null;
+        LogWriter logger = this.context.getLogger();
+        if (logger.warningEnabled()) {
+            logger.warning("NarayanaGeodeLastCommitResource: the Geode transaction timed out: " + expiringTid);
+        }
+        if (NarayanaGeodeTransactionListeners.isActive()) {
+            NarayanaGeodeTransactionListeners.onFailure(xid, expiringTid, new XAException(XAException.XA_RBTIMEOUT));
+        }
+    }
+
+    /**
+     * Rolls back the expired Geode transaction on completion.
+     */
+    private void rollbackExpired() {
+        try {
+            this.rollbackGeode(this.context.getTxManager().getTXState());
+        } catch (RuntimeException e) {
+            LogWriter logger = this.context.getLogger();
+            if (logger.warningEnabled()) {
+                logger.warning("Failed to roll back the timed out Geode transaction: " + this.tid, e);
+            }
         }
+    }
 
-        this.gfTxMgr = this.cache.getTxManager();
-        this.initDone = true;
+    /**
+     * Rolls back the Geode transaction. Called from a thread other than the owner (e.g. the Narayana reaper), it adopts
+     * the owner's transaction first, Geode rolls back the transaction of the calling thread.
+     */
+    private void rollbackGeode(TXStateProxy current) {
+        TXManagerImpl txManager = this.context.getTxManager();
+        TXStateProxy owned = this.txState;
+        if (current == null && owned != null && owned.isInProgress()) {
+            txManager.internalResume(owned);
+        }
+        txManager.rollback();
+    }
+
+    /**
+     * @return Returns the context of the Geode cache the resource begins its transactions in.
+     */
+    protected GeodeCacheContext resolveContext() {
+        return (this.cache != null) ? GeodeCacheContext.of(this.cache) : GeodeCacheContext.get();
+    }
+
+    /**
+     * Lazily started, shared timing wheel. A tick of 100 ms is precise enough for timeouts given in seconds.
+     */
+    private static final class Reaper {
+        private static final HashedTimingWheel WHEEL =
+                new HashedTimingWheel(100, TimeUnit.MILLISECONDS, 512, "narayana-geode-timeout-reaper");
+    }
+
+    /**
+     * Releases the resource and reports the failure when the calling thread is associated with another Geode
+     * transaction than the one begun by this resource.
+     */
+    private IllegalStateException foreignTransaction(Xid xid, String operation) {
+        TransactionId transactionId = this.tid;
+        this.release();
+        IllegalStateException exception = new IllegalStateException("Local Transaction associated with Tid = "
+                + transactionId + " attempting to " + operation + " a different transaction");
+        if (NarayanaGeodeTransactionListeners.isActive()) {
+            XAException xae = new XAException(XAException.XAER_PROTO);
+            xae.initCause(exception);
+            NarayanaGeodeTransactionListeners.onFailure(xid, transactionId, xae);
+        }
+        return exception;
+    }
+
+    private XAException failure(Xid xid, TransactionId transactionId, XAException exception, boolean instrumented) {
+        if (instrumented) {
+            NarayanaGeodeTransactionListeners.onFailure(xid, transactionId, exception);
+        }
+        return exception;
+    }
+
+    /**
+     * Registers the Synchronization ending the commit intent, while the transaction is still active. Narayana does
+     * not accept new Synchronizations once the commit (and so the Last Resource Commit) has started.
+     */
+    private void registerIntentCompletion(Transaction transaction) {
+        GeodeCommitIntentLog log = NarayanaGeodeSupport.getRecoveryLog();
+        if (log == null) {
+            return;
+        }
+        IntentCompletion completion = new IntentCompletion(log, transaction);
+        jtaPropertyManager.getJTAEnvironmentBean().getTransactionSynchronizationRegistry()
+                .registerInterposedSynchronization(completion);
+        this.intentCompletion = completion;
+    }
+
+    /**
+     * Ends the logged commit intent once the whole transaction has completed, whatever the outcome.
+     * <p>
+     * If Geode is the only participant, Narayana commits it in one phase and writes no transaction log, so a logged
+     * intent would be resolved as a false mismatch. The intent is not logged then: the Geode commit is the whole
+     * outcome and there is nothing to recover. The participants are counted in beforeCompletion, interposed
+     * Synchronizations run after all the others, so no resource is enlisted any more.
+     */
+    private static final class IntentCompletion implements Synchronization {
+
+        private final GeodeCommitIntentLog log;
+        private final Transaction transaction;
+        private volatile GeodeCommitIntentLog.Intent intent;
+        private volatile boolean soleParticipant;
+
+        IntentCompletion(GeodeCommitIntentLog log, Transaction transaction) {
+            this.log = log;
+            this.transaction = transaction;
+        }
+
+        @Override
+        public void beforeCompletion() {
+            this.soleParticipant = (transaction instanceof TransactionImple)
+                    && ((TransactionImple) transaction).getResources().size() <= 1;
+        }
+
+        @Override
+        public void afterCompletion(int status) {
+            GeodeCommitIntentLog.Intent intent = this.intent;
+            if (intent != null) {
+                intent.end();
+            }
+        }
     }
 }
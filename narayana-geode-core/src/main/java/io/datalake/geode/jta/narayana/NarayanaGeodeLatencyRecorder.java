@@ -0,0 +1,226 @@
+/*
+ * Copyright (c) 2026. The original author or authors.
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package io.datalake.geode.jta.narayana;
+
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+import org.apache.geode.cache.TransactionId;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import javax.transaction.xa.Xid;
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+import java.io.UnsupportedEncodingException;
+import java.lang.management.ManagementFactory;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Opt-in {@link NarayanaGeodeTransactionListener} that records the latency of every Geode Last Resource Commit phase
+ * in HdrHistograms: the enlistment, the Geode begin, the lag between the begin and the first region operation, the
+ * commit and the rollback. The first operation lag is seen only for the regions accessed through the
+ * {@link NarayanaGeodeSupport#lazyEnlistingRegion(org.apache.geode.cache.Region)} proxy.
+ * <p>
+ * Every phase is recorded into a small set of striped HdrHistogram {@link Recorder}s, selected by the thread id. The
+ * record is wait-free and the stripes keep the writer threads off each other's cache lines, so the cost per record
+ * stays in the tens of nanoseconds. The readers drain the stripes into a cumulative histogram per phase.
+ * <p>
+ * Use {@link #register()} to register the recorder as a transaction listener and as the
+ * "io.datalake.geode.jta.narayana:type=NarayanaGeodeLatencyRecorder" MBean, and {@link #unregister()} to remove it.
+ * The HdrHistogram library is an optional dependency, add org.hdrhistogram:HdrHistogram to use the recorder.
+ */
+public class NarayanaGeodeLatencyRecorder implements NarayanaGeodeTransactionListener,
+        NarayanaGeodeLatencyRecorderMBean {
+
+    public static final String OBJECT_NAME = "io.datalake.geode.jta.narayana:type=NarayanaGeodeLatencyRecorder";
+
+    public static final long DEFAULT_HIGHEST_TRACKABLE_NANOS = TimeUnit.MINUTES.toNanos(1);
+    public static final int DEFAULT_SIGNIFICANT_DIGITS = 2;
+
+    public enum Phase {
+        ENLIST, BEGIN, FIRST_OPERATION, COMMIT, ROLLBACK
+    }
+
+    private static final Phase[] PHASES = Phase.values();
+
+    private final long highestTrackableNanos;
+    private final int stripeMask;
+    // Indexed by the phase ordinal and the stripe.
+    private final Recorder[][] recorders;
+    private final Histogram[][] intervals;
+    private final Histogram[] cumulative;
+
+    public NarayanaGeodeLatencyRecorder() {
+        this(DEFAULT_HIGHEST_TRACKABLE_NANOS, DEFAULT_SIGNIFICANT_DIGITS,
+                Math.min(8, Runtime.getRuntime().availableProcessors()));
+    }
+
+    /**
+     * @param highestTrackableNanos Longer latencies are recorded as this value.
+     * @param significantDigits     The HdrHistogram value precision, from 0 to 5.
+     * @param stripes               Number of recorders per phase, rounded up to a power of two.
+     */
+    public NarayanaGeodeLatencyRecorder(long highestTrackableNanos, int significantDigits, int stripes) {
+        this.highestTrackableNanos = highestTrackableNanos;
+        int stripeCount = (stripes <= 1) ? 1 : Integer.highestOneBit((stripes - 1) << 1);
+        this.stripeMask = stripeCount - 1;
+        this.recorders = new Recorder[PHASES.length][stripeCount];
+        this.intervals = new Histogram[PHASES.length][stripeCount];
+        this.cumulative = new Histogram[PHASES.length];
+        for (int phase = 0; phase < PHASES.length; phase++) {
+            for (int stripe = 0; stripe < stripeCount; stripe++) {
+                this.recorders[phase][stripe] = new Recorder(1, highestTrackableNanos, significantDigits);
+            }
+            this.cumulative[phase] = new Histogram(1, highestTrackableNanos, significantDigits);
+        }
+    }
+
+    public void register() {
+        try {
+            MBeanServer mBeanServer = ManagementFactory.getPlatformMBeanServer();
+            ObjectName objectName = new ObjectName(OBJECT_NAME);
+            if (!mBeanServer.isRegistered(objectName)) {
+                mBeanServer.registerMBean(this, objectName);
+            }
+        } catch (JMException e) {
+            throw new NarayanaGeodeException("Failed to register the " + OBJECT_NAME + " MBean", e);
+        }
+        NarayanaGeodeTransactionListeners.add(this);
+    }
+
+    public void unregister() {
+        NarayanaGeodeTransactionListeners.remove(this);
+        try {
+            MBeanServer mBeanServer = ManagementFactory.getPlatformMBeanServer();
+            ObjectName objectName = new ObjectName(OBJECT_NAME);
+            if (mBeanServer.isRegistered(objectName)) {
+                mBeanServer.unregisterMBean(objectName);
+            }
+        } catch (JMException e) {
+            throw new NarayanaGeodeException("Failed to unregister the " + OBJECT_NAME + " MBean", e);
+        }
+    }
+
+    /**
+     * Records a phase latency. Safe to call from any thread.
+     */
+    public void record(Phase phase, long nanos) {
+        long value = (nanos < 1L) ? 1L : Math.min(nanos, this.highestTrackableNanos);
+        this.recorders[phase.ordinal()][(int) Thread.currentThread().getId() & this.stripeMask].recordValue(value);
+    }
+
+    @Override
+    public void afterEnlist(Xid xid, long enlistNanos) {
+        this.record(Phase.ENLIST, enlistNanos);
+    }
+
+    @Override
+    public void afterStart(Xid xid, TransactionId transactionId, long beginNanos) {
+        this.record(Phase.BEGIN, beginNanos);
+    }
+
+    @Override
+    public void afterFirstOperation(long lagNanos) {
+        this.record(Phase.FIRST_OPERATION, lagNanos);
+    }
+
+    @Override
+    public void afterCommit(Xid xid, TransactionId transactionId, long commitNanos, long transactionNanos) {
+        this.record(Phase.COMMIT, commitNanos);
+    }
+
+    @Override
+    public void afterRollback(Xid xid, TransactionId transactionId, long rollbackNanos, long transactionNanos) {
+        this.record(Phase.ROLLBACK, rollbackNanos);
+    }
+
+    /**
+     * @return Returns a copy of the latencies, in nanoseconds, recorded for the phase since the start or the last reset.
+     */
+    public synchronized Histogram getHistogram(Phase phase) {
+        return this.drain(phase.ordinal()).copy();
+    }
+
+    /**
+     * Prints the percentile distribution of every phase, in microseconds.
+     */
+    public synchronized void dump(PrintStream out) {
+        for (Phase phase : PHASES) {
+            out.println(phase);
+            this.drain(phase.ordinal()).outputPercentileDistribution(out, 1000.0);
+        }
+    }
+
+    @Override
+    public String dump() {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (PrintStream out = new PrintStream(bytes, false, "UTF-8")) {
+            this.dump(out);
+            out.flush();
+            return bytes.toString("UTF-8");
+        } catch (UnsupportedEncodingException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    @Override
+    public synchronized String[] getSummary() {
+        String[] summary = new String[PHASES.length];
+        for (Phase phase : PHASES) {
+            Histogram histogram = this.drain(phase.ordinal());
+            summary[phase.ordinal()] = String.format("%s count=%d p50=%.1f p90=%.1f p99=%.1f p99.9=%.1f max=%.1f",
+                    phase, histogram.getTotalCount(), micros(histogram, 50), micros(histogram, 90),
+                    micros(histogram, 99), micros(histogram, 99.9), histogram.getMaxValue() / 1000.0);
+        }
+        return summary;
+    }
+
+    @Override
+    public synchronized double getPercentileMicros(String phase, double percentile) {
+        return micros(this.drain(Phase.valueOf(phase).ordinal()), percentile);
+    }
+
+    @Override
+    public synchronized void reset() {
+        for (int phase = 0; phase < PHASES.length; phase++) {
+            this.drain(phase).reset();
+        }
+    }
+
+    /**
+     * Moves the latencies recorded by the stripes since the last drain into the cumulative histogram.
+     */
+    private Histogram drain(int phase) {
+        Histogram histogram = this.cumulative[phase];
+        for (int stripe = 0; stripe <= this.stripeMask; stripe++) {
+            Histogram interval = this.recorders[phase][stripe].getIntervalHistogram(this.intervals[phase][stripe]);
+            histogram.add(interval);
+            this.intervals[phase][stripe] = interval;
+        }
+        return histogram;
+    }
+
+    private static double micros(Histogram histogram, double percentile) {
+        return histogram.getValueAtPercentile(percentile) / 1000.0;
+    }
+}
@@ -0,0 +1,50 @@
+/*
+ * Copyright (c) 2026. The original author or authors.
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package io.datalake.geode.jta.narayana;
+
+/**
+ * JMX management interface of the {@link NarayanaGeodeLatencyRecorder}.
+ */
+public interface NarayanaGeodeLatencyRecorderMBean {
+
+    /**
+     * @return Returns one line per phase: "phase count=N p50=.. p90=.. p99=.. p99.9=.. max=.." in microseconds.
+     */
+    String[] getSummary();
+
+    /**
+     * @param phase      The phase name (ENLIST, BEGIN, FIRST_OPERATION, COMMIT or ROLLBACK).
+     * @param percentile The percentile, from 0 to 100.
+     * @return Returns the phase latency at the given percentile, in microseconds.
+     */
+    double getPercentileMicros(String phase, double percentile);
+
+    /**
+     * @return Returns the full percentile distribution of every phase, in microseconds.
+     */
+    String dump();
+
+    /**
+     * Clears the recorded latencies.
+     */
+    void reset();
+}
@@ -0,0 +1,235 @@
+/*
+ * Copyright (c) 2026. The original author or authors.
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package io.datalake.geode.jta.narayana;
+
+import com.arjuna.ats.jta.resources.LastResourceCommitOptimisation;
+import org.apache.geode.cache.GemFireCache;
+
+import javax.transaction.xa.XAException;
+import javax.transaction.xa.XAResource;
+import javax.transaction.xa.Xid;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
+
+/**
+ * Single Last Resource Commit participant driving the Geode transactions of several caches. Narayana allows only one
+ * LRCO participant per transaction, so the per-cache {@link NarayanaGeodeLastCommitResource}s are not enlisted
+ * directly, but are driven by this resource.
+ * <p>
+ * The caches are committed in a fixed order: by cache name, then by registration order. The order is the same for all
+ * transactions, so two transactions touching the same caches never commit them in opposite order. If the first commit
+ * fails all caches are rolled back and the original XA_RB* (or other) error is reported. If a later commit fails, the
+ * remaining caches are rolled back, but the already committed ones can not be undone, so XA_HEURMIX is reported.
+ * <p>
+ * Use {@link NarayanaGeodeSupport#enlistGeodeAsLastCommitResource(GemFireCache)} to create and enlist it.
+ * <p>
+ * The commit of a client cache is a network call, so the state is guarded by a {@link ReentrantLock} rather than a
+ * monitor, that would pin the carrier of a virtual thread for the duration of the call.
+ */
+public class NarayanaGeodeOrderedLastCommitResource implements LastResourceCommitOptimisation {
+
+    private static final Comparator<NarayanaGeodeLastCommitResource> COMMIT_ORDER =
+            Comparator.comparing(resource -> String.valueOf(resource.getTargetCache().getName()));
+
+    private final Function<GemFireCache, NarayanaGeodeLastCommitResource> resourceFactory;
+
+    private final List<NarayanaGeodeLastCommitResource> resources = new ArrayList<>();
+
+    private final ReentrantLock lock = new ReentrantLock();
+
+    private volatile int transactionTimeout;
+
+    private volatile Xid xid;
+
+    public NarayanaGeodeOrderedLastCommitResource() {
+        this(NarayanaGeodeLastCommitResource::new);
+    }
+
+    /**
+     * @param resourceFactory Creates the per-cache participant.
+     */
+    NarayanaGeodeOrderedLastCommitResource(Function<GemFireCache, NarayanaGeodeLastCommitResource> resourceFactory) {
+        this.resourceFactory = resourceFactory;
+    }
+
+    /**
+     * Adds a cache to the transaction. If the resource has already been started, the Geode transaction of the cache
+     * is started immediately.
+     *
+     * @param cache The Geode cache.
+     * @return Returns false if the cache is already part of the transaction.
+     * @throws XAException If the cache transaction could not be started.
+     */
+    public boolean add(GemFireCache cache) throws XAException {
+        lock.lock();
+        try {
+            for (NarayanaGeodeLastCommitResource resource : resources) {
+                if (resource.getTargetCache() == cache) {
+                    return false;
+                }
+            }
+            NarayanaGeodeLastCommitResource resource = resourceFactory.apply(cache);
+            resource.setTransactionTimeout(this.transactionTimeout);
+            if (this.xid != null) {
+                resource.start(this.xid, XAResource.TMNOFLAGS);
+            }
+            // Stable sort, the caches with equal names keep their registration order.
+            resources.add(resource);
+            resources.sort(COMMIT_ORDER);
+            return true;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public List<GemFireCache> getCaches() {
+        lock.lock();
+        try {
+            List<GemFireCache> caches = new ArrayList<>(resources.size());
+            for (NarayanaGeodeLastCommitResource resource : resources) {
+                caches.add(resource.getTargetCache());
+            }
+            return caches;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public void start(Xid xid, int flags) throws XAException {
+        lock.lock();
+        try {
+            this.xid = xid;
+            for (int i = 0; i < resources.size(); i++) {
+                try {
+                    resources.get(i).start(xid, flags);
+                } catch (XAException e) {
+                    rollbackQuietly(xid, 0, i);
+                    throw e;
+                }
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public void commit(Xid xid, boolean onePhase) throws XAException {
+        lock.lock();
+        try {
+            for (int i = 0; i < resources.size(); i++) {
+                try {
+                    resources.get(i).commit(xid, onePhase);
+                } catch (XAException | RuntimeException e) {
+                    rollbackQuietly(xid, i + 1, resources.size());
+                    if (i == 0) {
+                        throw e;
+                    }
+                    XAException heuristicMixed = new XAException(XAException.XA_HEURMIX);
+                    heuristicMixed.initCause(e);
+                    throw heuristicMixed;
+                }
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public void rollback(Xid xid) throws XAException {
+        lock.lock();
+        try {
+            XAException failure = null;
+            for (NarayanaGeodeLastCommitResource resource : resources) {
+                try {
+                    resource.rollback(xid);
+                } catch (XAException e) {
+                    if (failure == null) {
+                        failure = e;
+                    }
+                }
+            }
+            if (failure != null) {
+                throw failure;
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public void end(Xid xid, int i) throws XAException {
+        throw new XAException("End called on Last Resource Txt!" + xid + ", i=" + i);
+    }
+
+    @Override
+    public void forget(Xid xid) throws XAException {
+        throw new XAException("Forget called on Last Resource Txt!" + xid);
+    }
+
+    @Override
+    public int getTransactionTimeout() throws XAException {
+        return this.transactionTimeout;
+    }
+
+    @Override
+    public boolean isSameRM(XAResource xaResource) throws XAException {
+        return xaResource == this;
+    }
+
+    @Override
+    public int prepare(Xid xid) throws XAException {
+        throw new XAException("Prepare called on Last Resource Txt!" + xid);
+    }
+
+    @Override
+    public Xid[] recover(int i) throws XAException {
+        return new Xid[0];
+    }
+
+    @Override
+    public boolean setTransactionTimeout(int i) throws XAException {
+        lock.lock();
+        try {
+            for (NarayanaGeodeLastCommitResource resource : resources) {
+                resource.setTransactionTimeout(i);
+            }
+            this.transactionTimeout = i;
+            return true;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void rollbackQuietly(Xid xid, int from, int to) {
+        for (int i = from; i < to; i++) {
+            try {
+                resources.get(i).rollback(xid);
+            } catch (XAException | RuntimeException e) {
+                // The original failure is reported, the Geode transaction is disassociated either way.
+            }
+        }
+    }
+}
@@ -0,0 +1,240 @@
+/*
+ * Copyright (c) 2026. The original author or authors.
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package io.datalake.geode.jta.narayana;
+
+import com.arjuna.ats.arjuna.common.Uid;
+import com.arjuna.ats.arjuna.exceptions.ObjectStoreException;
+import com.arjuna.ats.arjuna.objectstore.StateStatus;
+import com.arjuna.ats.arjuna.objectstore.StoreManager;
+import com.arjuna.ats.internal.jta.recovery.arjunacore.XARecoveryModule;
+import com.arjuna.ats.jta.recovery.XAResourceRecoveryHelper;
+import com.arjuna.ats.jta.xa.XATxConverter;
+import com.arjuna.ats.jta.xa.XidImple;
+import org.jboss.logging.Logger;
+
+import javax.transaction.xa.XAException;
+import javax.transaction.xa.XAResource;
+import javax.transaction.xa.Xid;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * Narayana {@link XAResourceRecoveryHelper} resolving the Geode commit intents left open by a crash (see
+ * {@link GeodeCommitIntentLog}).
+ * <p>
+ * On every recovery scan the intents are checked against the Narayana transaction log:
+ * <ul>
+ * <li>The transaction log exists - Narayana has decided to commit after the Geode Last Resource Commit succeeded. The
+ * Geode commit is already applied, so the intent is rolled forward (ended) and the recovery completes the other
+ * participants.</li>
+ * <li>No transaction log - the crash hit before Narayana logged the commit decision, the other participants are
+ * presumed aborted and the Narayana orphan detection rolls the intent back. If the intent recorded the Geode commit
+ * the outcomes do not match: reported as XA_HEURCOM and kept in {@link #getMismatches()}. An intent without the
+ * Geode commit record is reported as XA_HEURHAZ, the Geode outcome is unknown.</li>
+ * </ul>
+ * A crash after Narayana removed its log, but before the intent was ended, is reported as a false mismatch. The window
+ * is between the end of the commit and the afterCompletion callbacks of the transaction.
+ * <p>
+ * No intent is logged when Geode is the only participant: Narayana commits it in one phase, without a transaction log,
+ * so the intent would always be reported as a mismatch.
+ * <p>
+ * Register the helper, once the recovery manager is started, with {@link #register(GeodeCommitIntentLog)}.
+ */
+public class NarayanaGeodeRecoveryHelper implements XAResourceRecoveryHelper {
+
+    private static final Logger logger = Logger.getLogger(NarayanaGeodeRecoveryHelper.class);
+
+    // AtomicAction.type(), the record type of the Narayana transaction log.
+    private static final String ATOMIC_ACTION_TYPE = "/StateManager/BasicAction/TwoPhaseCoordinator/AtomicAction";
+
+    private final GeodeCommitIntentLog log;
+    private final XAResource[] resources;
+    private final List<GeodeCommitIntentLog.InDoubtIntent> mismatches = new CopyOnWriteArrayList<>();
+
+    public NarayanaGeodeRecoveryHelper(GeodeCommitIntentLog log) {
+        this.log = log;
+        this.resources = new XAResource[]{new RecoveryResource()};
+    }
+
+    /**
+     * Adds a helper for the given log to the running Narayana XA recovery module.
+     *
+     * @param log The opened intent log.
+     * @return Returns the registered helper.
+     */
+    public static NarayanaGeodeRecoveryHelper register(GeodeCommitIntentLog log) {
+        XARecoveryModule recoveryModule = XARecoveryModule.getRegisteredXARecoveryModule();
+        if (recoveryModule == null) {
+            throw new NarayanaGeodeException("The Narayana XA recovery module is not registered. Is the recovery " +
+                    "manager started?", null);
+        }
+        NarayanaGeodeRecoveryHelper helper = new NarayanaGeodeRecoveryHelper(log);
+        recoveryModule.addXAResourceRecoveryHelper(helper);
+        return helper;
+    }
+
+    /**
+     * Removes the helper from the Narayana XA recovery module.
+     */
+    public void unregister() {
+        XARecoveryModule recoveryModule = XARecoveryModule.getRegisteredXARecoveryModule();
+        if (recoveryModule != null) {
+            recoveryModule.removeXAResourceRecoveryHelper(this);
+        }
+    }
+
+    /**
+     * @return Returns the intents committed in Geode but rolled back by the rest of the transaction.
+     */
+    public List<GeodeCommitIntentLog.InDoubtIntent> getMismatches() {
+        return Collections.unmodifiableList(mismatches);
+    }
+
+    @Override
+    public boolean initialise(String p) throws Exception {
+        return true;
+    }
+
+    @Override
+    public XAResource[] getXAResources() throws Exception {
+        return resources;
+    }
+
+    /**
+     * Rolls forward the intents committed by Narayana.
+     *
+     * @return Returns the intents without a Narayana transaction log.
+     */
+    Xid[] scan() throws XAException {
+        List<Xid> orphans = new ArrayList<>();
+        for (GeodeCommitIntentLog.InDoubtIntent intent : log.getInDoubtIntents()) {
+            if (transactionLogExists(intent.getXid())) {
+                logger.debugf("Geode commit intent %s rolled forward", intent);
+                log.resolve(intent);
+            } else {
+                orphans.add(intent.getXid());
+            }
+        }
+        return orphans.toArray(new Xid[orphans.size()]);
+    }
+
+    /**
+     * Resolves an intent the Narayana recovery has rolled back.
+     */
+    void rollback(Xid xid) throws XAException {
+        GeodeCommitIntentLog.InDoubtIntent intent = inDoubtIntent(xid);
+        log.resolve(intent);
+        if (intent.isGeodeCommitted()) {
+            mismatches.add(intent);
+            logger.errorf("Geode has committed %s, but the rest of the transaction has rolled back", intent);
+            throw new XAException(XAException.XA_HEURCOM);
+        }
+        logger.warnf("The Geode outcome of the rolled back %s is unknown", intent);
+        throw new XAException(XAException.XA_HEURHAZ);
+    }
+
+    private GeodeCommitIntentLog.InDoubtIntent inDoubtIntent(Xid xid) throws XAException {
+        GeodeCommitIntentLog.InDoubtIntent intent = log.getInDoubtIntent(xid);
+        if (intent == null) {
+            throw new XAException(XAException.XAER_NOTA);
+        }
+        return intent;
+    }
+
+    private static boolean transactionLogExists(Xid xid) throws XAException {
+        if (xid.getFormatId() != XATxConverter.FORMAT_ID) {
+            return false;
+        }
+        try {
+            Uid uid = XATxConverter.getUid(new XidImple(xid).getXID());
+            return StoreManager.getRecoveryStore().currentState(uid, ATOMIC_ACTION_TYPE) != StateStatus.OS_UNKNOWN;
+        } catch (ObjectStoreException e) {
+            XAException xae = new XAException(XAException.XAER_RMERR);
+            xae.initCause(e);
+            throw xae;
+        }
+    }
+
+    /**
+     * Exposes the open intents to the Narayana XA recovery module.
+     */
+    private final class RecoveryResource implements XAResource {
+
+        @Override
+        public Xid[] recover(int flags) throws XAException {
+            return ((flags & XAResource.TMSTARTRSCAN) != 0) ? scan() : new Xid[0];
+        }
+
+        @Override
+        public void rollback(Xid xid) throws XAException {
+            NarayanaGeodeRecoveryHelper.this.rollback(xid);
+        }
+
+        /**
+         * Narayana commits the intents with a transaction log, those are rolled forward by the scan already.
+         */
+        @Override
+        public void commit(Xid xid, boolean onePhase) throws XAException {
+            GeodeCommitIntentLog.InDoubtIntent intent = log.getInDoubtIntent(xid);
+            if (intent != null) {
+                log.resolve(intent);
+            }
+        }
+
+        @Override
+        public void forget(Xid xid) throws XAException {
+            log.resolve(inDoubtIntent(xid));
+        }
+
+        @Override
+        public int prepare(Xid xid) throws XAException {
+            throw new XAException(XAException.XAER_PROTO);
+        }
+
+        @Override
+        public void start(Xid xid, int flags) throws XAException {
+            throw new XAException(XAException.XAER_PROTO);
+        }
+
+        @Override
+        public void end(Xid xid, int flags) throws XAException {
+            throw new XAException(XAException.XAER_PROTO);
+        }
+
+        @Override
+        public boolean isSameRM(XAResource xaResource) throws XAException {
+            return xaResource == this;
+        }
+
+        @Override
+        public int getTransactionTimeout() throws XAException {
+            return 0;
+        }
+
+        @Override
+        public boolean setTransactionTimeout(int seconds) throws XAException {
+            return false;
+        }
+    }
+}
@@ -0,0 +1,223 @@
+/*
+ * Copyright (c) 2026. The original author or authors.
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package io.datalake.geode.jta.narayana;
+
+import org.apache.geode.cache.CommitConflictException;
+import org.apache.geode.cache.SynchronizationCommitConflictException;
+
+import javax.transaction.Status;
+import javax.transaction.SystemException;
+import javax.transaction.TransactionManager;
+import javax.transaction.xa.XAException;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Runs a unit of work in a Narayana JTA transaction, with Geode enlisted as Last Resource Commit, and re-runs it when
+ * the Geode commit fails with a {@link CommitConflictException}. Hot-key contention between concurrent transactions
+ * is reported by Geode as a commit conflict. The conflicts are transient, so the unit usually succeeds on retry.
+ * <p>
+ * The {@link NarayanaGeodeLastCommitResource} reports the conflicts as XA_RBTRANSIENT. The retries are delayed by a
+ * "full jitter" exponential backoff: a random delay between 0 and min(maxBackoff, initialBackoff * 2^(attempt-1))
+ * milliseconds. The random spread keeps the conflicting transactions from colliding again on the next attempt.
+ * <p>
+ * For example:
+ * <pre>
+ *     NarayanaGeodeRetryTemplate retryTemplate = new NarayanaGeodeRetryTemplate(5, 10, 500);
+ *     Integer value = retryTemplate.execute(() -&gt; {
+ *         Integer newValue = region.get(KEY) + 1;
+ *         region.put(KEY, newValue);
+ *         return newValue;
+ *     });
+ * </pre>
+ * The unit of work must be idempotent up to its transactional effects, because it is called once per attempt.
+ */
+public class NarayanaGeodeRetryTemplate {
+
+    public static final int DEFAULT_MAX_ATTEMPTS = 3;
+    public static final long DEFAULT_INITIAL_BACKOFF_MILLIS = 10;
+    public static final long DEFAULT_MAX_BACKOFF_MILLIS = 500;
+
+    // Set by the NarayanaGeodeLastCommitResource on the committing thread. Narayana reports the failed one-phase
+    // commit as a RollbackException, that does not always carry the original XAException.
+    private static final ThreadLocal<Boolean> commitConflict = new ThreadLocal<>();
+
+    private final int maxAttempts;
+    private final long initialBackoffMillis;
+    private final long maxBackoffMillis;
+
+    public NarayanaGeodeRetryTemplate() {
+        this(DEFAULT_MAX_ATTEMPTS, DEFAULT_INITIAL_BACKOFF_MILLIS, DEFAULT_MAX_BACKOFF_MILLIS);
+    }
+
+    /**
+     * @param maxAttempts          Maximum number of times the unit of work is run, including the first attempt.
+     * @param initialBackoffMillis Upper bound of the delay before the first retry.
+     * @param maxBackoffMillis     Cap of the delay upper bound.
+     */
+    public NarayanaGeodeRetryTemplate(int maxAttempts, long initialBackoffMillis, long maxBackoffMillis) {
+        if (maxAttempts < 1) {
+            throw new IllegalArgumentException("The maxAttempts must be at least 1, but was: " + maxAttempts);
+        }
+        if (initialBackoffMillis < 0 || maxBackoffMillis < initialBackoffMillis) {
+            throw new IllegalArgumentException("Invalid backoff range [" + initialBackoffMillis + ", "
+                    + maxBackoffMillis + "]");
+        }
+        this.maxAttempts = maxAttempts;
+        this.initialBackoffMillis = initialBackoffMillis;
+        this.maxBackoffMillis = maxBackoffMillis;
+    }
+
+    public int getMaxAttempts() {
+        return maxAttempts;
+    }
+
+    /**
+     * Runs the unit of work in a new JTA transaction with Geode enlisted as Last Resource Commit and commits it. On a
+     * Geode commit conflict the transaction is rolled back and the unit is re-run in a new transaction, up to
+     * maxAttempts times.
+     * <p>
+     * Must be called outside of a running JTA transaction.
+     *
+     * @param unit The transactional unit of work.
+     * @return Returns the unit result of the committed attempt.
+     * @throws Exception The unit or commit failure. The last conflict failure if all attempts fail.
+     */
+    public <T> T execute(Callable<T> unit) throws Exception {
+        TransactionManager tm = com.arjuna.ats.jta.TransactionManager.transactionManager();
+        return retry(() -> {
+            tm.begin();
+            try {
+                NarayanaGeodeSupport.enlistGeodeAsLastCommitResource();
+                T result = unit.call();
+                tm.commit();
+                return result;
+            } catch (Exception | Error e) {
+                rollbackIfActive(tm);
+                throw e;
+            }
+        });
+    }
+
+    /**
+     * Re-runs the unit on Geode commit conflicts, without managing the transaction boundaries. The unit must begin
+     * and complete its own transaction (e.g. a Spring @Transactional method invocation).
+     *
+     * @param unit The unit of work, including its transaction boundaries.
+     * @return Returns the result of the first successful attempt.
+     * @throws Exception The unit failure. The last conflict failure if all attempts fail.
+     */
+    public <T> T retry(Callable<T> unit) throws Exception {
+        for (int attempt = 1; ; attempt++) {
+            commitConflict.remove();
+            try {
+                return unit.call();
+            } catch (Exception e) {
+                if (attempt >= maxAttempts || !isRetryable(e)) {
+                    throw e;
+                }
+                backoff(attempt);
+            } finally {
+                commitConflict.remove();
+            }
+        }
+    }
+
+    /**
+     * @param failure The failure of the last attempt.
+     * @return Returns true if the failure was caused by a Geode commit conflict on the current thread.
+     */
+    public boolean isRetryable(Throwable failure) {
+        return Boolean.TRUE.equals(commitConflict.get()) || isCommitConflict(failure);
+    }
+
+    /**
+     * Sleeps a random, "full jitter", delay before the given retry attempt.
+     *
+     * @param attempt The number of the failed attempt, starting from 1.
+     * @throws InterruptedException If interrupted while waiting. The interrupt status is restored.
+     */
+    public void backoff(int attempt) throws InterruptedException {
+        long delay = backoffMillis(attempt);
+        if (delay > 0) {
+            try {
+                Thread.sleep(delay);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw e;
+            }
+        }
+    }
+
+    long backoffMillis(int attempt) {
+        // Capped shift avoids the long overflow for large attempt numbers.
+        long ceiling = Math.min(maxBackoffMillis, initialBackoffMillis << Math.min(attempt - 1, 30));
+        return (ceiling <= 0) ? 0 : ThreadLocalRandom.current().nextLong(ceiling + 1);
+    }
+
+    /**
+     * Inspects the cause chain (and the suppressed exceptions) for a Geode {@link CommitConflictException}, a
+     * {@link SynchronizationCommitConflictException} or an XA_RBTRANSIENT {@link XAException}. Geode registered as JTA
+     * Synchronization reports its conflicts in beforeCompletion, as the cause of the JTA RollbackException.
+     *
+     * @param failure Failure to inspect.
+     * @return Returns true if the failure was caused by a Geode commit conflict.
+     */
+    public static boolean isCommitConflict(Throwable failure) {
+        Set<Throwable> visited = Collections.newSetFromMap(new IdentityHashMap<>());
+        return isCommitConflict(failure, visited);
+    }
+
+    private static boolean isCommitConflict(Throwable failure, Set<Throwable> visited) {
+        for (Throwable t = failure; t != null && visited.add(t); t = t.getCause()) {
+            if (t instanceof CommitConflictException || t instanceof SynchronizationCommitConflictException
+                    || (t instanceof XAException && ((XAException) t).errorCode == XAException.XA_RBTRANSIENT)) {
+                return true;
+            }
+            for (Throwable suppressed : t.getSuppressed()) {
+                if (isCommitConflict(suppressed, visited)) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    static void markCommitConflict() {
+        commitConflict.set(Boolean.TRUE);
+    }
+
+    static void rollbackIfActive(TransactionManager tm) {
+        try {
+            int status = tm.getStatus();
+            if (status != Status.STATUS_NO_TRANSACTION && status != Status.STATUS_COMMITTED
+                    && status != Status.STATUS_ROLLEDBACK) {
+                tm.rollback();
+            }
+        } catch (SystemException | IllegalStateException | SecurityException e) {
+            // The original failure is more relevant, the transaction is disassociated by the reaper otherwise.
+        }
+    }
+}
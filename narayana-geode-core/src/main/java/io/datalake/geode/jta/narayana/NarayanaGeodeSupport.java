@@ -22,13 +22,21 @@
 package io.datalake.geode.jta.narayana;
 
 
+import com.arjuna.ats.jta.common.jtaPropertyManager;
 import org.apache.geode.LogWriter;
-import org.apache.geode.cache.CacheFactory;
+import org.apache.geode.cache.GemFireCache;
+import org.apache.geode.cache.Region;
+import org.apache.geode.internal.cache.TXManagerImpl;
+import org.apache.geode.internal.cache.TXStateProxy;
 
 import javax.transaction.RollbackException;
+import javax.transaction.Status;
 import javax.transaction.SystemException;
 import javax.transaction.Transaction;
 import javax.transaction.TransactionManager;
+import javax.transaction.TransactionSynchronizationRegistry;
+import javax.transaction.xa.XAException;
+import java.lang.reflect.Proxy;
 
 /**
  * Helper class used to enlist Geode as one-phase, last resource in running Transactions.
@@ -37,6 +45,74 @@ import javax.transaction.TransactionManager;
  */
 public class NarayanaGeodeSupport {
 
+    /**
+     * System property enabling the thread-bound {@link NarayanaGeodeLastCommitResource} reuse. Defaults to false.
+     */
+    public static final String THREAD_BOUND_RESOURCES_PROPERTY = "narayana.geode.lrco.threadBoundResources";
+
+    /**
+     * System property switching to the Geode {@link org.apache.geode.cache.client.ClientCache ClientCache} resources.
+     * Defaults to false.
+     */
+    public static final String CLIENT_CACHE_PROPERTY = "narayana.geode.lrco.clientCache";
+
+    private static volatile boolean threadBoundResources = Boolean.getBoolean(THREAD_BOUND_RESOURCES_PROPERTY);
+
+    private static volatile boolean clientCache = Boolean.getBoolean(CLIENT_CACHE_PROPERTY);
+
+    private static final ThreadLocal<NarayanaGeodeLastCommitResource> threadBoundResource = new ThreadLocal<>();
+
+    private static volatile GeodeCommitIntentLog recoveryLog;
+
+    // TransactionSynchronizationRegistry resource marking the JTA transactions Geode is enlisted in.
+    private static final String ENLISTED_KEY = NarayanaGeodeSupport.class.getName() + ".enlisted";
+
+    /**
+     * When enabled every thread reuses a single {@link NarayanaGeodeLastCommitResource} instance, instead of
+     * allocating a new one per transaction. The resource is reset on commit or rollback. If the thread's resource is
+     * still in use (e.g. the previous transaction was suspended, but not completed) a new instance is allocated, so
+     * one resource never participates in two transactions at the same time.
+     * <p>
+     * The reuse is skipped on virtual threads, those are created per task and never run a second transaction.
+     *
+     * @param enabled Enables or disables the thread-bound resource reuse.
+     */
+    public static void setThreadBoundResources(boolean enabled) {
+        threadBoundResources = enabled;
+    }
+
+    public static boolean isThreadBoundResources() {
+        return threadBoundResources;
+    }
+
+    /**
+     * When enabled Geode is enlisted with the {@link NarayanaGeodeClientLastCommitResource}, that begins and commits the
+     * transactions of the Geode client cache, instead of the peer/server cache.
+     *
+     * @param enabled Enables or disables the client cache mode.
+     */
+    public static void setClientCache(boolean enabled) {
+        clientCache = enabled;
+    }
+
+    public static boolean isClientCache() {
+        return clientCache;
+    }
+
+    /**
+     * Sets the log of the Geode commit intents, written by the {@link NarayanaGeodeLastCommitResource} commits and read
+     * by the {@link NarayanaGeodeRecoveryHelper} after a crash. Defaults to null (no intent logging).
+     *
+     * @param log The opened intent log or null to disable the logging.
+     */
+    public static void setRecoveryLog(GeodeCommitIntentLog log) {
+        recoveryLog = log;
+    }
+
+    public static GeodeCommitIntentLog getRecoveryLog() {
+        return recoveryLog;
+    }
+
     /**
      * Use this helper method to enlist Geode as a Last Resource Commit in current transaction.
      * <p>
@@ -71,11 +147,28 @@ public class NarayanaGeodeSupport {
     public static void enlistGeodeAsLastCommitResource() {
 
         try {
+            boolean instrumented = NarayanaGeodeTransactionListeners.isActive();
+            long enlistStartNanos = instrumented ? System.nanoTime() : 0L;
             TransactionManager txManager = com.arjuna.ats.jta.TransactionManager.transactionManager();
             Transaction tx = txManager.getTransaction();
-            tx.enlistResource(new NarayanaGeodeLastCommitResource());
+            NarayanaGeodeLastCommitResource resource = acquireResource();
+            try {
+                if (!tx.enlistResource(resource)) {
+                    // Rejected (e.g. another LRCO resource is already enlisted), never started.
+                    resource.release();
+                } else {
+                    markEnlisted();
+                    if (instrumented) {
+                        NarayanaGeodeTransactionListeners.afterEnlist(resource.getXid(),
+                                System.nanoTime() - enlistStartNanos);
+                    }
+                }
+            } catch (RuntimeException | SystemException | RollbackException e) {
+                resource.release();
+                throw e;
+            }
 
-            LogWriter logger = CacheFactory.getAnyInstance().getLogger();
+            LogWriter logger = cacheContext().getLogger();
             if (logger.fineEnabled()) {
                 logger.fine("NarayanaGeodeLastCommitResource:Enlist into: " + tx.getClass());
             }
@@ -85,4 +178,183 @@ public class NarayanaGeodeSupport {
             throw new NarayanaGeodeException("Failed to enlist Geode as LRCO resource in the transaction!", e);
         }
     }
+
+    /**
+     * Enlists the given Geode cache as a Last Resource Commit in the current transaction. Use it when the transaction
+     * involves several caches: all of them are driven by a single {@link NarayanaGeodeOrderedLastCommitResource}
+     * participant, that commits the caches in a fixed order. Enlisting the same cache twice is a no-op.
+     * <p>
+     * The per-transaction participant is kept in the Narayana TransactionSynchronizationRegistry. Do not mix this
+     * method with {@link #enlistGeodeAsLastCommitResource()} in one transaction: Narayana accepts a single Last
+     * Resource Commit participant.
+     * <p>
+     * Failure to enlist will throw an {@link NarayanaGeodeException} runtime exception, rolling back the transaction.
+     *
+     * @param cache The Geode cache to begin a transaction in.
+     * @return Returns true if the cache has been added to the transaction by this call.
+     */
+    public static boolean enlistGeodeAsLastCommitResource(GemFireCache cache) {
+        TransactionSynchronizationRegistry registry =
+                jtaPropertyManager.getJTAEnvironmentBean().getTransactionSynchronizationRegistry();
+        try {
+            Transaction tx = com.arjuna.ats.jta.TransactionManager.transactionManager().getTransaction();
+            if (tx == null) {
+                throw new NarayanaGeodeException("No running transaction to enlist Geode cache " + cache.getName() +
+                        " in", null);
+            }
+            NarayanaGeodeOrderedLastCommitResource resource = (NarayanaGeodeOrderedLastCommitResource)
+                    registry.getResource(NarayanaGeodeOrderedLastCommitResource.class);
+            if (resource != null) {
+                return resource.add(cache);
+            }
+            resource = new NarayanaGeodeOrderedLastCommitResource();
+            resource.add(cache);
+            if (!tx.enlistResource(resource)) {
+                throw new NarayanaGeodeException("Geode cache " + cache.getName() + " was not enlisted. Is " +
+                        "another Last Resource Commit participant already enlisted?", null);
+            }
+            registry.putResource(NarayanaGeodeOrderedLastCommitResource.class, resource);
+            registry.putResource(ENLISTED_KEY, Boolean.TRUE);
+            return true;
+        } catch (SystemException | XAException e) {
+            throw new NarayanaGeodeException("Failed to enlist Geode cache " + cache.getName() + " as LRCO resource", e);
+        } catch (RollbackException e) {
+            throw new NarayanaGeodeException("Failed to enlist Geode as LRCO resource in the transaction!", e);
+        }
+    }
+
+    /**
+     * Enlists Geode as a two-phase {@link NarayanaGeodeXAResource} in the current transaction, instead of the Last
+     * Resource Commit. Use it when the transaction already has another Last Resource Commit participant. Must be called
+     * before any Geode operation in the transaction.
+     * <p>
+     * Failure to enlist will throw an {@link NarayanaGeodeException} runtime exception, rolling back the transaction.
+     *
+     * @return Returns the enlisted resource.
+     */
+    public static NarayanaGeodeXAResource enlistGeodeAsXAResource() {
+        try {
+            Transaction tx = com.arjuna.ats.jta.TransactionManager.transactionManager().getTransaction();
+            if (tx == null) {
+                throw new NarayanaGeodeException("No running transaction to enlist Geode in", null);
+            }
+            NarayanaGeodeXAResource resource = new NarayanaGeodeXAResource();
+            if (!tx.enlistResource(resource)) {
+                throw new NarayanaGeodeException("Geode was not enlisted as XA resource", null);
+            }
+            markEnlisted();
+            return resource;
+        } catch (SystemException e) {
+            throw new NarayanaGeodeException("Failed to obtain the running transaction", e);
+        } catch (RollbackException e) {
+            throw new NarayanaGeodeException("Failed to enlist Geode as XA resource in the transaction!", e);
+        }
+    }
+
+    /**
+     * Enlists Geode as a Last Resource Commit in the current transaction, only if there is an active JTA transaction
+     * and Geode takes no part in it yet. The enlistment is tracked per JTA transaction, in the Narayana
+     * TransactionSynchronizationRegistry. Geode is not enlisted either if it has registered itself as a JTA
+     * Synchronization (a Geode operation run before the enlistment).
+     * <p>
+     * Geode associates a single transaction with the thread. If the thread still holds the Geode transaction enlisted
+     * in another JTA transaction (e.g. the JTA transaction of the caller was suspended for a REQUIRES_NEW method, but
+     * the Geode one was not) the Geode operations would silently join the suspended transaction, so a
+     * {@link NarayanaGeodeException} is thrown instead.
+     * <p>
+     * Failure to enlist will throw an {@link NarayanaGeodeException} runtime exception, rolling back the transaction.
+     *
+     * @return Returns true if Geode has been enlisted by this call.
+     */
+    public static boolean enlistGeodeAsLastCommitResourceIfNecessary() {
+
+        try {
+            Transaction tx = com.arjuna.ats.jta.TransactionManager.transactionManager().getTransaction();
+            if (tx == null || tx.getStatus() != Status.STATUS_ACTIVE) {
+                return false;
+            }
+        } catch (SystemException e) {
+            throw new NarayanaGeodeException("Failed to obtain the running transaction", e);
+        }
+
+        if (jtaPropertyManager.getJTAEnvironmentBean().getTransactionSynchronizationRegistry()
+                .getResource(ENLISTED_KEY) != null) {
+            return false;
+        }
+
+        TXStateProxy txState = TXManagerImpl.getCurrentTXState();
+        if (txState != null && !txState.isInProgress()) {
+            // Expired and rolled back by the Narayana reaper, Geode has not cleared the association of this thread.
+            cacheContext().getTxManager().internalSuspend();
+            txState = null;
+        }
+        if (txState != null) {
+            if (txState.isJCATransaction()) {
+                // Begun by the enlistment in another JTA transaction.
+                throw new NarayanaGeodeException("Geode is still associated with the transaction " +
+                        txState.getTransactionId() + " of another JTA transaction. Suspend the Geode transaction " +
+                        "together with the JTA one", null);
+            }
+            // Geode has registered itself as a JTA Synchronization.
+            return false;
+        }
+
+        enlistGeodeAsLastCommitResource();
+        return true;
+    }
+
+    private static void markEnlisted() {
+        jtaPropertyManager.getJTAEnvironmentBean().getTransactionSynchronizationRegistry()
+                .putResource(ENLISTED_KEY, Boolean.TRUE);
+    }
+
+    /**
+     * Wraps the region in a proxy that enlists Geode as a Last Resource Commit lazily, on the first region operation
+     * performed within a transaction (see {@link #enlistGeodeAsLastCommitResourceIfNecessary()}). Transactions that
+     * never touch the region do not pay for the Geode resource enlistment, transaction begin and commit.
+     * <p>
+     * Metadata operations like getName() or getAttributes() do not trigger the enlistment.
+     *
+     * @param region Geode region to wrap.
+     * @return Returns a {@link Region} proxy delegating to the given region.
+     */
+    @SuppressWarnings("unchecked")
+    public static <K, V> Region<K, V> lazyEnlistingRegion(Region<K, V> region) {
+        if (Proxy.isProxyClass(region.getClass())
+                && Proxy.getInvocationHandler(region) instanceof LazyEnlistingRegionInvocationHandler) {
+            return region;
+        }
+        return (Region<K, V>) Proxy.newProxyInstance(Region.class.getClassLoader(), new Class<?>[]{Region.class},
+                new LazyEnlistingRegionInvocationHandler(region));
+    }
+
+    private static NarayanaGeodeLastCommitResource acquireResource() {
+        boolean client = clientCache;
+        // Virtual threads are short-lived and not pooled, a thread-bound resource would never be reused.
+        if (threadBoundResources && !VirtualThreadSupport.isVirtual(Thread.currentThread())) {
+            NarayanaGeodeLastCommitResource resource = threadBoundResource.get();
+            if (resource == null || (resource instanceof NarayanaGeodeClientLastCommitResource) != client) {
+                resource = newResource(client);
+                threadBoundResource.set(resource);
+            }
+            if (resource.tryAcquire()) {
+                return resource;
+            }
+        }
+
+        NarayanaGeodeLastCommitResource resource = newResource(client);
+        resource.tryAcquire();
+        return resource;
+    }
+
+    /**
+     * @return Returns the context of the client or the peer/server cache, depending on the client cache mode.
+     */
+    static GeodeCacheContext cacheContext() {
+        return clientCache ? GeodeCacheContext.getClient() : GeodeCacheContext.get();
+    }
+
+    private static NarayanaGeodeLastCommitResource newResource(boolean client) {
+        return client ? new NarayanaGeodeClientLastCommitResource() : new NarayanaGeodeLastCommitResource();
+    }
 }
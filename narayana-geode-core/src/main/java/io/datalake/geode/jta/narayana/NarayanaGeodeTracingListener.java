@@ -0,0 +1,204 @@
+/*
+ * Copyright (c) 2026. The original author or authors.
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package io.datalake.geode.jta.narayana;
+
+import io.opentelemetry.api.OpenTelemetry;
+import io.opentelemetry.api.common.AttributeKey;
+import io.opentelemetry.api.trace.Span;
+import io.opentelemetry.api.trace.SpanBuilder;
+import io.opentelemetry.api.trace.SpanKind;
+import io.opentelemetry.api.trace.StatusCode;
+import io.opentelemetry.api.trace.Tracer;
+import io.opentelemetry.context.Context;
+import org.apache.geode.cache.TransactionId;
+
+import javax.transaction.xa.XAException;
+import javax.transaction.xa.Xid;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Opt-in {@link NarayanaGeodeTransactionListener} that traces the Geode Last Resource Commit path with OpenTelemetry
+ * spans:
+ * <ul>
+ * <li>geode.lrco.enlist - the resource enlistment, including the Geode transaction begin.</li>
+ * <li>geode.lrco.transaction - from the Geode begin to the commit or rollback, with a rollback event.</li>
+ * <li>geode.lrco.commit - the Geode commit, a child of the transaction span.</li>
+ * </ul>
+ * The enlist and the transaction spans are children of the span current on the enlisting thread, e.g. the span of the
+ * Spring {@code @Transactional} method. The spans carry the Xid, the Geode transaction id, the number of regions
+ * written or read and the outcome, so the Geode commit time can be told apart from the rest of the global transaction
+ * (e.g. Narayana logging or the other resources).
+ * <p>
+ * The OpenTelemetry API is an optional dependency, add io.opentelemetry:opentelemetry-api to use the listener.
+ * Use {@link #register()} and {@link #unregister()} to add and remove the listener. The region count
+ * needs the key capture, that walks the transaction state before every commit. Disable it for the lowest overhead.
+ */
+public class NarayanaGeodeTracingListener implements NarayanaGeodeTransactionListener {
+
+    public static final String INSTRUMENTATION_NAME = "io.datalake.geode.jta.narayana";
+
+    public static final AttributeKey<String> XID = AttributeKey.stringKey("geode.xid");
+    public static final AttributeKey<String> TRANSACTION_ID = AttributeKey.stringKey("geode.transaction.id");
+    public static final AttributeKey<Long> REGION_COUNT = AttributeKey.longKey("geode.region.count");
+    public static final AttributeKey<String> OUTCOME = AttributeKey.stringKey("geode.outcome");
+    public static final AttributeKey<Long> XA_ERROR_CODE = AttributeKey.longKey("geode.xa.error_code");
+
+    private static final char[] HEX = "0123456789abcdef".toCharArray();
+
+    private final Tracer tracer;
+    private final boolean regionCount;
+    private final Map<XidKey, Span> transactionSpans = new ConcurrentHashMap<>();
+
+    // The listener is given durations measured with System.nanoTime(), all its spans use the same anchored clock.
+    private final long anchorEpochNanos = TimeUnit.MILLISECONDS.toNanos(System.currentTimeMillis());
+    private final long anchorNanoTime = System.nanoTime();
+
+    public NarayanaGeodeTracingListener(OpenTelemetry openTelemetry) {
+        this(openTelemetry, true);
+    }
+
+    /**
+     * @param openTelemetry The OpenTelemetry instance to create the tracer from.
+     * @param regionCount   Captures the transaction keys to record the region count.
+     */
+    public NarayanaGeodeTracingListener(OpenTelemetry openTelemetry, boolean regionCount) {
+        this.tracer = openTelemetry.getTracer(INSTRUMENTATION_NAME);
+        this.regionCount = regionCount;
+    }
+
+    public void register() {
+        NarayanaGeodeTransactionListeners.add(this);
+    }
+
+    public void unregister() {
+        NarayanaGeodeTransactionListeners.remove(this);
+    }
+
+    @Override
+    public void afterEnlist(Xid xid, long enlistNanos) {
+        long end = this.epochNanos();
+        SpanBuilder builder = tracer.spanBuilder("geode.lrco.enlist")
+                .setSpanKind(SpanKind.INTERNAL)
+                .setStartTimestamp(end - enlistNanos, TimeUnit.NANOSECONDS);
+        if (xid != null) {
+            builder.setAttribute(XID, format(xid));
+        }
+        builder.startSpan().end(end, TimeUnit.NANOSECONDS);
+    }
+
+    @Override
+    public void afterStart(Xid xid, TransactionId transactionId, long beginNanos) {
+        Span span = tracer.spanBuilder("geode.lrco.transaction")
+                .setSpanKind(SpanKind.INTERNAL)
+                .setStartTimestamp(this.epochNanos(), TimeUnit.NANOSECONDS)
+                .setAttribute(XID, format(xid))
+                .setAttribute(TRANSACTION_ID, String.valueOf(transactionId))
+                .startSpan();
+        transactionSpans.put(new XidKey(xid), span);
+    }
+
+    @Override
+    public boolean isKeyCaptureRequired() {
+        return regionCount;
+    }
+
+    @Override
+    public void beforeCommit(Xid xid, TransactionId transactionId, Map<String, Set<Object>> regionKeys) {
+        Span span = transactionSpans.get(new XidKey(xid));
+        if (span != null) {
+            span.setAttribute(REGION_COUNT, (long) regionKeys.size());
+        }
+    }
+
+    @Override
+    public void afterCommit(Xid xid, TransactionId transactionId, long commitNanos, long transactionNanos) {
+        Span span = transactionSpans.remove(new XidKey(xid));
+        if (span == null) {
+            return;
+        }
+        long end = this.epochNanos();
+        tracer.spanBuilder("geode.lrco.commit")
+                .setParent(Context.root().with(span))
+                .setSpanKind(SpanKind.INTERNAL)
+                .setStartTimestamp(end - commitNanos, TimeUnit.NANOSECONDS)
+                .setAttribute(TRANSACTION_ID, String.valueOf(transactionId))
+                .startSpan()
+                .end(end, TimeUnit.NANOSECONDS);
+        span.setAttribute(OUTCOME, "committed");
+        span.end(end, TimeUnit.NANOSECONDS);
+    }
+
+    @Override
+    public void afterRollback(Xid xid, TransactionId transactionId, long rollbackNanos, long transactionNanos) {
+        Span span = transactionSpans.remove(new XidKey(xid));
+        if (span == null) {
+            return;
+        }
+        long end = this.epochNanos();
+        span.addEvent("rollback", end, TimeUnit.NANOSECONDS);
+        span.setAttribute(OUTCOME, "rolled_back");
+        span.end(end, TimeUnit.NANOSECONDS);
+    }
+
+    @Override
+    public void onFailure(Xid xid, TransactionId transactionId, XAException exception) {
+        Span span = transactionSpans.remove(new XidKey(xid));
+        long end = this.epochNanos();
+        if (span == null) {
+            // The Geode transaction has failed to start.
+            span = tracer.spanBuilder("geode.lrco.transaction")
+                    .setSpanKind(SpanKind.INTERNAL)
+                    .setStartTimestamp(end, TimeUnit.NANOSECONDS)
+                    .setAttribute(XID, format(xid))
+                    .startSpan();
+        }
+        span.setAttribute(OUTCOME, "failed");
+        span.setAttribute(XA_ERROR_CODE, (long) exception.errorCode);
+        span.recordException(exception);
+        span.setStatus(StatusCode.ERROR, String.valueOf(exception.getMessage()));
+        span.end(end, TimeUnit.NANOSECONDS);
+    }
+
+    private long epochNanos() {
+        return anchorEpochNanos + (System.nanoTime() - anchorNanoTime);
+    }
+
+    /**
+     * @return Returns the format id, the global transaction id and the branch qualifier, the last two in hex.
+     */
+    static String format(Xid xid) {
+        StringBuilder builder = new StringBuilder().append(xid.getFormatId()).append(':');
+        appendHex(builder, xid.getGlobalTransactionId());
+        builder.append(':');
+        appendHex(builder, xid.getBranchQualifier());
+        return builder.toString();
+    }
+
+    private static void appendHex(StringBuilder builder, byte[] bytes) {
+        for (byte b : bytes) {
+            builder.append(HEX[(b >> 4) & 0xF]).append(HEX[b & 0xF]);
+        }
+    }
+}
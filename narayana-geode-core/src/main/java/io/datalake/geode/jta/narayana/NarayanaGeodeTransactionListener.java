@@ -0,0 +1,116 @@
+/*
+ * Copyright (c) 2026. The original author or authors.
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package io.datalake.geode.jta.narayana;
+
+import org.apache.geode.cache.TransactionId;
+
+import javax.transaction.xa.XAException;
+import javax.transaction.xa.Xid;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Callback interface notified about the life-cycle of the Geode Last Resource Commit transactions. Register the
+ * implementations with {@link NarayanaGeodeTransactionListeners#add(NarayanaGeodeTransactionListener)}.
+ * <p>
+ * The callbacks are invoked synchronously, so implementations must be fast and thread-safe. Most run on the thread
+ * driving the transaction, but not all of them: the rollback of a timed out transaction may be notified on the
+ * Narayana reaper thread, and its expiry (onFailure with XA_RBTIMEOUT) on the shared timing wheel thread. Only
+ * beforeCommit and the outcome of the same commit are guaranteed to run on the same thread. Exceptions thrown by a
+ * listener are logged and never affect the transaction outcome.
+ * <p>
+ * Every started Geode transaction ends with exactly one afterCommit, afterRollback or onFailure notification.
+ */
+public interface NarayanaGeodeTransactionListener {
+
+    /**
+     * Geode has been enlisted as Last Resource Commit in the current JTA transaction.
+     *
+     * @param xid         The transaction branch the resource was started in, the same as in the following
+     *                    notifications of the transaction.
+     * @param enlistNanos Time spent enlisting the resource, in nanoseconds.
+     */
+    default void afterEnlist(Xid xid, long enlistNanos) {
+    }
+
+    /**
+     * Geode transaction has been started.
+     *
+     * @param beginNanos Time spent beginning the Geode transaction, in nanoseconds.
+     */
+    default void afterStart(Xid xid, TransactionId transactionId, long beginNanos) {
+    }
+
+    /**
+     * The first operation of the Geode transaction has been issued through a region proxy (see
+     * {@link NarayanaGeodeSupport#lazyEnlistingRegion(org.apache.geode.cache.Region)}), on the thread that started it.
+     *
+     * @param lagNanos Time since the start of the Geode transaction, in nanoseconds.
+     */
+    default void afterFirstOperation(long lagNanos) {
+    }
+
+    /**
+     * @return Returns true if the listener needs the {@link #beforeCommit} notification. Collecting the keys touched by
+     * a transaction walks the Geode transaction state, so it is done only if at least one registered listener asks for
+     * it. Evaluated once, when the listener is registered.
+     */
+    default boolean isKeyCaptureRequired() {
+        return false;
+    }
+
+    /**
+     * Geode transaction is about to be committed. Invoked only if a registered listener requires the key capture.
+     *
+     * @param regionKeys Keys written or read by the transaction, grouped by the region full path.
+     */
+    default void beforeCommit(Xid xid, TransactionId transactionId, Map<String, Set<Object>> regionKeys) {
+    }
+
+    /**
+     * Geode transaction has been committed.
+     *
+     * @param commitNanos      Time spent in the Geode commit, in nanoseconds.
+     * @param transactionNanos Time since the start of the Geode transaction, in nanoseconds.
+     */
+    default void afterCommit(Xid xid, TransactionId transactionId, long commitNanos, long transactionNanos) {
+    }
+
+    /**
+     * Geode transaction has been rolled back.
+     *
+     * @param rollbackNanos    Time spent in the Geode rollback, in nanoseconds.
+     * @param transactionNanos Time since the start of the Geode transaction, in nanoseconds.
+     */
+    default void afterRollback(Xid xid, TransactionId transactionId, long rollbackNanos, long transactionNanos) {
+    }
+
+    /**
+     * Geode transaction start, commit or rollback failed.
+     *
+     * @param transactionId Geode transaction id, or null if the failure happened before the Geode transaction was
+     *                      started.
+     * @param exception     The failure reported to the transaction manager.
+     */
+    default void onFailure(Xid xid, TransactionId transactionId, XAException exception) {
+    }
+}
@@ -0,0 +1,186 @@
+/*
+ * Copyright (c) 2026. The original author or authors.
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package io.datalake.geode.jta.narayana;
+
+import org.apache.geode.cache.TransactionId;
+import org.apache.geode.internal.cache.TXManagerImpl;
+
+import javax.transaction.xa.XAException;
+import javax.transaction.xa.Xid;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Registry of the {@link NarayanaGeodeTransactionListener}s. The listeners are kept in a copy-on-write array, so the
+ * notification path is a single volatile read and costs nothing when no listener is registered.
+ */
+public final class NarayanaGeodeTransactionListeners {
+
+    private static final NarayanaGeodeTransactionListener[] NONE = new NarayanaGeodeTransactionListener[0];
+
+    private static volatile NarayanaGeodeTransactionListener[] listeners = NONE;
+
+    private static volatile boolean keyCapture;
+
+    // Start time of the Geode transaction begun on the thread, until its first region operation. Zero if none.
+    private static final ThreadLocal<long[]> firstOperationPending = ThreadLocal.withInitial(() -> new long[1]);
+
+    private NarayanaGeodeTransactionListeners() {
+    }
+
+    public static synchronized void add(NarayanaGeodeTransactionListener listener) {
+        NarayanaGeodeTransactionListener[] current = listeners;
+        NarayanaGeodeTransactionListener[] updated = Arrays.copyOf(current, current.length + 1);
+        updated[current.length] = listener;
+        listeners = updated;
+        keyCapture = keyCapture || listener.isKeyCaptureRequired();
+    }
+
+    public static synchronized void remove(NarayanaGeodeTransactionListener listener) {
+        NarayanaGeodeTransactionListener[] current = listeners;
+        for (int i = 0; i < current.length; i++) {
+            if (current[i] == listener) {
+                NarayanaGeodeTransactionListener[] updated = new NarayanaGeodeTransactionListener[current.length - 1];
+                System.arraycopy(current, 0, updated, 0, i);
+                System.arraycopy(current, i + 1, updated, i, current.length - i - 1);
+                listeners = (updated.length == 0) ? NONE : updated;
+                keyCapture = Arrays.stream(updated).anyMatch(NarayanaGeodeTransactionListener::isKeyCaptureRequired);
+                return;
+            }
+        }
+    }
+
+    /**
+     * @return Returns true if at least one listener is registered. Use it to skip the timing measurements otherwise.
+     */
+    static boolean isActive() {
+        return listeners.length > 0;
+    }
+
+    /**
+     * @return Returns true if at least one registered listener requires the keys touched by the transactions.
+     */
+    static boolean isKeyCaptureActive() {
+        return keyCapture;
+    }
+
+    static void afterEnlist(Xid xid, long enlistNanos) {
+        for (NarayanaGeodeTransactionListener listener : listeners) {
+            try {
+                listener.afterEnlist(xid, enlistNanos);
+            } catch (RuntimeException e) {
+                logListenerFailure(listener, e);
+            }
+        }
+    }
+
+    static void afterStart(Xid xid, TransactionId transactionId, long beginNanos) {
+        firstOperationPending.get()[0] = System.nanoTime();
+        for (NarayanaGeodeTransactionListener listener : listeners) {
+            try {
+                listener.afterStart(xid, transactionId, beginNanos);
+            } catch (RuntimeException e) {
+                logListenerFailure(listener, e);
+            }
+        }
+    }
+
+    /**
+     * Notifies the first region operation of the Geode transaction started on the calling thread. The following
+     * operations, and the operations outside of a transaction, are ignored.
+     */
+    static void beforeOperation() {
+        long[] pending = firstOperationPending.get();
+        long startNanos = pending[0];
+        if (startNanos == 0L || TXManagerImpl.getCurrentTXState() == null) {
+            return;
+        }
+        pending[0] = 0L;
+        long lagNanos = System.nanoTime() - startNanos;
+        for (NarayanaGeodeTransactionListener listener : listeners) {
+            try {
+                listener.afterFirstOperation(lagNanos);
+            } catch (RuntimeException e) {
+                logListenerFailure(listener, e);
+            }
+        }
+    }
+
+    static void beforeCommit(Xid xid, TransactionId transactionId, Map<String, Set<Object>> regionKeys) {
+        for (NarayanaGeodeTransactionListener listener : listeners) {
+            try {
+                listener.beforeCommit(xid, transactionId, regionKeys);
+            } catch (RuntimeException e) {
+                logListenerFailure(listener, e);
+            }
+        }
+    }
+
+    static void afterCommit(Xid xid, TransactionId transactionId, long commitNanos, long transactionNanos) {
+        clearFirstOperationPending();
+        for (NarayanaGeodeTransactionListener listener : listeners) {
+            try {
+                listener.afterCommit(xid, transactionId, commitNanos, transactionNanos);
+            } catch (RuntimeException e) {
+                logListenerFailure(listener, e);
+            }
+        }
+    }
+
+    static void afterRollback(Xid xid, TransactionId transactionId, long rollbackNanos, long transactionNanos) {
+        clearFirstOperationPending();
+        for (NarayanaGeodeTransactionListener listener : listeners) {
+            try {
+                listener.afterRollback(xid, transactionId, rollbackNanos, transactionNanos);
+            } catch (RuntimeException e) {
+                logListenerFailure(listener, e);
+            }
+        }
+    }
+
+    static void onFailure(Xid xid, TransactionId transactionId, XAException exception) {
+        clearFirstOperationPending();
+        for (NarayanaGeodeTransactionListener listener : listeners) {
+            try {
+                listener.onFailure(xid, transactionId, exception);
+            } catch (RuntimeException e) {
+                logListenerFailure(listener, e);
+            }
+        }
+    }
+
+    // A transaction completed with no region operation must not report the first operation of the next, non
+    // transactional or not instrumented, one.
+    private static void clearFirstOperationPending() {
+        firstOperationPending.get()[0] = 0L;
+    }
+
+    private static void logListenerFailure(NarayanaGeodeTransactionListener listener, RuntimeException e) {
+        try {
+            NarayanaGeodeSupport.cacheContext().getLogger()
+                    .warning("NarayanaGeodeTransactionListener " + listener + " failed", e);
+        } catch (RuntimeException ignored) {
+            // The listener failures must never affect the transaction, even if the cache is already closed.
+        }
+    }
+}
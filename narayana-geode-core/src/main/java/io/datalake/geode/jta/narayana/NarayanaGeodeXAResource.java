@@ -0,0 +1,303 @@
+/*
+ * Copyright (c) 2026. The original author or authors.
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package io.datalake.geode.jta.narayana;
+
+import org.apache.geode.LogWriter;
+import org.apache.geode.cache.CommitConflictException;
+import org.apache.geode.cache.GemFireCache;
+import org.apache.geode.cache.SynchronizationCommitConflictException;
+import org.apache.geode.cache.TransactionId;
+import org.apache.geode.cache.TransactionInDoubtException;
+import org.apache.geode.internal.cache.TXManagerImpl;
+import org.apache.geode.internal.cache.TXStateProxy;
+
+import javax.transaction.Status;
+import javax.transaction.xa.XAException;
+import javax.transaction.xa.XAResource;
+import javax.transaction.xa.Xid;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Two-phase {@link XAResource} for Geode, an alternative to the {@link NarayanaGeodeLastCommitResource} when the
+ * transaction has to include another one-phase (e.g. Last Resource Commit) participant.
+ * <p>
+ * The phases are mapped to the Geode JTA Synchronization callbacks of the transaction:
+ * <ul>
+ * <li>prepare - the Geode beforeCompletion: takes the commit locks of the transaction keys and checks them for
+ * write-write conflicts. A conflict votes rollback with XA_RBTRANSIENT. A transaction with no Geode operations votes
+ * XA_RDONLY.</li>
+ * <li>commit - the Geode afterCompletion(STATUS_COMMITTED): applies the changes under the locks taken by prepare. A
+ * phase two failure is reported as a heuristic outcome (XA_HEURRB or XA_HEURHAZ).</li>
+ * <li>rollback - the Geode afterCompletion(STATUS_ROLLEDBACK) if prepared, the transaction rollback otherwise.</li>
+ * </ul>
+ * After end() the Geode transaction is detached from the thread, so the second phase can run on any thread. The
+ * prepared transactions are recorded as in doubt until completed and are reported by {@link #recover(int)}, so the
+ * Narayana recovery can complete them (e.g. after a failed phase two call). Geode keeps the prepared state in memory
+ * only, it does not survive the Geode member.
+ * <p>
+ * Use {@link NarayanaGeodeSupport#enlistGeodeAsXAResource()} to create and enlist it.
+ */
+public class NarayanaGeodeXAResource implements XAResource {
+
+    // The prepared, not yet completed, transactions of this JVM.
+    private static final Map<XidKey, NarayanaGeodeXAResource> inDoubt = new ConcurrentHashMap<>();
+
+    private final GemFireCache cache;
+    private volatile GeodeCacheContext context;
+    private volatile Xid xid;
+    private volatile TXStateProxy txState;
+    private volatile boolean prepared;
+
+    /**
+     * Creates a resource for the current Geode cache.
+     */
+    public NarayanaGeodeXAResource() {
+        this(null);
+    }
+
+    /**
+     * @param cache The cache to begin the transaction in. If null the current cache is used.
+     */
+    public NarayanaGeodeXAResource(GemFireCache cache) {
+        this.cache = cache;
+    }
+
+    @Override
+    public void start(Xid xid, int flags) throws XAException {
+        if (flags != XAResource.TMNOFLAGS) {
+            // The resource is never shared between branches (see isSameRM) and is detached after end.
+            throw new XAException(XAException.XAER_INVAL);
+        }
+        if (this.xid != null) {
+            throw new XAException(XAException.XAER_PROTO);
+        }
+        GeodeCacheContext context = (this.cache != null) ? GeodeCacheContext.of(this.cache) : GeodeCacheContext.get();
+        TXManagerImpl txManager = context.getTxManager();
+        if (txManager.getTXState() != null) {
+            throw new XAException("GemFire is already associated with a transaction");
+        }
+        txManager.begin();
+        TXStateProxy tsp = txManager.getTXState();
+        // Keeps Geode from registering itself as a JTA Synchronization.
+        tsp.setJCATransaction();
+        this.context = context;
+        this.txState = tsp;
+        this.xid = xid;
+
+        LogWriter logger = context.getLogger();
+        if (logger.fineEnabled()) {
+            logger.fine("NarayanaGeodeXAResource:begun Geode transaction " + tsp.getTransactionId() + " for " + xid);
+        }
+    }
+
+    /**
+     * Detaches the Geode transaction from the calling thread.
+     */
+    @Override
+    public void end(Xid xid, int flags) throws XAException {
+        TXStateProxy tsp = this.owned(xid).txState;
+        TXManagerImpl txManager = this.context.getTxManager();
+        if (txManager.getTXState() == tsp) {
+            txManager.internalSuspend();
+        }
+    }
+
+    @Override
+    public int prepare(Xid xid) throws XAException {
+        NarayanaGeodeXAResource resource = this.owned(xid);
+        TXStateProxy tsp = resource.txState;
+        if (tsp.getRegions().isEmpty()) {
+            // Nothing to commit, the branch is completed.
+            resource.rollbackQuietly();
+            return XA_RDONLY;
+        }
+        try {
+            resource.onThread(tsp::beforeCompletion);
+        } catch (SynchronizationCommitConflictException | CommitConflictException e) {
+            NarayanaGeodeRetryTemplate.markCommitConflict();
+            resource.rollbackQuietly();
+            throw xaException(XAException.XA_RBTRANSIENT, e);
+        } catch (RuntimeException e) {
+            resource.rollbackQuietly();
+            throw xaException(XAException.XA_RBOTHER, e);
+        }
+        resource.prepared = true;
+        inDoubt.put(new XidKey(xid), resource);
+        return XA_OK;
+    }
+
+    @Override
+    public void commit(Xid xid, boolean onePhase) throws XAException {
+        NarayanaGeodeXAResource resource = this.resolve(xid);
+        if (onePhase) {
+            // The only participant, prepare and commit in one go.
+            if (resource.prepare(xid) == XA_RDONLY) {
+                return;
+            }
+        } else if (!resource.prepared) {
+            throw new XAException(XAException.XAER_PROTO);
+        }
+        try {
+            resource.completeOnThread(Status.STATUS_COMMITTED);
+        } catch (CommitConflictException e) {
+            // Can not happen under the prepare locks, unless Geode released them (e.g. a member departure).
+            throw xaException(onePhase ? XAException.XA_RBTRANSIENT : XAException.XA_HEURRB, e);
+        } catch (TransactionInDoubtException e) {
+            throw xaException(XAException.XA_HEURHAZ, e);
+        } catch (RuntimeException e) {
+            throw xaException(onePhase ? XAException.XA_RBOTHER : XAException.XA_HEURHAZ, e);
+        } finally {
+            resource.completed();
+        }
+    }
+
+    @Override
+    public void rollback(Xid xid) throws XAException {
+        NarayanaGeodeXAResource resource = this.resolve(xid);
+        try {
+            if (resource.prepared) {
+                resource.completeOnThread(Status.STATUS_ROLLEDBACK);
+            } else {
+                resource.onThread(() -> resource.context.getTxManager().rollback());
+            }
+        } catch (RuntimeException e) {
+            throw xaException(XAException.XAER_RMERR, e);
+        } finally {
+            resource.completed();
+        }
+    }
+
+    @Override
+    public void forget(Xid xid) throws XAException {
+        inDoubt.remove(new XidKey(xid));
+    }
+
+    /**
+     * @return Returns the prepared, not yet completed, transactions.
+     */
+    @Override
+    public Xid[] recover(int flags) throws XAException {
+        if ((flags & XAResource.TMSTARTRSCAN) == 0) {
+            return new Xid[0];
+        }
+        return inDoubt.values().stream().map(resource -> resource.xid).toArray(Xid[]::new);
+    }
+
+    @Override
+    public boolean isSameRM(XAResource xaResource) throws XAException {
+        // Never join, every branch has its own Geode transaction.
+        return xaResource == this;
+    }
+
+    @Override
+    public int getTransactionTimeout() throws XAException {
+        return 0;
+    }
+
+    /**
+     * The timeout is not enforced on the Geode side, the expired branches are rolled back by the Narayana reaper.
+     *
+     * @return Returns false, the timeout is not set.
+     */
+    @Override
+    public boolean setTransactionTimeout(int seconds) throws XAException {
+        return false;
+    }
+
+    /**
+     * @return Returns the Geode transaction id, or null if the resource was not started.
+     */
+    public TransactionId getGeodeTransactionId() {
+        TXStateProxy tsp = this.txState;
+        return (tsp != null) ? tsp.getTransactionId() : null;
+    }
+
+    private NarayanaGeodeXAResource owned(Xid xid) throws XAException {
+        if (this.xid == null || !new XidKey(this.xid).equals(new XidKey(xid))) {
+            throw new XAException(XAException.XAER_NOTA);
+        }
+        return this;
+    }
+
+    // The recovery calls the second phase on a new resource instance.
+    private NarayanaGeodeXAResource resolve(Xid xid) throws XAException {
+        if (this.xid != null && new XidKey(this.xid).equals(new XidKey(xid))) {
+            return this;
+        }
+        NarayanaGeodeXAResource resource = inDoubt.get(new XidKey(xid));
+        if (resource == null) {
+            throw new XAException(XAException.XAER_NOTA);
+        }
+        return resource;
+    }
+
+    private void completeOnThread(int status) {
+        TXStateProxy tsp = this.txState;
+        onThread(() -> tsp.afterCompletion(status));
+    }
+
+    /**
+     * Runs the Geode transaction callback with the transaction associated with the calling thread.
+     */
+    private void onThread(Runnable callback) {
+        TXManagerImpl txManager = this.context.getTxManager();
+        TXStateProxy previous = txManager.internalSuspend();
+        txManager.internalResume(this.txState);
+        try {
+            callback.run();
+        } finally {
+            txManager.internalSuspend();
+            if (previous != null) {
+                txManager.internalResume(previous);
+            }
+        }
+    }
+
+    private void rollbackQuietly() {
+        try {
+            if (this.prepared) {
+                completeOnThread(Status.STATUS_ROLLEDBACK);
+            } else {
+                onThread(() -> this.context.getTxManager().rollback());
+            }
+        } catch (RuntimeException e) {
+            // Reported by the caller, Geode rolls back the closed transactions.
+        } finally {
+            completed();
+        }
+    }
+
+    private void completed() {
+        Xid xid = this.xid;
+        if (xid != null) {
+            inDoubt.remove(new XidKey(xid));
+        }
+        this.prepared = false;
+    }
+
+    private static XAException xaException(int errorCode, Throwable cause) {
+        XAException xae = new XAException(errorCode);
+        xae.initCause(cause);
+        return xae;
+    }
+}
@@ -0,0 +1,241 @@
+/*
+ * Copyright (c) 2026. The original author or authors.
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package io.datalake.geode.jta.narayana;
+
+import javax.naming.CompositeName;
+import javax.naming.Context;
+import javax.naming.Name;
+import javax.naming.NameClassPair;
+import javax.naming.NameNotFoundException;
+import javax.naming.NameParser;
+import javax.naming.NamingEnumeration;
+import javax.naming.NamingException;
+import javax.naming.OperationNotSupportedException;
+import java.util.Hashtable;
+import java.util.Map;
+
+/**
+ * Read-only {@link Context} over the immutable Narayana JTA bindings. See {@link NarayanaJtaInitialContextFactory}.
+ */
+final class NarayanaJtaContext implements Context {
+
+    static final NarayanaJtaContext INSTANCE = new NarayanaJtaContext();
+
+    private static final NameParser NAME_PARSER = CompositeName::new;
+
+    private NarayanaJtaContext() {
+    }
+
+    /**
+     * Lazy holder: the bindings are resolved on the first use (or by initialize()), without synchronization on the
+     * lookup path. Concurrent first users wait on the class initialization lock. A failed resolution is kept, so the
+     * holder class itself always initializes and every later use reports the original failure.
+     */
+    private static final class Bindings {
+
+        static final Map<String, Object> BINDINGS;
+        static final Throwable FAILURE;
+
+        static {
+            Map<String, Object> bindings = null;
+            Throwable failure = null;
+            try {
+                bindings = NarayanaJtaInitialContextFactory.jtaBindings();
+            } catch (RuntimeException | LinkageError e) {
+                failure = e;
+            }
+            BINDINGS = bindings;
+            FAILURE = failure;
+        }
+    }
+
+    /**
+     * Resolves the bindings.
+     *
+     * @throws NarayanaGeodeException If the Narayana JTA bindings could not be resolved.
+     */
+    static void initialize() {
+        if (Bindings.FAILURE != null) {
+            throw new NarayanaGeodeException("Failed to resolve the Narayana JTA bindings", Bindings.FAILURE);
+        }
+    }
+
+    @Override
+    public Object lookup(String name) throws NamingException {
+        if (name.isEmpty()) {
+            return this;
+        }
+        if (Bindings.FAILURE != null) {
+            NamingException e = new NamingException("Failed to resolve the Narayana JTA bindings");
+            e.setRootCause(Bindings.FAILURE);
+            throw e;
+        }
+        Object object = Bindings.BINDINGS.get(name);
+        if (object == null) {
+            throw new NameNotFoundException(name);
+        }
+        return object;
+    }
+
+    @Override
+    public Object lookup(Name name) throws NamingException {
+        return lookup(name.toString());
+    }
+
+    @Override
+    public Object lookupLink(String name) throws NamingException {
+        return lookup(name);
+    }
+
+    @Override
+    public Object lookupLink(Name name) throws NamingException {
+        return lookup(name);
+    }
+
+    @Override
+    public NameParser getNameParser(String name) {
+        return NAME_PARSER;
+    }
+
+    @Override
+    public NameParser getNameParser(Name name) {
+        return NAME_PARSER;
+    }
+
+    @Override
+    public String composeName(String name, String prefix) {
+        return prefix.isEmpty() ? name : prefix + "/" + name;
+    }
+
+    @Override
+    public Name composeName(Name name, Name prefix) throws NamingException {
+        return ((Name) prefix.clone()).addAll(name);
+    }
+
+    @Override
+    public Hashtable<?, ?> getEnvironment() {
+        return new Hashtable<>();
+    }
+
+    @Override
+    public Object addToEnvironment(String propName, Object propVal) {
+        return null;
+    }
+
+    @Override
+    public Object removeFromEnvironment(String propName) {
+        return null;
+    }
+
+    @Override
+    public String getNameInNamespace() {
+        return "";
+    }
+
+    @Override
+    public void close() {
+    }
+
+    @Override
+    public void bind(Name name, Object obj) throws NamingException {
+        throw readOnly();
+    }
+
+    @Override
+    public void bind(String name, Object obj) throws NamingException {
+        throw readOnly();
+    }
+
+    @Override
+    public void rebind(Name name, Object obj) throws NamingException {
+        throw readOnly();
+    }
+
+    @Override
+    public void rebind(String name, Object obj) throws NamingException {
+        throw readOnly();
+    }
+
+    @Override
+    public void unbind(Name name) throws NamingException {
+        throw readOnly();
+    }
+
+    @Override
+    public void unbind(String name) throws NamingException {
+        throw readOnly();
+    }
+
+    @Override
+    public void rename(Name oldName, Name newName) throws NamingException {
+        throw readOnly();
+    }
+
+    @Override
+    public void rename(String oldName, String newName) throws NamingException {
+        throw readOnly();
+    }
+
+    @Override
+    public NamingEnumeration<NameClassPair> list(Name name) throws NamingException {
+        throw readOnly();
+    }
+
+    @Override
+    public NamingEnumeration<NameClassPair> list(String name) throws NamingException {
+        throw readOnly();
+    }
+
+    @Override
+    public NamingEnumeration<javax.naming.Binding> listBindings(Name name) throws NamingException {
+        throw readOnly();
+    }
+
+    @Override
+    public NamingEnumeration<javax.naming.Binding> listBindings(String name) throws NamingException {
+        throw readOnly();
+    }
+
+    @Override
+    public void destroySubcontext(Name name) throws NamingException {
+        throw readOnly();
+    }
+
+    @Override
+    public void destroySubcontext(String name) throws NamingException {
+        throw readOnly();
+    }
+
+    @Override
+    public Context createSubcontext(Name name) throws NamingException {
+        throw readOnly();
+    }
+
+    @Override
+    public Context createSubcontext(String name) throws NamingException {
+        throw readOnly();
+    }
+
+    private static OperationNotSupportedException readOnly() {
+        return new OperationNotSupportedException("The Narayana JTA context is read-only");
+    }
+}
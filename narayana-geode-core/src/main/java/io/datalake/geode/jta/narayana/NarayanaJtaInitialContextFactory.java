@@ -0,0 +1,165 @@
+/*
+ * Copyright (c) 2026. The original author or authors.
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package io.datalake.geode.jta.narayana;
+
+import com.arjuna.ats.jta.common.JTAEnvironmentBean;
+import com.arjuna.ats.jta.common.jtaPropertyManager;
+
+import javax.naming.Context;
+import javax.naming.spi.InitialContextFactory;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Hashtable;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Lightweight, in-process {@link InitialContextFactory} serving only the Narayana JTA bindings: the TransactionManager,
+ * UserTransaction and TransactionSynchronizationRegistry, under the JTAEnvironmentBean JNDI names (e.g.
+ * java:/TransactionManager). It replaces the standalone JNP naming server for applications that need JNDI only to let
+ * Geode find the Narayana transaction manager.
+ * <p>
+ * The bindings are resolved once and kept in an immutable map, so the lookups need no synchronization and no remote
+ * calls. The context is read-only: bind, rebind, unbind and the sub-context operations are not supported.
+ * <p>
+ * Call {@link #install()} before the Geode cache is created. It sets the java.naming.factory.initial and
+ * java.naming.factory.url.pkgs system properties. The system properties take precedence over the jndi.properties
+ * shipped with this library, so the JNP server classes are not needed.
+ * <p>
+ * The Narayana transaction manager is initialized on the first lookup, typically during the Geode cache creation.
+ * Use {@link #initializeInBackground()} to initialize it in parallel with the rest of the application startup instead.
+ */
+public class NarayanaJtaInitialContextFactory implements InitialContextFactory {
+
+    // JNDI resolves the "java:" URL names with the <prefix>.java.javaURLContextFactory class.
+    private static final String URL_PKG_PREFIX = "io.datalake.geode.jta.narayana";
+
+    private static boolean installed;
+    private static String previousInitialContextFactory;
+    private static boolean urlPkgPrefixAdded;
+
+    @Override
+    public Context getInitialContext(Hashtable<?, ?> environment) {
+        return NarayanaJtaContext.INSTANCE;
+    }
+
+    /**
+     * Makes this factory the JVM default JNDI initial context factory. The package prefix of the "java:" URL context
+     * factory is prepended to the java.naming.factory.url.pkgs prefixes already configured.
+     */
+    public static synchronized void install() {
+        if (installed) {
+            return;
+        }
+        installed = true;
+        previousInitialContextFactory = System.setProperty(Context.INITIAL_CONTEXT_FACTORY,
+                NarayanaJtaInitialContextFactory.class.getName());
+        List<String> urlPkgPrefixes = urlPkgPrefixes();
+        urlPkgPrefixAdded = !urlPkgPrefixes.contains(URL_PKG_PREFIX);
+        if (urlPkgPrefixAdded) {
+            urlPkgPrefixes.add(0, URL_PKG_PREFIX);
+            setUrlPkgPrefixes(urlPkgPrefixes);
+        }
+    }
+
+    /**
+     * Restores the initial context factory replaced by {@link #install()} and removes the package prefix it added,
+     * keeping the other prefixes.
+     */
+    public static synchronized void uninstall() {
+        if (!installed) {
+            return;
+        }
+        installed = false;
+        restore(Context.INITIAL_CONTEXT_FACTORY, previousInitialContextFactory);
+        if (urlPkgPrefixAdded) {
+            List<String> urlPkgPrefixes = urlPkgPrefixes();
+            urlPkgPrefixes.remove(URL_PKG_PREFIX);
+            setUrlPkgPrefixes(urlPkgPrefixes);
+        }
+        previousInitialContextFactory = null;
+        urlPkgPrefixAdded = false;
+    }
+
+    /**
+     * Initializes Narayana and resolves the JTA bindings on a background daemon thread. The bindings are held by a
+     * lazily initialized class: the JNDI lookups made before the initialization completes (e.g. by the Geode cache
+     * creation) wait on the JVM class initialization lock, so the lookup path itself never synchronizes. If the
+     * initialization fails the future completes exceptionally, and every lookup throws a NamingException caused by the
+     * failure.
+     * <p>
+     * Must be called after the Narayana environment beans are configured.
+     *
+     * @return Returns a future completed when the bindings are ready.
+     */
+    public static CompletableFuture<Void> initializeInBackground() {
+        return CompletableFuture.runAsync(NarayanaJtaContext::initialize, task -> {
+            Thread thread = new Thread(task, "narayana-jta-init");
+            thread.setDaemon(true);
+            thread.start();
+        });
+    }
+
+    private static void restore(String property, String previousValue) {
+        if (previousValue == null) {
+            System.clearProperty(property);
+        } else {
+            System.setProperty(property, previousValue);
+        }
+    }
+
+    // The java.naming.factory.url.pkgs value is a colon separated list of package prefixes.
+    private static List<String> urlPkgPrefixes() {
+        String urlPkgPrefixes = System.getProperty(Context.URL_PKG_PREFIXES);
+        List<String> prefixes = new ArrayList<>();
+        if (urlPkgPrefixes != null) {
+            for (String prefix : urlPkgPrefixes.split(":")) {
+                if (!prefix.trim().isEmpty()) {
+                    prefixes.add(prefix.trim());
+                }
+            }
+        }
+        return prefixes;
+    }
+
+    private static void setUrlPkgPrefixes(List<String> prefixes) {
+        if (prefixes.isEmpty()) {
+            System.clearProperty(Context.URL_PKG_PREFIXES);
+        } else {
+            System.setProperty(Context.URL_PKG_PREFIXES, String.join(":", prefixes));
+        }
+    }
+
+    static Map<String, Object> jtaBindings() {
+        JTAEnvironmentBean jtaEnvironment = jtaPropertyManager.getJTAEnvironmentBean();
+        Map<String, Object> bindings = new HashMap<>();
+        bindings.put(jtaEnvironment.getTransactionManagerJNDIContext(),
+                com.arjuna.ats.jta.TransactionManager.transactionManager());
+        bindings.put(jtaEnvironment.getUserTransactionJNDIContext(),
+                com.arjuna.ats.jta.UserTransaction.userTransaction());
+        bindings.put(jtaEnvironment.getTransactionSynchronizationRegistryJNDIContext(),
+                jtaEnvironment.getTransactionSynchronizationRegistry());
+        return Collections.unmodifiableMap(bindings);
+    }
+}
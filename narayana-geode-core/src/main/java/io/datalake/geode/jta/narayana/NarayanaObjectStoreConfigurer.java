@@ -0,0 +1,154 @@
+/*
+ * Copyright (c) 2026. The original author or authors.
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package io.datalake.geode.jta.narayana;
+
+import com.arjuna.ats.arjuna.common.ObjectStoreEnvironmentBean;
+import com.arjuna.ats.internal.arjuna.objectstore.hornetq.HornetqJournalEnvironmentBean;
+import com.arjuna.common.internal.util.propertyservice.BeanPopulator;
+
+/**
+ * Selects the Narayana object store, the transaction log written for every transaction with more than one
+ * participant (e.g. an XA data source and Geode as Last Resource Commit). Must be applied before Narayana is
+ * initialized, e.g. before the first TransactionManager or JNDI lookup.
+ * <ul>
+ * <li>{@link StoreType#FILE} - the Narayana default ShadowNoFileLockStore, a file per transaction.</li>
+ * <li>{@link StoreType#JOURNAL} - the append-only journal (HornetqObjectStoreAdaptor). Requires the
+ * org.apache.activemq:artemis-journal dependency. The fastest durable store.</li>
+ * <li>{@link StoreType#VOLATILE} - in-memory only. The transactions in doubt are lost on a crash, so use it only
+ * where the recovery is not needed (e.g. Geode being the only participant, tests and benchmarks).</li>
+ * </ul>
+ * The journal defaults are tuned for the short LRCO transactions: the writes are synced (durable), the deletes of
+ * the completed transaction records are not. A delete lost on a crash only makes the recovery replay the commit of a
+ * completed transaction, that the resource managers report as unknown (XAER_NOTA) and Narayana then forgets.
+ */
+public class NarayanaObjectStoreConfigurer {
+
+    public enum StoreType {
+        FILE, JOURNAL, VOLATILE
+    }
+
+    static final String JOURNAL_STORE = "com.arjuna.ats.internal.arjuna.objectstore.hornetq.HornetqObjectStoreAdaptor";
+
+    static final String VOLATILE_STORE = "com.arjuna.ats.internal.arjuna.objectstore.VolatileStore";
+
+    private StoreType storeType = StoreType.FILE;
+    private String storeDir;
+    private boolean syncWrites = true;
+    private boolean syncDeletes = false;
+    private boolean asyncIO = false;
+    private int bufferSize = 490 * 1024;
+    private int bufferFlushesPerSecond = 1000;
+    private int fileSize = 10 * 1024 * 1024;
+
+    public void setStoreType(StoreType storeType) {
+        this.storeType = storeType;
+    }
+
+    public StoreType getStoreType() {
+        return storeType;
+    }
+
+    /**
+     * @param storeDir The object store directory. If null the Narayana defaults are kept.
+     */
+    public void setStoreDir(String storeDir) {
+        this.storeDir = storeDir;
+    }
+
+    public void setSyncWrites(boolean syncWrites) {
+        this.syncWrites = syncWrites;
+    }
+
+    public void setSyncDeletes(boolean syncDeletes) {
+        this.syncDeletes = syncDeletes;
+    }
+
+    /**
+     * @param asyncIO Use the Linux libaio, falls back to NIO if the native library is not available.
+     */
+    public void setAsyncIO(boolean asyncIO) {
+        this.asyncIO = asyncIO;
+    }
+
+    /**
+     * @param bufferSize The journal write buffer size in bytes. The concurrent commits are batched in one buffer flush.
+     */
+    public void setBufferSize(int bufferSize) {
+        this.bufferSize = bufferSize;
+    }
+
+    /**
+     * @param bufferFlushesPerSecond Upper bound of the journal buffer flushes (syncs) per second.
+     */
+    public void setBufferFlushesPerSecond(int bufferFlushesPerSecond) {
+        this.bufferFlushesPerSecond = bufferFlushesPerSecond;
+    }
+
+    /**
+     * @param fileSize The journal file size in bytes.
+     */
+    public void setFileSize(int fileSize) {
+        this.fileSize = fileSize;
+    }
+
+    /**
+     * Applies the configuration to the Narayana default, communicationStore and stateStore object store beans.
+     */
+    public void apply() {
+        ObjectStoreEnvironmentBean[] stores = {
+                BeanPopulator.getDefaultInstance(ObjectStoreEnvironmentBean.class),
+                BeanPopulator.getNamedInstance(ObjectStoreEnvironmentBean.class, "communicationStore"),
+                BeanPopulator.getNamedInstance(ObjectStoreEnvironmentBean.class, "stateStore")
+        };
+
+        if (storeDir != null) {
+            for (ObjectStoreEnvironmentBean store : stores) {
+                store.setObjectStoreDir(storeDir);
+            }
+        }
+
+        switch (storeType) {
+            case JOURNAL:
+                // The journal replaces the default (action) store only, the other stores are rarely written.
+                stores[0].setObjectStoreType(JOURNAL_STORE);
+                HornetqJournalEnvironmentBean journal =
+                        BeanPopulator.getDefaultInstance(HornetqJournalEnvironmentBean.class);
+                if (storeDir != null) {
+                    journal.setStoreDir(storeDir + "/journal");
+                }
+                journal.setSyncWrites(syncWrites);
+                journal.setSyncDeletes(syncDeletes);
+                journal.setAsyncIO(asyncIO);
+                journal.setBufferSize(bufferSize);
+                journal.setBufferFlushesPerSecond(bufferFlushesPerSecond);
+                journal.setFileSize(fileSize);
+                break;
+            case VOLATILE:
+                for (ObjectStoreEnvironmentBean store : stores) {
+                    store.setObjectStoreType(VOLATILE_STORE);
+                }
+                break;
+            default:
+                break;
+        }
+    }
+}
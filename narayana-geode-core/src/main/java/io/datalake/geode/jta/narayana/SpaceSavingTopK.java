@@ -0,0 +1,124 @@
+/*
+ * Copyright (c) 2026. The original author or authors.
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package io.datalake.geode.jta.narayana;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Bounded "Space-Saving" (Metwally et al.) sketch of the most frequent items in a stream. It monitors at most capacity
+ * items. When a new item arrives and the sketch is full, the item with the smallest count is evicted, and the new item
+ * inherits its count + 1. The reported count over-estimates the true frequency by at most the reported error.
+ * Every item more frequent than N/capacity (N - the stream length) is guaranteed to be monitored.
+ * <p>
+ * The eviction scans the monitored items, which is fine for the low-rate streams (conflicts, slow commits) it is used
+ * for. All methods are synchronized.
+ */
+public class SpaceSavingTopK {
+
+    private final int capacity;
+    private final Map<String, Entry> entries;
+
+    public SpaceSavingTopK(int capacity) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("The capacity must be at least 1, but was: " + capacity);
+        }
+        this.capacity = capacity;
+        this.entries = new HashMap<>(capacity * 2);
+    }
+
+    public synchronized void offer(String item) {
+        Entry entry = entries.get(item);
+        if (entry != null) {
+            entry.count++;
+            return;
+        }
+        if (entries.size() < capacity) {
+            entries.put(item, new Entry(item, 1, 0));
+            return;
+        }
+        Entry min = null;
+        for (Entry candidate : entries.values()) {
+            if (min == null || candidate.count < min.count) {
+                min = candidate;
+            }
+        }
+        entries.remove(min.item);
+        entries.put(item, new Entry(item, min.count + 1, min.count));
+    }
+
+    /**
+     * @param k Maximum number of items to return.
+     * @return Returns up to k monitored items, by descending count.
+     */
+    public synchronized List<Entry> top(int k) {
+        List<Entry> snapshot = new ArrayList<>(entries.size());
+        for (Entry entry : entries.values()) {
+            snapshot.add(new Entry(entry.item, entry.count, entry.error));
+        }
+        snapshot.sort((e1, e2) -> Long.compare(e2.count, e1.count));
+        return (snapshot.size() > k) ? new ArrayList<>(snapshot.subList(0, k)) : snapshot;
+    }
+
+    public synchronized void clear() {
+        entries.clear();
+    }
+
+    public int getCapacity() {
+        return capacity;
+    }
+
+    /**
+     * Monitored item with its estimated count. The true count is between count - error and count.
+     */
+    public static final class Entry {
+
+        private final String item;
+        private long count;
+        private final long error;
+
+        Entry(String item, long count, long error) {
+            this.item = item;
+            this.count = count;
+            this.error = error;
+        }
+
+        public String getItem() {
+            return item;
+        }
+
+        public long getCount() {
+            return count;
+        }
+
+        public long getError() {
+            return error;
+        }
+
+        @Override
+        public String toString() {
+            return item + "=" + count + ((error > 0) ? " (+/-" + error + ")" : "");
+        }
+    }
+}
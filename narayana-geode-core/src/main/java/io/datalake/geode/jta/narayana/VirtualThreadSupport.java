@@ -0,0 +1,90 @@
+/*
+ * Copyright (c) 2026. The original author or authors.
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package io.datalake.geode.jta.narayana;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Reflective access to the Java 21 virtual threads, so the library still runs on Java 8.
+ * <p>
+ * Both the Narayana thread-to-transaction association and the Geode TXState are kept in thread locals. A virtual
+ * thread has its own thread locals, independent of the carrier thread it is mounted on, so the begin, the Geode
+ * operations and the commit stay bound to one transaction even if the virtual thread migrates between carriers.
+ * The enlist and commit path avoids monitors, that would pin the carrier while the Geode commit is in progress.
+ */
+public final class VirtualThreadSupport {
+
+    private static final Method IS_VIRTUAL = findMethod(Thread.class, "isVirtual");
+
+    private static final Method NEW_VIRTUAL_THREAD_PER_TASK_EXECUTOR =
+            findMethod(Executors.class, "newVirtualThreadPerTaskExecutor");
+
+    private VirtualThreadSupport() {
+    }
+
+    /**
+     * @return Returns true if the running JVM supports virtual threads.
+     */
+    public static boolean isAvailable() {
+        return IS_VIRTUAL != null && NEW_VIRTUAL_THREAD_PER_TASK_EXECUTOR != null;
+    }
+
+    /**
+     * @param thread The thread to check.
+     * @return Returns true if the thread is a virtual thread. Always false on JVMs without virtual threads.
+     */
+    public static boolean isVirtual(Thread thread) {
+        if (IS_VIRTUAL == null) {
+            return false;
+        }
+        try {
+            return (Boolean) IS_VIRTUAL.invoke(thread);
+        } catch (ReflectiveOperationException e) {
+            return false;
+        }
+    }
+
+    /**
+     * @return Returns an executor that starts a new virtual thread for each task.
+     * @throws UnsupportedOperationException if the running JVM does not support virtual threads.
+     */
+    public static ExecutorService newVirtualThreadPerTaskExecutor() {
+        if (!isAvailable()) {
+            throw new UnsupportedOperationException("Virtual threads require Java 21 or newer");
+        }
+        try {
+            return (ExecutorService) NEW_VIRTUAL_THREAD_PER_TASK_EXECUTOR.invoke(null);
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException("Failed to create the virtual thread executor", e);
+        }
+    }
+
+    private static Method findMethod(Class<?> type, String name) {
+        try {
+            return type.getMethod(name);
+        } catch (NoSuchMethodException e) {
+            return null;
+        }
+    }
+}
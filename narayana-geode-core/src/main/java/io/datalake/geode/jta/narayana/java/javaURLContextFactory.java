@@ -0,0 +1,56 @@
+/*
+ * Copyright (c) 2026. The original author or authors.
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package io.datalake.geode.jta.narayana.java;
+
+import io.datalake.geode.jta.narayana.NarayanaJtaInitialContextFactory;
+
+import javax.naming.Context;
+import javax.naming.Name;
+import javax.naming.spi.ObjectFactory;
+import java.util.Hashtable;
+
+/**
+ * Resolves the "java:" URL names (e.g. java:/TransactionManager) against the in-process Narayana JTA context. The
+ * package and class names are mandated by the JNDI URL context factory lookup convention
+ * (&lt;url-pkg-prefix&gt;.&lt;scheme&gt;.&lt;scheme&gt;URLContextFactory).
+ */
+public class javaURLContextFactory implements ObjectFactory {
+
+    private final NarayanaJtaInitialContextFactory initialContextFactory = new NarayanaJtaInitialContextFactory();
+
+    @Override
+    public Object getObjectInstance(Object obj, Name name, Context nameCtx, Hashtable<?, ?> environment)
+            throws Exception {
+        Context context = initialContextFactory.getInitialContext(environment);
+        if (obj == null) {
+            return context;
+        }
+        if (obj instanceof String) {
+            return context.lookup((String) obj);
+        }
+        if (obj instanceof String[]) {
+            // Any of the urls resolves to the same object.
+            return context.lookup(((String[]) obj)[0]);
+        }
+        return null;
+    }
+}
@@ -0,0 +1,176 @@
+/*
+ * Copyright (c) 2026. The original author or authors.
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package io.datalake.geode.jta.narayana;
+
+import com.arjuna.ats.internal.jta.transaction.arjunacore.TransactionImple;
+import org.apache.geode.cache.Region;
+import org.apache.geode.cache.client.ClientCache;
+import org.apache.geode.cache.client.ClientCacheFactory;
+import org.apache.geode.cache.client.ClientRegionShortcut;
+import org.apache.geode.distributed.ServerLauncher;
+import org.junit.After;
+import org.junit.AfterClass;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import javax.transaction.TransactionManager;
+import java.io.File;
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.util.concurrent.TimeUnit;
+
+import static org.hamcrest.CoreMatchers.instanceOf;
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertThat;
+
+/**
+ * Runs the client LRCO against a {@link ServerLauncher} server. Unlike the {@link TestCase}, the server runs in a
+ * forked JVM: Geode does not allow a client cache in a JVM hosting a peer/server cache.
+ */
+public class ClientTestCase {
+
+    private static int serverPort;
+    private static Process server;
+    private static ClientCache clientCache;
+
+    private Region<String, Object> region;
+    private TransactionManager transactionManager;
+
+    @BeforeClass
+    public static void beforeClass() throws Exception {
+        File workingDirectory = new File("target/client-server");
+        workingDirectory.mkdirs();
+        serverPort = freePort();
+
+        server = new ProcessBuilder(
+                new File(System.getProperty("java.home"), "bin/java").getAbsolutePath(),
+                "-cp", System.getProperty("java.class.path"),
+                "-Dgemfire.log-level=error",
+                "-Dgemfire.jmx-manager=false",
+                "-Dgemfire.ignoreJTA=true",
+                "-Dgemfire.cache-xml-file=" + new File("src/test/resources/server-cache.xml").getAbsolutePath(),
+                ServerLauncher.class.getName(), "start", "server1",
+                "--server-port=" + serverPort,
+                "--dir=" + workingDirectory.getAbsolutePath())
+                .inheritIO()
+                .start();
+
+        awaitServer();
+
+        // No JNP server: the Narayana TM is looked up from the in-process JNDI context.
+        NarayanaJtaInitialContextFactory.install();
+        NarayanaGeodeSupport.setClientCache(true);
+
+        clientCache = new ClientCacheFactory()
+                .set("log-level", "error")
+                .addPoolServer("localhost", serverPort)
+                .create();
+    }
+
+    @AfterClass
+    public static void afterClass() throws Exception {
+        NarayanaGeodeSupport.setClientCache(false);
+        if (clientCache != null) {
+            clientCache.close();
+        }
+        NarayanaJtaInitialContextFactory.uninstall();
+        server.destroy();
+        server.waitFor(30, TimeUnit.SECONDS);
+    }
+
+    @Before
+    public void before() throws Exception {
+        region = clientCache.getRegion("testRegion");
+        if (region == null) {
+            region = clientCache.<String, Object>createClientRegionFactory(ClientRegionShortcut.PROXY)
+                    .create("testRegion");
+        }
+        transactionManager = com.arjuna.ats.jta.TransactionManager.transactionManager();
+        transactionManager.begin();
+    }
+
+    @After
+    public void after() throws Exception {
+        if (transactionManager.getTransaction() != null) {
+            transactionManager.rollback();
+        }
+    }
+
+    @Test
+    public void clientLastResourceCommitOptimization() throws Exception {
+        TransactionImple tx = (TransactionImple) transactionManager.getTransaction();
+
+        NarayanaGeodeSupport.enlistGeodeAsLastCommitResource();
+
+        assertThat("NarayanaGeodeClientLastCommitResource should be enlisted as LRCO!",
+                tx.getResources().size(), is(1));
+        assertThat(tx.getResources().keySet().iterator().next(),
+                instanceOf(NarayanaGeodeClientLastCommitResource.class));
+        assertThat(TestCase.getCacheTransactionManagerCurrentTXState().isJCATransaction(), is(true));
+
+        region.put("666", 666);
+
+        assertThat("In client LRCO mode, Geode should NOT register a TXStateProxy as JTA Synchronization!",
+                TestCase.extractTheAtomicAction(tx).getSynchronizations().size(), is(0));
+
+        transactionManager.commit();
+
+        assertNull(TestCase.getCacheTransactionManagerCurrentTXState());
+        assertThat("The value must be committed on the server", region.get("666"), is((Object) 666));
+    }
+
+    @Test
+    public void clientLastResourceRollback() throws Exception {
+        NarayanaGeodeSupport.enlistGeodeAsLastCommitResource();
+
+        region.put("777", 777);
+
+        transactionManager.rollback();
+
+        assertNull(TestCase.getCacheTransactionManagerCurrentTXState());
+        assertNull("The value must not reach the server", region.get("777"));
+    }
+
+    // A port free at the time of the call, so parallel builds or a local Geode server do not collide with the test.
+    private static int freePort() throws IOException {
+        try (ServerSocket socket = new ServerSocket(0)) {
+            return socket.getLocalPort();
+        }
+    }
+
+    private static void awaitServer() throws Exception {
+        long deadline = System.currentTimeMillis() + TimeUnit.SECONDS.toMillis(60);
+        while (true) {
+            try (Socket ignored = new Socket("localhost", serverPort)) {
+                return;
+            } catch (IOException e) {
+                if (!server.isAlive() || System.currentTimeMillis() > deadline) {
+                    throw new IllegalStateException("The Geode server did not start", e);
+                }
+                Thread.sleep(200);
+            }
+        }
+    }
+}
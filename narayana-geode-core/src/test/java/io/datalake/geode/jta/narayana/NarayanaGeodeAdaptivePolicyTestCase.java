@@ -0,0 +1,115 @@
+/*
+ * Copyright (c) 2026. The original author or authors.
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package io.datalake.geode.jta.narayana;
+
+import io.datalake.geode.jta.narayana.NarayanaGeodeAdaptivePolicy.Mode;
+import org.apache.geode.cache.SynchronizationCommitConflictException;
+import org.junit.Before;
+import org.junit.Test;
+
+import javax.transaction.RollbackException;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Exercises the {@link NarayanaGeodeAdaptivePolicy} decisions alone, without a cache or a transaction manager.
+ */
+public class NarayanaGeodeAdaptivePolicyTestCase {
+
+    private NarayanaGeodeAdaptivePolicy policy;
+
+    @Before
+    public void before() {
+        policy = new NarayanaGeodeAdaptivePolicy();
+        policy.setProbeInterval(0);
+    }
+
+    @Test
+    public void onlyPinnedTypesRunGeodeLocal() {
+        for (int i = 0; i < 1000; i++) {
+            assertThat("Only pinned types run Geode local", policy.select("geodeOnly"),
+                    is(Mode.LAST_RESOURCE_COMMIT));
+            policy.record("geodeOnly", Mode.LAST_RESOURCE_COMMIT, 1000, false);
+        }
+        policy.pin("geodeOnly", Mode.GEODE_LOCAL);
+        assertThat(policy.select("geodeOnly"), is(Mode.GEODE_LOCAL));
+        policy.pin("geodeOnly", null);
+        assertThat(policy.select("geodeOnly"), is(Mode.LAST_RESOURCE_COMMIT));
+    }
+
+    @Test
+    public void conflictingTypesSwitchToSynchronization() {
+        policy.record("mixed", Mode.LAST_RESOURCE_COMMIT, 1000, false);
+        for (int i = 0; i < 10; i++) {
+            policy.record("mixed", Mode.LAST_RESOURCE_COMMIT, 1000, true);
+        }
+        assertThat("Conflicting types validate Geode first", policy.select("mixed"),
+                is(Mode.SYNCHRONIZATION));
+
+        for (int i = 0; i < 100; i++) {
+            policy.record("mixed", Mode.SYNCHRONIZATION, 1000, false);
+        }
+        assertThat(policy.select("mixed"), is(Mode.LAST_RESOURCE_COMMIT));
+
+        policy.pin("mixed", Mode.SYNCHRONIZATION);
+        assertThat(policy.getModes().get("mixed"), is(Mode.SYNCHRONIZATION));
+    }
+
+    @Test
+    public void synchronizationConflictsKeepTheType() {
+        for (int i = 0; i < 10; i++) {
+            policy.record("hot", Mode.LAST_RESOURCE_COMMIT, 1000, true);
+        }
+        assertThat(policy.select("hot"), is(Mode.SYNCHRONIZATION));
+
+        // Geode registered as Synchronization fails the beforeCompletion, Narayana reports a rollback.
+        RollbackException rollback = new RollbackException("beforeCompletion failed");
+        rollback.initCause(new SynchronizationCommitConflictException("conflict"));
+        assertTrue(NarayanaGeodeRetryTemplate.isCommitConflict(rollback));
+
+        for (int i = 0; i < 100; i++) {
+            policy.record("hot", Mode.SYNCHRONIZATION, -1, NarayanaGeodeRetryTemplate.isCommitConflict(rollback));
+            policy.record("hot", Mode.SYNCHRONIZATION, 1000, false);
+        }
+        assertThat("The conflicts seen in the Synchronization mode count too", policy.select("hot"),
+                is(Mode.SYNCHRONIZATION));
+    }
+
+    @Test
+    public void failedCommitsAreNoLatencySamples() {
+        for (int i = 0; i < 10; i++) {
+            policy.record("timed", Mode.LAST_RESOURCE_COMMIT, 10000, false);
+        }
+        // E.g. a Synchronization mode commit failing early, before the first successful one.
+        policy.record("timed", Mode.SYNCHRONIZATION, -1, false);
+        policy.record("timed", Mode.SYNCHRONIZATION, 20000, false);
+        assertThat("A failed commit must not lower the latency", policy.select("timed"),
+                is(Mode.LAST_RESOURCE_COMMIT));
+
+        for (int i = 0; i < 100; i++) {
+            policy.record("timed", Mode.SYNCHRONIZATION, 1000, false);
+        }
+        assertThat(policy.select("timed"), is(Mode.SYNCHRONIZATION));
+    }
+}
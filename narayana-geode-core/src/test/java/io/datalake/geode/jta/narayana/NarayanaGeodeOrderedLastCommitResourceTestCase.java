@@ -0,0 +1,210 @@
+/*
+ * Copyright (c) 2026. The original author or authors.
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package io.datalake.geode.jta.narayana;
+
+import org.apache.geode.cache.GemFireCache;
+import org.junit.Test;
+
+import javax.transaction.xa.XAException;
+import javax.transaction.xa.XAResource;
+import javax.transaction.xa.Xid;
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.sameInstance;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.fail;
+
+/**
+ * Drives the {@link NarayanaGeodeOrderedLastCommitResource} over stubbed per-cache participants. Geode allows a single
+ * cache per JVM, so the multi-cache commit order and failure handling can not be exercised against real caches.
+ */
+public class NarayanaGeodeOrderedLastCommitResourceTestCase {
+
+    private static final Xid XID = new Xid() {
+        @Override
+        public int getFormatId() {
+            return 1;
+        }
+
+        @Override
+        public byte[] getGlobalTransactionId() {
+            return new byte[]{1};
+        }
+
+        @Override
+        public byte[] getBranchQualifier() {
+            return new byte[]{1};
+        }
+    };
+
+    private final List<String> calls = Collections.synchronizedList(new ArrayList<>());
+    private final Set<String> failingCommits = new HashSet<>();
+
+    private final List<StubResource> created = new ArrayList<>();
+
+    private final NarayanaGeodeOrderedLastCommitResource resource =
+            new NarayanaGeodeOrderedLastCommitResource(cache -> {
+                StubResource stub = new StubResource(cache);
+                created.add(stub);
+                return stub;
+            });
+
+    @Test
+    public void commitsInCacheNameOrder() throws Exception {
+        GemFireCache b = cache("b");
+        GemFireCache a1 = cache("a");
+        GemFireCache c = cache("c");
+        GemFireCache a2 = cache("a");
+        resource.add(b);
+        resource.add(a1);
+        resource.start(XID, XAResource.TMNOFLAGS);
+        resource.add(c);
+        resource.add(a2);
+
+        assertThat("The cache already taking part is not added again", resource.add(b), is(false));
+        assertThat("Equal names keep the registration order", resource.getCaches(), is(Arrays.asList(a1, a2, b, c)));
+
+        resource.commit(XID, true);
+
+        assertThat(calls, is(Arrays.asList(
+                "start a", "start b", "start c", "start a",
+                "commit a", "commit a", "commit b", "commit c")));
+    }
+
+    @Test
+    public void firstCommitFailureRollsBackAll() throws Exception {
+        addAndStart("a", "b", "c");
+        failingCommits.add("a");
+
+        try {
+            resource.commit(XID, true);
+            fail("Expected the commit to fail");
+        } catch (XAException e) {
+            assertThat("The original error is reported", e.errorCode, is(XAException.XA_RBROLLBACK));
+        }
+
+        assertThat(calls, is(Arrays.asList("commit a", "rollback b", "rollback c")));
+    }
+
+    @Test
+    public void laterCommitFailureIsHeuristicMixed() throws Exception {
+        addAndStart("a", "b", "c");
+        failingCommits.add("b");
+
+        try {
+            resource.commit(XID, true);
+            fail("Expected the commit to fail");
+        } catch (XAException e) {
+            assertThat("Cache a is committed and can not be undone", e.errorCode, is(XAException.XA_HEURMIX));
+            assertThat(((XAException) e.getCause()).errorCode, is(XAException.XA_RBROLLBACK));
+        }
+
+        assertThat(calls, is(Arrays.asList("commit a", "commit b", "rollback c")));
+    }
+
+    @Test
+    public void transactionTimeoutReachesAllCaches() throws Exception {
+        GemFireCache a = cache("a");
+        GemFireCache b = cache("b");
+        resource.add(a);
+        resource.setTransactionTimeout(30);
+        resource.add(b);
+
+        assertThat(resource.getTransactionTimeout(), is(30));
+        assertThat(created.get(0).getTargetCache(), sameInstance(a));
+        assertThat(created.get(0).timeout, is(30));
+        assertThat("The cache added later gets the timeout too", created.get(1).timeout, is(30));
+    }
+
+    private void addAndStart(String... names) throws XAException {
+        for (String name : names) {
+            resource.add(cache(name));
+        }
+        resource.start(XID, XAResource.TMNOFLAGS);
+        calls.clear();
+    }
+
+    private static GemFireCache cache(String name) {
+        return (GemFireCache) Proxy.newProxyInstance(GemFireCache.class.getClassLoader(),
+                new Class<?>[]{GemFireCache.class}, (proxy, method, args) -> {
+                    switch (method.getName()) {
+                        case "getName":
+                            return name;
+                        case "equals":
+                            return proxy == args[0];
+                        case "hashCode":
+                            return System.identityHashCode(proxy);
+                        case "toString":
+                            return name;
+                        default:
+                            throw new UnsupportedOperationException(method.getName());
+                    }
+                });
+    }
+
+    /**
+     * Per-cache participant recording the calls, instead of driving a Geode transaction.
+     */
+    private class StubResource extends NarayanaGeodeLastCommitResource {
+
+        private volatile int timeout;
+
+        StubResource(GemFireCache cache) {
+            super(cache);
+        }
+
+        private String name() {
+            return getTargetCache().getName();
+        }
+
+        @Override
+        public void start(Xid xid, int flags) {
+            calls.add("start " + name());
+        }
+
+        @Override
+        public void commit(Xid xid, boolean onePhase) throws XAException {
+            calls.add("commit " + name());
+            if (failingCommits.contains(name())) {
+                throw new XAException(XAException.XA_RBROLLBACK);
+            }
+        }
+
+        @Override
+        public void rollback(Xid xid) {
+            calls.add("rollback " + name());
+        }
+
+        @Override
+        public boolean setTransactionTimeout(int timeout) {
+            this.timeout = timeout;
+            return true;
+        }
+    }
+}
@@ -0,0 +1,541 @@
+/*
+ * Copyright (c) 2026. The original author or authors.
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package io.datalake.geode.jta.narayana;
+
+import com.arjuna.ats.arjuna.common.Uid;
+import com.arjuna.ats.jta.resources.LastResourceCommitOptimisation;
+import com.arjuna.ats.jta.utils.JNDIManager;
+import com.arjuna.ats.jta.xa.XidImple;
+import io.opentelemetry.api.trace.Span;
+import io.opentelemetry.context.Scope;
+import io.opentelemetry.sdk.OpenTelemetrySdk;
+import io.opentelemetry.sdk.testing.exporter.InMemorySpanExporter;
+import io.opentelemetry.sdk.trace.SdkTracerProvider;
+import io.opentelemetry.sdk.trace.data.SpanData;
+import io.opentelemetry.sdk.trace.export.SimpleSpanProcessor;
+import org.apache.geode.cache.Cache;
+import org.apache.geode.cache.CacheFactory;
+import org.apache.geode.cache.CacheTransactionManager;
+import org.apache.geode.cache.Region;
+import org.apache.geode.internal.cache.TXManagerImpl;
+import org.apache.geode.internal.cache.TXStateProxy;
+import org.jnp.server.SingletonNamingServer;
+import org.junit.After;
+import org.junit.AfterClass;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import javax.transaction.RollbackException;
+import javax.transaction.Status;
+import javax.transaction.TransactionManager;
+import javax.transaction.xa.XAException;
+import javax.transaction.xa.XAResource;
+import javax.transaction.xa.Xid;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.apache.geode.cache.DataPolicy.PARTITION;
+import static org.hamcrest.CoreMatchers.containsString;
+import static org.hamcrest.CoreMatchers.instanceOf;
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * Tests that begin and complete their own transactions. Unlike the {@link TestCase}, the fixture does not begin a
+ * transaction for every test.
+ */
+public class StandaloneTransactionTestCase {
+
+    private static SingletonNamingServer jndiServer;
+    private Cache cache;
+    private Region<String, Object> region;
+    private TransactionManager transactionManager;
+
+    @BeforeClass
+    public static void beforeClass() throws Exception {
+        jndiServer = new SingletonNamingServer();
+        // Bind JTA implementation with default names
+        JNDIManager.bindJTAImplementation();
+    }
+
+    @Before
+    public void before() {
+        cache = new CacheFactory()
+                .set("mcast-port", "0")
+                .set("locators", "")
+                .set("log-level", "error")
+                .create();
+
+        region = cache.<String, Object>createRegionFactory()
+                .setDataPolicy(PARTITION)
+                .create("testRegion");
+
+        transactionManager = com.arjuna.ats.jta.TransactionManager.transactionManager();
+    }
+
+    @After
+    public void after() throws Exception {
+        // Do not leak the transaction of a failed test into the next one.
+        if (transactionManager.getTransaction() != null) {
+            transactionManager.rollback();
+        }
+        transactionManager.setTransactionTimeout(0);
+        cache.close();
+    }
+
+    @AfterClass
+    public static void afterClass() {
+        jndiServer.destroy();
+    }
+
+    @Test
+    public void enlistCacheWithoutTransaction() {
+        try {
+            NarayanaGeodeSupport.enlistGeodeAsLastCommitResource(cache);
+            fail("There is no transaction to enlist the cache in");
+        } catch (NarayanaGeodeException e) {
+            // expected
+        }
+        assertTrue("The context is kept per cache", GeodeCacheContext.of(cache) == GeodeCacheContext.of(cache));
+    }
+
+    @Test
+    public void retryOnCommitConflict() throws Exception {
+        region.put("conflict", 0);
+        AtomicInteger attempts = new AtomicInteger();
+
+        Integer result = new NarayanaGeodeRetryTemplate(3, 1, 10).execute(() -> {
+            region.put("conflict", 1);
+            if (attempts.incrementAndGet() == 1) {
+                commitConcurrently("conflict", 2);
+            }
+            return (Integer) region.get("conflict");
+        });
+
+        assertThat("The conflicting transaction must be re-run once", attempts.get(), is(2));
+        assertThat(result, is(1));
+        assertThat(region.get("conflict"), is(1));
+        assertTrue(NarayanaGeodeRetryTemplate.isCommitConflict(
+                new RuntimeException(new XAException(XAException.XA_RBTRANSIENT))));
+    }
+
+    @Test
+    public void asyncLastResourceCommit() throws Exception {
+        ThreadPoolExecutor executor = NarayanaGeodeAsyncTemplate.newBoundedExecutor(2, 16);
+        try {
+            NarayanaGeodeAsyncTemplate asyncTemplate = new NarayanaGeodeAsyncTemplate(executor);
+
+            Integer result = asyncTemplate.execute(tx -> tx.call(() -> {
+                region.put("async", 1);
+                return 1;
+            }).thenApplyAsync(value -> value + 1) // Hops to a thread outside of the transaction.
+                    .thenCompose(value -> tx.call(() -> {
+                        assertThat("The Geode transaction must be resumed", region.get("async"), is(1));
+                        region.put("async", value);
+                        return value;
+                    }))).get(30, TimeUnit.SECONDS);
+
+            assertThat(result, is(2));
+            assertThat(region.get("async"), is(2));
+
+            try {
+                asyncTemplate.execute(tx -> tx.call(() -> {
+                    region.put("async", 3);
+                    throw new IllegalStateException("failed step");
+                })).get(30, TimeUnit.SECONDS);
+                fail("The step failure was not reported");
+            } catch (ExecutionException e) {
+                assertThat(e.getCause(), instanceOf(IllegalStateException.class));
+            }
+            assertThat("The failed transaction must be rolled back", region.get("async"), is(2));
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    public void groupCommit() throws Exception {
+        NarayanaGeodeGroupCommitCoordinator coordinator =
+                new NarayanaGeodeGroupCommitCoordinator(8, 200, TimeUnit.MILLISECONDS, 16).start();
+        try {
+            CompletableFuture<Object> first = coordinator.submit(() -> region.put("group1", 1));
+            CompletableFuture<Object> failed = coordinator.submit(() -> {
+                region.put("group2", 2);
+                throw new IllegalStateException("failed unit");
+            });
+            CompletableFuture<Object> last = coordinator.submit(() -> region.put("group3", 3));
+
+            first.get(30, TimeUnit.SECONDS);
+            last.get(30, TimeUnit.SECONDS);
+            assertTrue("The failed unit must keep its own outcome", failed.isCompletedExceptionally());
+            assertThat(region.get("group1"), is(1));
+            assertNull(region.get("group2"));
+            assertThat(region.get("group3"), is(3));
+            assertThat(coordinator.getFallbackCount(), is(1L));
+
+            assertThat(coordinator.execute(() -> region.put("group1", 4)), is(1));
+        } finally {
+            coordinator.close();
+        }
+    }
+
+    @Test
+    public void groupCommitRejectsUnitsAfterClose() throws Exception {
+        NarayanaGeodeGroupCommitCoordinator coordinator =
+                new NarayanaGeodeGroupCommitCoordinator(8, 200, TimeUnit.MILLISECONDS, 16).start();
+        CompletableFuture<Object> pending = coordinator.submit(() -> region.put("group4", 4));
+        coordinator.close();
+
+        assertTrue("The units submitted before the close are completed", pending.isDone());
+        assertThat(region.get("group4"), is(4));
+        try {
+            coordinator.submit(() -> region.put("group5", 5)).get();
+            fail("Expected the unit to be rejected");
+        } catch (ExecutionException e) {
+            assertThat(e.getCause(), instanceOf(RejectedExecutionException.class));
+        }
+        assertNull(region.get("group5"));
+        try {
+            coordinator.start();
+            fail("Expected the closed coordinator not to start again");
+        } catch (IllegalStateException e) {
+            // expected
+        }
+    }
+
+    @Test
+    public void chunkedBatchLoad() throws Exception {
+        Path checkpointFile = Paths.get("target", "batch.checkpoint");
+        Files.deleteIfExists(checkpointFile);
+
+        Map<String, Object> entries = new LinkedHashMap<>();
+        for (int i = 0; i < 25; i++) {
+            entries.put("batch" + i, i);
+        }
+        NarayanaGeodeBatchLoader<String, Object> loader = new NarayanaGeodeBatchLoader<>(region, 10, 2)
+                .withCheckpoint(NarayanaGeodeBatchLoader.fileCheckpoint(checkpointFile));
+
+        assertThat(loader.putAll(entries.entrySet().iterator()), is(25L));
+        assertThat(region.get("batch24"), is(24));
+        assertThat(NarayanaGeodeBatchLoader.fileCheckpoint(checkpointFile).load(), is(25L));
+
+        assertThat("The resumed load must skip the committed entries",
+                loader.putAll(entries.entrySet().iterator()), is(0L));
+
+        Files.delete(checkpointFile);
+        assertThat(loader.removeAll(entries.keySet().iterator()), is(25L));
+        assertNull(region.get("batch0"));
+    }
+
+    @Test
+    public void transactionTimeoutRollsBackGeode() throws Exception {
+        transactionManager.setTransactionTimeout(1);
+        transactionManager.begin();
+        NarayanaGeodeSupport.enlistGeodeAsLastCommitResource();
+        region.put("timeout", 1);
+        TXStateProxy txState = TXManagerImpl.getCurrentTXState();
+        // Both the Narayana reaper and the Geode expiry run in the background, wait for them rather than a fixed time.
+        long deadline = System.currentTimeMillis() + TimeUnit.SECONDS.toMillis(30);
+        while (txState.isInProgress() || transactionManager.getStatus() == Status.STATUS_ACTIVE) {
+            if (System.currentTimeMillis() > deadline) {
+                fail("The Geode transaction must be rolled back before the commit");
+            }
+            Thread.sleep(50);
+        }
+        try {
+            transactionManager.commit();
+            fail("The timed out transaction must not commit");
+        } catch (RollbackException e) {
+            // expected
+        }
+        assertNull(region.get("timeout"));
+
+        // The expired Geode transaction must not stay associated with the thread.
+        transactionManager.setTransactionTimeout(0);
+        new NarayanaGeodeRetryTemplate().execute(() -> region.put("timeout", 2));
+        assertThat(region.get("timeout"), is(2));
+    }
+
+    @Test
+    public void twoPhaseGeodeWithAnotherLastResource() throws Exception {
+        region.put("twoPhase", 0);
+
+        RecordingLastResource lastResource = new RecordingLastResource();
+        transactionManager.begin();
+        transactionManager.getTransaction().enlistResource(lastResource);
+        NarayanaGeodeSupport.enlistGeodeAsXAResource();
+        region.put("twoPhase", 1);
+        transactionManager.commit();
+
+        assertTrue("The last resource must be committed", lastResource.committed);
+        assertThat(region.get("twoPhase"), is(1));
+        assertNull("Geode must be detached from the thread", TXManagerImpl.getCurrentTXState());
+
+        // A write-write conflict is detected by the prepare, before the last resource commit.
+        lastResource = new RecordingLastResource();
+        transactionManager.begin();
+        transactionManager.getTransaction().enlistResource(lastResource);
+        NarayanaGeodeSupport.enlistGeodeAsXAResource();
+        region.put("twoPhase", 2);
+        commitConcurrently("twoPhase", 3);
+        try {
+            transactionManager.commit();
+            fail("The conflicting transaction must be rolled back");
+        } catch (RollbackException e) {
+            // expected
+        }
+        assertThat("The last resource must not be committed", lastResource.committed, is(false));
+        assertThat(region.get("twoPhase"), is(3));
+    }
+
+    @Test
+    public void recoverGeodeCommitIntent() throws Exception {
+        Path logDirectory = Files.createTempDirectory(Paths.get("target"), "intent-log");
+        GeodeCommitIntentLog log = GeodeCommitIntentLog.open(logDirectory);
+        NarayanaGeodeSupport.setRecoveryLog(log);
+        try {
+            transactionManager.begin();
+            NarayanaGeodeSupport.enlistGeodeAsLastCommitResource();
+            region.put("intent", 1);
+            transactionManager.commit();
+
+            // Crash after the Geode commit, before Narayana has logged the commit decision.
+            log.logIntent(new XidImple(new Uid())).geodeCommitted();
+            log.close();
+
+            GeodeCommitIntentLog reopened = GeodeCommitIntentLog.open(logDirectory);
+            assertThat("Only the interrupted commit must be in doubt", reopened.getInDoubtIntents().size(), is(1));
+
+            NarayanaGeodeRecoveryHelper helper = new NarayanaGeodeRecoveryHelper(reopened);
+            XAResource resource = helper.getXAResources()[0];
+            Xid[] xids = resource.recover(XAResource.TMSTARTRSCAN | XAResource.TMENDRSCAN);
+            assertThat(xids.length, is(1));
+            try {
+                resource.rollback(xids[0]);
+                fail("The Geode commit of a rolled back transaction must be reported");
+            } catch (XAException e) {
+                assertThat(e.errorCode, is(XAException.XA_HEURCOM));
+            }
+            assertThat(helper.getMismatches().size(), is(1));
+            assertTrue(reopened.getInDoubtIntents().isEmpty());
+            reopened.close();
+        } finally {
+            NarayanaGeodeSupport.setRecoveryLog(null);
+        }
+    }
+
+    @Test
+    public void recoverGeodeCommitIntentAfterHole() throws Exception {
+        Path logDirectory = Files.createTempDirectory(Paths.get("target"), "intent-log");
+        GeodeCommitIntentLog log = GeodeCommitIntentLog.open(logDirectory);
+        log.logIntent(new XidImple(new Uid()));
+        Xid laterXid = new XidImple(new Uid());
+        log.logIntent(laterXid);
+        log.close();
+
+        // Crash of the first writer before its type store, after the second writer has completed its record.
+        try (FileChannel channel = FileChannel.open(logDirectory.resolve("geode-intents-0000000000000000000.log"),
+                StandardOpenOption.WRITE)) {
+            channel.write(ByteBuffer.wrap(new byte[1]), 0);
+        }
+
+        GeodeCommitIntentLog reopened = GeodeCommitIntentLog.open(logDirectory);
+        assertThat("The records after the hole must be scanned", reopened.getInDoubtIntents().size(), is(1));
+        assertTrue(reopened.getInDoubtIntent(laterXid) != null);
+        reopened.close();
+    }
+
+    @Test
+    public void tracingSpans() throws Exception {
+        InMemorySpanExporter exporter = InMemorySpanExporter.create();
+        OpenTelemetrySdk openTelemetry = OpenTelemetrySdk.builder()
+                .setTracerProvider(SdkTracerProvider.builder()
+                        .addSpanProcessor(SimpleSpanProcessor.create(exporter))
+                        .build())
+                .build();
+        NarayanaGeodeTracingListener listener = new NarayanaGeodeTracingListener(openTelemetry);
+        listener.register();
+        Span serviceSpan = openTelemetry.getTracer("test").spanBuilder("service").startSpan();
+        try (Scope ignored = serviceSpan.makeCurrent()) {
+            transactionManager.begin();
+            NarayanaGeodeSupport.enlistGeodeAsLastCommitResource();
+            region.put("traced", 1);
+            transactionManager.commit();
+        } finally {
+            serviceSpan.end();
+            listener.unregister();
+        }
+
+        Map<String, SpanData> spans = new HashMap<>();
+        for (SpanData span : exporter.getFinishedSpanItems()) {
+            spans.put(span.getName(), span);
+        }
+        SpanData transaction = spans.get("geode.lrco.transaction");
+        assertThat(transaction.getParentSpanId(), is(serviceSpan.getSpanContext().getSpanId()));
+        assertThat(transaction.getAttributes().get(NarayanaGeodeTracingListener.OUTCOME), is("committed"));
+        assertThat(transaction.getAttributes().get(NarayanaGeodeTracingListener.REGION_COUNT), is(1L));
+        assertThat(spans.get("geode.lrco.commit").getParentSpanId(), is(transaction.getSpanId()));
+        assertThat(spans.get("geode.lrco.enlist").getParentSpanId(), is(serviceSpan.getSpanContext().getSpanId()));
+        assertThat(spans.get("geode.lrco.enlist").getAttributes().get(NarayanaGeodeTracingListener.XID),
+                is(transaction.getAttributes().get(NarayanaGeodeTracingListener.XID)));
+    }
+
+    @Test
+    public void latencyRecorder() throws Exception {
+        NarayanaGeodeLatencyRecorder recorder = new NarayanaGeodeLatencyRecorder();
+        recorder.register();
+        try {
+            Region<String, Object> lazyRegion = NarayanaGeodeSupport.lazyEnlistingRegion(region);
+            transactionManager.begin();
+            lazyRegion.put("latency", 1);
+            lazyRegion.put("latency", 2);
+            transactionManager.commit();
+
+            transactionManager.begin();
+            NarayanaGeodeSupport.enlistGeodeAsLastCommitResource();
+            region.put("latency", 3);
+            transactionManager.rollback();
+
+            assertThat(recorder.getHistogram(NarayanaGeodeLatencyRecorder.Phase.ENLIST).getTotalCount(), is(2L));
+            assertThat(recorder.getHistogram(NarayanaGeodeLatencyRecorder.Phase.BEGIN).getTotalCount(), is(2L));
+            assertThat("Only the first operation through the proxy is recorded",
+                    recorder.getHistogram(NarayanaGeodeLatencyRecorder.Phase.FIRST_OPERATION).getTotalCount(), is(1L));
+            assertThat(recorder.getHistogram(NarayanaGeodeLatencyRecorder.Phase.COMMIT).getTotalCount(), is(1L));
+            assertThat(recorder.getHistogram(NarayanaGeodeLatencyRecorder.Phase.ROLLBACK).getTotalCount(), is(1L));
+            assertThat(recorder.dump(), containsString("FIRST_OPERATION"));
+        } finally {
+            recorder.unregister();
+        }
+    }
+
+    @Test
+    public void keyContentionProfiler() throws Exception {
+        GeodeKeyContentionProfiler profiler = new GeodeKeyContentionProfiler(10, 0);
+        profiler.register();
+        try {
+            region.put("hotKey", 0);
+            try {
+                new NarayanaGeodeRetryTemplate(1, 0, 0).execute(() -> {
+                    region.put("hotKey", 1);
+                    region.put("coldKey", 1);
+                    commitConcurrently("hotKey", 2);
+                    return null;
+                });
+                fail("The commit conflict was not reported");
+            } catch (Exception e) {
+                assertTrue(e.toString(), NarayanaGeodeRetryTemplate.isCommitConflict(e) || e instanceof RollbackException);
+            }
+
+            // The coldKey was written by the failed transaction too, but did not conflict.
+            List<SpaceSavingTopK.Entry> conflicts = profiler.getConflictEntries(10);
+            assertThat(conflicts.size(), is(1));
+            assertThat(conflicts.get(0).getItem(), is("/testRegion:hotKey"));
+            assertThat(profiler.getTopSlowCommitKeys().length, is(0));
+        } finally {
+            profiler.unregister();
+        }
+    }
+
+    // Commits a change to the key from another thread, in a plain Geode transaction.
+    private void commitConcurrently(String key, Object value) throws InterruptedException {
+        Thread thread = new Thread(() -> {
+            CacheTransactionManager geodeTxManager = region.getRegionService().getCacheTransactionManager();
+            geodeTxManager.begin();
+            region.put(key, value);
+            geodeTxManager.commit();
+        });
+        thread.start();
+        thread.join();
+    }
+
+    /**
+     * One-phase participant recording its outcome.
+     */
+    private static class RecordingLastResource implements LastResourceCommitOptimisation {
+
+        private volatile boolean committed;
+
+        @Override
+        public void commit(Xid xid, boolean onePhase) {
+            committed = true;
+        }
+
+        @Override
+        public void end(Xid xid, int flags) {
+        }
+
+        @Override
+        public void forget(Xid xid) {
+        }
+
+        @Override
+        public int getTransactionTimeout() {
+            return 0;
+        }
+
+        @Override
+        public boolean isSameRM(XAResource xaResource) {
+            return xaResource == this;
+        }
+
+        @Override
+        public int prepare(Xid xid) {
+            return XA_OK;
+        }
+
+        @Override
+        public Xid[] recover(int flag) {
+            return new Xid[0];
+        }
+
+        @Override
+        public void rollback(Xid xid) {
+        }
+
+        @Override
+        public boolean setTransactionTimeout(int seconds) {
+            return false;
+        }
+
+        @Override
+        public void start(Xid xid, int flags) {
+        }
+    }
+}
@@ -35,6 +35,8 @@ import org.apache.geode.internal.cache.TXStateProxy;
 import org.jnp.server.SingletonNamingServer;
 import org.junit.*;
 
+import javax.naming.Context;
+import javax.naming.NameNotFoundException;
 import javax.transaction.NotSupportedException;
 import javax.transaction.SystemException;
 import javax.transaction.TransactionManager;
@@ -43,8 +45,11 @@ import java.util.Map;
 
 import static org.apache.geode.cache.DataPolicy.PARTITION;
 import static org.hamcrest.CoreMatchers.containsString;
+import static org.hamcrest.CoreMatchers.instanceOf;
 import static org.hamcrest.CoreMatchers.is;
 import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
 import static org.junit.Assert.assertThat;
 
 /**
@@ -175,6 +180,129 @@ public class TestCase {
         assertThat(isJTA(getCacheTransactionManagerCurrentTXState()), is(true));
     }
 
+    @Test
+    public void lazyLastResourceCommitOptimization() throws Exception {
+        TransactionImple tx = (TransactionImple) transactionManager.getTransaction();
+
+        Region<String, Object> lazyRegion = NarayanaGeodeSupport.lazyEnlistingRegion(region);
+
+        lazyRegion.getName();
+
+        assertThat("Region metadata operations MUST NOT enlist NarayanaGeodeLastCommitResource!",
+                tx.getResources().size(), is(0));
+
+        assertNull("Geode TXStateProxy mustn't be created before the first region operation",
+                getCacheTransactionManagerCurrentTXState());
+
+        // The first Geode transactional operation enlists Geode as LRCO
+        lazyRegion.put("666", 666);
+
+        assertThat("NarayanaGeodeLastCommitResource should be enlisted as LRCO!",
+                tx.getResources().size(), is(1));
+
+        assertThat("In lazy LRCO mode, Geode's TxManager should NOT register a Geode TXStateProxy (as Synchronization)" +
+                        " in JTA's transaction!",
+                extractTheAtomicAction(tx).getSynchronizations().size(), is(0));
+
+        assertThat(getCacheTransactionManagerCurrentTXState().isJCATransaction(), is(true));
+
+        // Subsequent operations reuse the enlisted resource
+        lazyRegion.get("666");
+
+        assertThat(tx.getResources().size(), is(1));
+    }
+
+    @Test
+    public void requiresNewTransaction() throws Exception {
+        assertTrue(NarayanaGeodeSupport.enlistGeodeAsLastCommitResourceIfNecessary());
+        assertThat("Geode must be enlisted once per JTA transaction",
+                NarayanaGeodeSupport.enlistGeodeAsLastCommitResourceIfNecessary(), is(false));
+        region.put("outer", 1);
+
+        // REQUIRES_NEW suspending the JTA transaction only, the Geode transaction stays on the thread.
+        Transaction outer = (Transaction) transactionManager.suspend();
+        transactionManager.begin();
+        try {
+            NarayanaGeodeSupport.enlistGeodeAsLastCommitResourceIfNecessary();
+            fail("The Geode operations must not silently join the suspended transaction");
+        } catch (NarayanaGeodeException e) {
+            // expected
+        } finally {
+            transactionManager.rollback();
+        }
+
+        // Suspending the Geode transaction too, the new JTA transaction gets a Geode transaction of its own.
+        TXManagerImpl geodeTxManager = NarayanaGeodeSupport.cacheContext().getTxManager();
+        TXStateProxy outerTxState = geodeTxManager.internalSuspend();
+        transactionManager.begin();
+        assertTrue(NarayanaGeodeSupport.enlistGeodeAsLastCommitResourceIfNecessary());
+        region.put("inner", 2);
+        transactionManager.commit();
+        geodeTxManager.internalResume(outerTxState);
+        transactionManager.resume(outer);
+
+        assertThat("The inner transaction must commit on its own", region.get("inner"), is(2));
+        assertThat(region.get("outer"), is(1));
+    }
+
+    @Test
+    public void cacheSpecificLastResourceCommit() throws Exception {
+        TransactionImple tx = (TransactionImple) transactionManager.getTransaction();
+        Cache cache = (Cache) region.getRegionService();
+
+        assertTrue(NarayanaGeodeSupport.enlistGeodeAsLastCommitResource(cache));
+        assertThat("The same cache must not be enlisted twice",
+                NarayanaGeodeSupport.enlistGeodeAsLastCommitResource(cache), is(false));
+
+        assertThat("A single ordered LRCO participant drives all caches", tx.getResources().size(), is(1));
+        assertThat(tx.getResources().keySet().iterator().next(),
+                instanceOf(NarayanaGeodeOrderedLastCommitResource.class));
+        assertThat(getCacheTransactionManagerCurrentTXState().isJCATransaction(), is(true));
+
+        region.put("666", 666);
+
+        assertThat(extractTheAtomicAction(tx).getSynchronizations().size(), is(0));
+        assertTrue("The resource identity is the cache", new NarayanaGeodeLastCommitResource(cache)
+                .isSameRM(new NarayanaGeodeLastCommitResource(cache)));
+    }
+
+    @Test
+    public void inProcessJndiContext() throws Exception {
+        Context context = new NarayanaJtaInitialContextFactory().getInitialContext(null);
+
+        assertThat(context.lookup("java:/TransactionManager"),
+                is((Object) com.arjuna.ats.jta.TransactionManager.transactionManager()));
+        assertThat(context.lookup("java:/UserTransaction"),
+                is((Object) com.arjuna.ats.jta.UserTransaction.userTransaction()));
+        try {
+            context.lookup("java:/NotBound");
+            fail("Only the JTA objects are bound");
+        } catch (NameNotFoundException e) {
+            // expected
+        }
+    }
+
+    @Test
+    public void inProcessJndiUrlPkgPrefixes() {
+        String urlPkgPrefixes = System.setProperty(Context.URL_PKG_PREFIXES, "org.jboss.naming:org.jnp.interfaces");
+        try {
+            NarayanaJtaInitialContextFactory.install();
+            assertThat(System.getProperty(Context.URL_PKG_PREFIXES),
+                    is("io.datalake.geode.jta.narayana:org.jboss.naming:org.jnp.interfaces"));
+
+            // Another library adds its prefix in the meantime.
+            System.setProperty(Context.URL_PKG_PREFIXES, System.getProperty(Context.URL_PKG_PREFIXES) + ":com.acme");
+            NarayanaJtaInitialContextFactory.uninstall();
+            assertThat(System.getProperty(Context.URL_PKG_PREFIXES), is("org.jboss.naming:org.jnp.interfaces:com.acme"));
+        } finally {
+            if (urlPkgPrefixes == null) {
+                System.clearProperty(Context.URL_PKG_PREFIXES);
+            } else {
+                System.setProperty(Context.URL_PKG_PREFIXES, urlPkgPrefixes);
+            }
+        }
+    }
+
     public static AtomicAction extractTheAtomicAction(Object aaObject) throws Exception {
         Field f = aaObject.getClass().getDeclaredField("_theTransaction");
         f.setAccessible(true);
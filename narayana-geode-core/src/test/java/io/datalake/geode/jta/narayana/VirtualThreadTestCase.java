@@ -0,0 +1,129 @@
+/*
+ * Copyright (c) 2026. The original author or authors.
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package io.datalake.geode.jta.narayana;
+
+import com.arjuna.ats.jta.utils.JNDIManager;
+import org.apache.geode.cache.Cache;
+import org.apache.geode.cache.CacheFactory;
+import org.apache.geode.cache.Region;
+import org.apache.geode.internal.cache.TXManagerImpl;
+import org.jnp.server.SingletonNamingServer;
+import org.junit.After;
+import org.junit.AfterClass;
+import org.junit.Assume;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import javax.transaction.TransactionManager;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.apache.geode.cache.DataPolicy.PARTITION;
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertThat;
+
+/**
+ * Runs Geode LRCO transactions on virtual threads. Skipped on JVMs without virtual threads.
+ */
+public class VirtualThreadTestCase {
+
+    private static final int TRANSACTIONS = 100;
+
+    private static SingletonNamingServer jndiServer;
+    private Cache cache;
+    private Region<String, Object> region;
+    private TransactionManager transactionManager;
+
+    @BeforeClass
+    public static void beforeClass() throws Exception {
+        Assume.assumeTrue("Virtual threads are not supported", VirtualThreadSupport.isAvailable());
+        jndiServer = new SingletonNamingServer();
+        // Bind JTA implementation with default names
+        JNDIManager.bindJTAImplementation();
+    }
+
+    @Before
+    public void before() {
+        cache = new CacheFactory()
+                .set("mcast-port", "0")
+                .set("locators", "")
+                .set("log-level", "error")
+                .create();
+
+        region = cache.<String, Object>createRegionFactory()
+                .setDataPolicy(PARTITION)
+                .create("testRegion");
+
+        transactionManager = com.arjuna.ats.jta.TransactionManager.transactionManager();
+    }
+
+    @After
+    public void after() {
+        cache.close();
+    }
+
+    @AfterClass
+    public static void afterClass() {
+        if (jndiServer != null) {
+            jndiServer.destroy();
+        }
+    }
+
+    @Test
+    public void lastResourceCommitOnVirtualThreads() throws Exception {
+        ExecutorService executor = VirtualThreadSupport.newVirtualThreadPerTaskExecutor();
+        List<Future<Boolean>> results = new ArrayList<>();
+        try {
+            for (int i = 0; i < TRANSACTIONS; i++) {
+                final String key = "key-" + i;
+                final int value = i;
+                results.add(executor.submit(() -> {
+                    transactionManager.begin();
+                    NarayanaGeodeSupport.enlistGeodeAsLastCommitResource();
+                    region.put(key, -1);
+                    // Unmounts the virtual thread, it may continue on another carrier.
+                    Thread.sleep(5);
+                    region.put(key, value);
+                    transactionManager.commit();
+                    // Neither the Narayana nor the Geode transaction may leak into the next task.
+                    assertNull(transactionManager.getTransaction());
+                    assertNull(TXManagerImpl.getCurrentTXState());
+                    return VirtualThreadSupport.isVirtual(Thread.currentThread());
+                }));
+            }
+            for (Future<Boolean> result : results) {
+                assertThat(result.get(30, TimeUnit.SECONDS), is(true));
+            }
+        } finally {
+            executor.shutdown();
+        }
+
+        for (int i = 0; i < TRANSACTIONS; i++) {
+            assertThat(region.get("key-" + i), is((Object) i));
+        }
+    }
+}
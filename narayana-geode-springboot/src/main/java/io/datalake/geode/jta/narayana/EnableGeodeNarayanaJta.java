@@ -33,6 +33,10 @@ import java.lang.annotation.*;
  * {@link org.springframework.context.annotation.Configuration @Configuration}
  * class that is also annotated with {@link org.springframework.transaction.annotation.EnableTransactionManagement @EnableTransactionManagement}
  * with an explicit {@link EnableTransactionManagement#order} set to value other than {@link Integer#MAX_VALUE} or {@link Integer#MIN_VALUE}.
+ * <p>
+ * The order requirement applies to the default {@link NarayanaLrcoMode#ASPECT} mode only. With
+ * mode = {@link NarayanaLrcoMode#TRANSACTION_MANAGER} Geode is enlisted by the {@link NarayanaGeodeJtaTransactionManager}
+ * when it begins a new transaction.
  *
  * @author Christian Tzolov (christian.tzolov@gmail.com)
  */
@@ -41,9 +45,14 @@ import java.lang.annotation.*;
 @Inherited
 @Documented
 @EnableAspectJAutoProxy
-@Import(NarayanaLrcoConfiguration.class)
+@Import(NarayanaLrcoConfigurationSelector.class)
 @SuppressWarnings("unused")
 public @interface EnableGeodeNarayanaJta {
+
+    /**
+     * @return Returns how Geode is enlisted as Last Resource Commit. Defaults to {@link NarayanaLrcoMode#ASPECT}.
+     */
+    NarayanaLrcoMode mode() default NarayanaLrcoMode.ASPECT;
 }
 
 
@@ -0,0 +1,117 @@
+/*
+ * Copyright (c) 2026. The original author or authors.
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package io.datalake.geode.jta.narayana;
+
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.aspectj.lang.reflect.MethodSignature;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.aop.support.AopUtils;
+import org.springframework.core.MethodClassKey;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.AnnotationUtils;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.lang.reflect.Method;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * {@link GeodeConflictRetryAspect} is a Spring {@link Aspect}, that re-runs the
+ * {@link RetryOnGeodeConflict @RetryOnGeodeConflict} annotated invocations failed with a Geode commit conflict.
+ * <p>
+ * The aspect has the highest precedence, so it runs outside the Spring transaction interceptor and every attempt
+ * begins a new transaction.
+ */
+@Aspect
+public class GeodeConflictRetryAspect implements Ordered {
+
+    private final Logger logger = LoggerFactory.getLogger(getClass());
+
+    // Keyed by target class too: with a class level @RetryOnGeodeConflict an inherited method may have different
+    // retry settings in every subclass.
+    private final Map<MethodClassKey, NarayanaGeodeRetryTemplate> retryTemplates = new ConcurrentHashMap<>();
+
+    /* (non-Javadoc) */
+    @Around("@annotation(io.datalake.geode.jta.narayana.RetryOnGeodeConflict) "
+            + "|| @within(io.datalake.geode.jta.narayana.RetryOnGeodeConflict)")
+    public Object retryOnGeodeConflict(ProceedingJoinPoint joinPoint) throws Throwable {
+
+        if (TransactionSynchronizationManager.isActualTransactionActive()) {
+            // Joins the caller's transaction. A conflict rolls back the whole transaction, retrying here is pointless.
+            return joinPoint.proceed();
+        }
+
+        Method method = ((MethodSignature) joinPoint.getSignature()).getMethod();
+        Object target = joinPoint.getTarget();
+        Class<?> targetClass = (target != null) ? AopUtils.getTargetClass(target) : method.getDeclaringClass();
+        NarayanaGeodeRetryTemplate retryTemplate = retryTemplates.computeIfAbsent(
+                new MethodClassKey(method, targetClass), key -> createRetryTemplate(method, targetClass));
+
+        int[] attempt = {0};
+        try {
+            return retryTemplate.retry(() -> {
+                if (attempt[0]++ > 0 && logger.isDebugEnabled()) {
+                    logger.debug("Geode commit conflict, retry attempt " + attempt[0] + " of "
+                            + retryTemplate.getMaxAttempts() + " for: " + joinPoint.getSignature());
+                }
+                try {
+                    return joinPoint.proceed();
+                } catch (Exception | Error e) {
+                    throw e;
+                } catch (Throwable t) {
+                    throw new ThrowableWrapper(t);
+                }
+            });
+        } catch (ThrowableWrapper e) {
+            throw e.getCause();
+        }
+    }
+
+    private NarayanaGeodeRetryTemplate createRetryTemplate(Method method, Class<?> targetClass) {
+        Method specificMethod = AopUtils.getMostSpecificMethod(method, targetClass);
+        RetryOnGeodeConflict annotation = AnnotationUtils.findAnnotation(specificMethod, RetryOnGeodeConflict.class);
+        if (annotation == null) {
+            annotation = AnnotationUtils.findAnnotation(targetClass, RetryOnGeodeConflict.class);
+        }
+        if (annotation == null) {
+            return new NarayanaGeodeRetryTemplate();
+        }
+        return new NarayanaGeodeRetryTemplate(annotation.maxAttempts(), annotation.initialBackoff(),
+                annotation.maxBackoff());
+    }
+
+    @Override
+    public int getOrder() {
+        return Ordered.HIGHEST_PRECEDENCE;
+    }
+
+    // Carries the checked Throwables (neither Exception nor Error) through the Callable based retry template.
+    @SuppressWarnings("serial")
+    private static class ThrowableWrapper extends Exception {
+        ThrowableWrapper(Throwable cause) {
+            super(cause);
+        }
+    }
+}
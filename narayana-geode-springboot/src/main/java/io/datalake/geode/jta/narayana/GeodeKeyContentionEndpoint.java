@@ -0,0 +1,52 @@
+/*
+ * Copyright (c) 2026. The original author or authors.
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package io.datalake.geode.jta.narayana;
+
+import org.springframework.boot.actuate.endpoint.AbstractEndpoint;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Spring Boot actuator endpoint (/geodecontention) exposing the Region keys most frequently involved in Geode commit
+ * conflicts and slow commits, as recorded by the {@link GeodeKeyContentionProfiler}.
+ */
+public class GeodeKeyContentionEndpoint extends AbstractEndpoint<Map<String, Object>> {
+
+    private static final int TOP_KEYS = 20;
+
+    private final GeodeKeyContentionProfiler profiler;
+
+    public GeodeKeyContentionEndpoint(GeodeKeyContentionProfiler profiler) {
+        super("geodecontention");
+        this.profiler = profiler;
+    }
+
+    @Override
+    public Map<String, Object> invoke() {
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("slowCommitThresholdMillis", profiler.getSlowCommitThresholdMillis());
+        result.put("conflicts", profiler.getConflictEntries(TOP_KEYS));
+        result.put("slowCommits", profiler.getSlowCommitEntries(TOP_KEYS));
+        return result;
+    }
+}
@@ -0,0 +1,146 @@
+/*
+ * Copyright (c) 2026. The original author or authors.
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package io.datalake.geode.jta.narayana;
+
+import org.apache.geode.cache.CacheTransactionManager;
+import org.apache.geode.cache.CommitConflictException;
+import org.apache.geode.cache.TransactionException;
+import org.apache.geode.cache.TransactionId;
+import org.springframework.transaction.CannotCreateTransactionException;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.TransactionSystemException;
+import org.springframework.transaction.support.AbstractPlatformTransactionManager;
+import org.springframework.transaction.support.DefaultTransactionStatus;
+import org.springframework.transaction.support.ResourceHolderSupport;
+import org.springframework.transaction.support.SmartTransactionObject;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Spring transaction manager running Geode-only transactions on the Geode {@link CacheTransactionManager}, without
+ * a JTA transaction. Used by the {@link NarayanaGeodeAdaptiveTransactionManager} for the
+ * {@link NarayanaGeodeAdaptivePolicy.Mode#GEODE_LOCAL} transaction types.
+ * <p>
+ * Inner REQUIRES_NEW transactions suspend the outer Geode transaction. Nested (savepoint) transactions are not
+ * supported. A commit conflict is reported as a {@link TransactionSystemException} caused by the Geode
+ * {@link CommitConflictException}, so it is retried by the {@link RetryOnGeodeConflict} support.
+ */
+@SuppressWarnings("serial")
+public class GeodeLocalTransactionManager extends AbstractPlatformTransactionManager {
+
+    public GeodeLocalTransactionManager() {
+        setNestedTransactionAllowed(false);
+    }
+
+    private static CacheTransactionManager cacheTransactionManager() {
+        return NarayanaGeodeSupport.cacheContext().getCache().getCacheTransactionManager();
+    }
+
+    @Override
+    protected Object doGetTransaction() {
+        GeodeLocalTransactionObject transaction = new GeodeLocalTransactionObject();
+        transaction.holder = (GeodeTransactionHolder) TransactionSynchronizationManager.getResource(this);
+        return transaction;
+    }
+
+    @Override
+    protected boolean isExistingTransaction(Object transaction) {
+        return ((GeodeLocalTransactionObject) transaction).holder != null;
+    }
+
+    @Override
+    protected void doBegin(Object transaction, TransactionDefinition definition) {
+        try {
+            cacheTransactionManager().begin();
+        } catch (IllegalStateException e) {
+            throw new CannotCreateTransactionException("Failed to begin a Geode transaction", e);
+        }
+        GeodeTransactionHolder holder = new GeodeTransactionHolder();
+        holder.setSynchronizedWithTransaction(true);
+        TransactionSynchronizationManager.bindResource(this, holder);
+        ((GeodeLocalTransactionObject) transaction).holder = holder;
+    }
+
+    @Override
+    protected Object doSuspend(Object transaction) {
+        ((GeodeLocalTransactionObject) transaction).holder = null;
+        GeodeTransactionHolder holder = (GeodeTransactionHolder) TransactionSynchronizationManager.unbindResource(this);
+        holder.suspendedId = cacheTransactionManager().suspend();
+        return holder;
+    }
+
+    @Override
+    protected void doResume(Object transaction, Object suspendedResources) {
+        GeodeTransactionHolder holder = (GeodeTransactionHolder) suspendedResources;
+        cacheTransactionManager().resume(holder.suspendedId);
+        holder.suspendedId = null;
+        TransactionSynchronizationManager.bindResource(this, holder);
+    }
+
+    @Override
+    protected void doCommit(DefaultTransactionStatus status) {
+        try {
+            cacheTransactionManager().commit();
+        } catch (CommitConflictException e) {
+            throw new TransactionSystemException("Geode commit conflict", e);
+        } catch (TransactionException | IllegalStateException e) {
+            throw new TransactionSystemException("Failed to commit the Geode transaction", e);
+        }
+    }
+
+    @Override
+    protected void doRollback(DefaultTransactionStatus status) {
+        CacheTransactionManager txManager = cacheTransactionManager();
+        if (txManager.exists()) {
+            txManager.rollback();
+        }
+    }
+
+    @Override
+    protected void doSetRollbackOnly(DefaultTransactionStatus status) {
+        ((GeodeLocalTransactionObject) status.getTransaction()).holder.setRollbackOnly();
+    }
+
+    @Override
+    protected void doCleanupAfterCompletion(Object transaction) {
+        TransactionSynchronizationManager.unbindResourceIfPossible(this);
+    }
+
+    // Bound to the thread for the duration of the Geode transaction, shared with the participating transactions.
+    private static class GeodeTransactionHolder extends ResourceHolderSupport {
+
+        private TransactionId suspendedId;
+    }
+
+    private static class GeodeLocalTransactionObject implements SmartTransactionObject {
+
+        private GeodeTransactionHolder holder;
+
+        @Override
+        public boolean isRollbackOnly() {
+            return holder != null && holder.isRollbackOnly();
+        }
+
+        @Override
+        public void flush() {
+        }
+    }
+}
@@ -0,0 +1,92 @@
+/*
+ * Copyright (c) 2026. The original author or authors.
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package io.datalake.geode.jta.narayana;
+
+import org.apache.geode.cache.Region;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.BeansException;
+import org.springframework.beans.factory.BeanFactory;
+import org.springframework.beans.factory.BeanFactoryAware;
+import org.springframework.beans.factory.FactoryBean;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.core.ResolvableType;
+
+/**
+ * Wraps the Geode {@link Region} beans with a proxy that enlists Geode as Last Resource Commit on the first region
+ * operation inside a transaction (see {@link NarayanaGeodeSupport#lazyEnlistingRegion(Region)}).
+ * <p>
+ * The proxy implements the {@link Region} interface only. Therefore only the beans declared with the {@link Region}
+ * type are wrapped: the return type of the @Bean method, or the type argument of a
+ * {@link FactoryBean FactoryBean&lt;Region&gt;} (e.g. the Spring Data Geode RegionFactoryBean, whose getObjectType()
+ * returns the concrete region class once the region exists). Beans declared with an implementation type (e.g.
+ * PartitionedRegion) are left as they are, so the code injecting or casting them to that type keeps working, and a
+ * warning is logged for each of them.
+ * <p>
+ * Active when both spring.jta.narayana.onePhaseCommit and spring.jta.narayana.lazyEnlistment are set to true.
+ */
+public class LazyEnlistingRegionBeanPostProcessor implements BeanPostProcessor, BeanFactoryAware {
+
+    private final Logger logger = LoggerFactory.getLogger(getClass());
+
+    private BeanFactory beanFactory;
+
+    @Override
+    public void setBeanFactory(BeanFactory beanFactory) throws BeansException {
+        this.beanFactory = beanFactory;
+    }
+
+    @Override
+    public Object postProcessBeforeInitialization(Object bean, String beanName) throws BeansException {
+        return bean;
+    }
+
+    @Override
+    public Object postProcessAfterInitialization(Object bean, String beanName) throws BeansException {
+        if (!(bean instanceof Region)) {
+            return bean;
+        }
+        if (this.isDeclaredAsRegion(beanName)) {
+            return NarayanaGeodeSupport.lazyEnlistingRegion((Region<?, ?>) bean);
+        }
+        logger.warn("The Region bean '" + beanName + "' is declared with the " + bean.getClass().getName()
+                + " implementation type and is not enlisted lazily. Declare it with the Region type.");
+        return bean;
+    }
+
+    private boolean isDeclaredAsRegion(String beanName) {
+        if (beanFactory == null || !beanFactory.containsBean(beanName)) {
+            return false;
+        }
+        // The singleton is not registered yet, so the type is the one predicted from the bean definition.
+        if (beanFactory.getType(beanName) == Region.class) {
+            return true;
+        }
+        String factoryBeanName = BeanFactory.FACTORY_BEAN_PREFIX + beanName;
+        if (beanFactory.containsBean(factoryBeanName)) {
+            Class<?> factoryBeanType = beanFactory.getType(factoryBeanName);
+            return factoryBeanType != null
+                    && ResolvableType.forClass(factoryBeanType).as(FactoryBean.class).resolveGeneric(0) == Region.class;
+        }
+        return false;
+    }
+}
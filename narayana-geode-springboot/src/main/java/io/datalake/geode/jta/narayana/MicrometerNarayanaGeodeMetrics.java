@@ -0,0 +1,139 @@
+/*
+ * Copyright (c) 2026. The original author or authors.
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package io.datalake.geode.jta.narayana;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.apache.geode.cache.TransactionId;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.InitializingBean;
+
+import javax.transaction.xa.XAException;
+import javax.transaction.xa.Xid;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Exposes the Geode Last Resource Commit transaction metrics through Micrometer:
+ * <ul>
+ * <li>narayana.geode.lrco.enlist, narayana.geode.lrco.start, narayana.geode.lrco.commit and
+ * narayana.geode.lrco.rollback counters.</li>
+ * <li>narayana.geode.lrco.failure counter, tagged by the XAException errorCode.</li>
+ * <li>narayana.geode.lrco.commit.duration timer - the Geode commit duration.</li>
+ * <li>narayana.geode.lrco.transaction.duration timer - the span from the Geode transaction start to its commit.</li>
+ * <li>narayana.geode.lrco.inflight gauge - the number of started but not yet completed Geode transactions. The
+ * transactions started before the metrics were registered are not counted.</li>
+ * </ul>
+ * The metrics are registered as a {@link NarayanaGeodeTransactionListener} on initialization and unregistered on
+ * destroy.
+ */
+public class MicrometerNarayanaGeodeMetrics implements NarayanaGeodeTransactionListener, InitializingBean,
+        DisposableBean {
+
+    private static final String PREFIX = "narayana.geode.lrco";
+
+    private final MeterRegistry registry;
+
+    private final Counter enlistCounter;
+    private final Counter startCounter;
+    private final Counter commitCounter;
+    private final Counter rollbackCounter;
+    private final Timer commitTimer;
+    private final Timer transactionTimer;
+    // The started, not yet completed, transactions. Only the transactions seen starting are removed on completion.
+    private final Set<TransactionId> inflight = ConcurrentHashMap.newKeySet();
+    private final ConcurrentMap<Integer, Counter> failureCounters = new ConcurrentHashMap<>();
+
+    public MicrometerNarayanaGeodeMetrics(MeterRegistry registry) {
+        this.registry = registry;
+        this.enlistCounter = Counter.builder(PREFIX + ".enlist")
+                .description("Geode enlistments as Last Resource Commit").register(registry);
+        this.startCounter = Counter.builder(PREFIX + ".start")
+                .description("Started Geode transactions").register(registry);
+        this.commitCounter = Counter.builder(PREFIX + ".commit")
+                .description("Committed Geode transactions").register(registry);
+        this.rollbackCounter = Counter.builder(PREFIX + ".rollback")
+                .description("Rolled back Geode transactions").register(registry);
+        this.commitTimer = Timer.builder(PREFIX + ".commit.duration")
+                .description("Geode commit duration").register(registry);
+        this.transactionTimer = Timer.builder(PREFIX + ".transaction.duration")
+                .description("Geode transaction duration, from start to commit").register(registry);
+        registry.gauge(PREFIX + ".inflight", this.inflight, Set::size);
+    }
+
+    @Override
+    public void afterPropertiesSet() {
+        NarayanaGeodeTransactionListeners.add(this);
+    }
+
+    @Override
+    public void destroy() {
+        NarayanaGeodeTransactionListeners.remove(this);
+    }
+
+    @Override
+    public void afterEnlist(Xid xid, long enlistNanos) {
+        this.enlistCounter.increment();
+    }
+
+    @Override
+    public void afterStart(Xid xid, TransactionId transactionId, long beginNanos) {
+        this.startCounter.increment();
+        if (transactionId != null) {
+            this.inflight.add(transactionId);
+        }
+    }
+
+    @Override
+    public void afterCommit(Xid xid, TransactionId transactionId, long commitNanos, long transactionNanos) {
+        this.completed(transactionId);
+        this.commitCounter.increment();
+        this.commitTimer.record(commitNanos, TimeUnit.NANOSECONDS);
+        this.transactionTimer.record(transactionNanos, TimeUnit.NANOSECONDS);
+    }
+
+    @Override
+    public void afterRollback(Xid xid, TransactionId transactionId, long rollbackNanos, long transactionNanos) {
+        this.completed(transactionId);
+        this.rollbackCounter.increment();
+    }
+
+    @Override
+    public void onFailure(Xid xid, TransactionId transactionId, XAException exception) {
+        this.completed(transactionId);
+        this.failureCounters.computeIfAbsent(exception.errorCode, errorCode ->
+                Counter.builder(PREFIX + ".failure")
+                        .description("Failed Geode transaction start, commit or rollback")
+                        .tag("errorCode", String.valueOf(errorCode))
+                        .register(this.registry))
+                .increment();
+    }
+
+    private void completed(TransactionId transactionId) {
+        if (transactionId != null) {
+            this.inflight.remove(transactionId);
+        }
+    }
+}
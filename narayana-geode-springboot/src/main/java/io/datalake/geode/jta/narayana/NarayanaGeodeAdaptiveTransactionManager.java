@@ -0,0 +1,203 @@
+/*
+ * Copyright (c) 2026. The original author or authors.
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package io.datalake.geode.jta.narayana;
+
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.TransactionException;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.jta.JtaTransactionManager;
+
+/**
+ * {@link PlatformTransactionManager} choosing, per transaction type, how Geode takes part in the transaction, as
+ * decided by the {@link NarayanaGeodeAdaptivePolicy}:
+ * <ul>
+ * <li>GEODE_LOCAL - the {@link GeodeLocalTransactionManager}, a Geode transaction without Narayana.</li>
+ * <li>LAST_RESOURCE_COMMIT - the given {@link NarayanaGeodeJtaTransactionManager}, enlisting Geode as Last Resource
+ * Commit.</li>
+ * <li>SYNCHRONIZATION - a plain {@link JtaTransactionManager} on the same JTA transaction manager, Geode registers
+ * itself as JTA Synchronization.</li>
+ * </ul>
+ * The transaction type is the transaction definition name, that the Spring transaction interceptor sets to the
+ * class and method name of the @Transactional method. Unnamed (e.g. programmatic) transactions always use the Last Resource
+ * Commit. The mode is chosen by the outermost transaction on the thread, the inner transactions (joining, or
+ * suspending it) use the same mode.
+ * <p>
+ * On commit the global transactions report to the policy the commit duration and the Geode commit conflicts, in both
+ * global modes. Do not combine it with the lazy enlistment Region proxies, those enlist Geode as Last Resource Commit
+ * in the Synchronization mode transactions too.
+ */
+public class NarayanaGeodeAdaptiveTransactionManager implements PlatformTransactionManager, InitializingBean {
+
+    private final NarayanaGeodeJtaTransactionManager lastResourceCommit;
+    private final JtaTransactionManager synchronization;
+    private final GeodeLocalTransactionManager geodeLocal;
+    private final NarayanaGeodeAdaptivePolicy policy;
+
+    // The mode of the outermost transaction running on the thread.
+    private final ThreadLocal<NarayanaGeodeAdaptivePolicy.Mode> threadMode = new ThreadLocal<>();
+
+    public NarayanaGeodeAdaptiveTransactionManager(NarayanaGeodeJtaTransactionManager lastResourceCommit,
+                                                   NarayanaGeodeAdaptivePolicy policy) {
+        this.lastResourceCommit = lastResourceCommit;
+        this.synchronization = new JtaTransactionManager(lastResourceCommit.getUserTransaction(),
+                lastResourceCommit.getTransactionManager());
+        this.geodeLocal = new GeodeLocalTransactionManager();
+        this.policy = policy;
+    }
+
+    @Override
+    public void afterPropertiesSet() {
+        // The Synchronization delegate is not a Spring bean.
+        synchronization.afterPropertiesSet();
+    }
+
+    public NarayanaGeodeAdaptivePolicy getPolicy() {
+        return policy;
+    }
+
+    @Override
+    public TransactionStatus getTransaction(TransactionDefinition definition) throws TransactionException {
+        NarayanaGeodeAdaptivePolicy.Mode mode = threadMode.get();
+        if (mode != null) {
+            return new AdaptiveTransactionStatus(delegate(mode).getTransaction(definition), mode, null, false);
+        }
+        String type = (definition != null) ? definition.getName() : null;
+        mode = (type != null) ? policy.select(type) : NarayanaGeodeAdaptivePolicy.Mode.LAST_RESOURCE_COMMIT;
+        TransactionStatus status = delegate(mode).getTransaction(definition);
+        threadMode.set(mode);
+        return new AdaptiveTransactionStatus(status, mode, type, true);
+    }
+
+    @Override
+    public void commit(TransactionStatus status) throws TransactionException {
+        AdaptiveTransactionStatus adaptive = (AdaptiveTransactionStatus) status;
+        boolean observed = adaptive.type != null && adaptive.isNewTransaction();
+        // Only the commit is timed, the duration of the method body depends on the caller, not on the mode.
+        long commitNanos = -1L;
+        boolean conflict = false;
+        try {
+            long commitStartNanos = System.nanoTime();
+            delegate(adaptive.mode).commit(adaptive.status);
+            commitNanos = System.nanoTime() - commitStartNanos;
+        } catch (TransactionException e) {
+            conflict = NarayanaGeodeRetryTemplate.isCommitConflict(e);
+            throw e;
+        } finally {
+            if (adaptive.outermost) {
+                threadMode.remove();
+            }
+            if (observed) {
+                policy.record(adaptive.type, adaptive.mode, commitNanos, conflict);
+            }
+        }
+    }
+
+    @Override
+    public void rollback(TransactionStatus status) throws TransactionException {
+        AdaptiveTransactionStatus adaptive = (AdaptiveTransactionStatus) status;
+        try {
+            delegate(adaptive.mode).rollback(adaptive.status);
+        } finally {
+            if (adaptive.outermost) {
+                threadMode.remove();
+            }
+        }
+    }
+
+    private PlatformTransactionManager delegate(NarayanaGeodeAdaptivePolicy.Mode mode) {
+        switch (mode) {
+            case GEODE_LOCAL:
+                return geodeLocal;
+            case SYNCHRONIZATION:
+                return synchronization;
+            case LAST_RESOURCE_COMMIT:
+            default:
+                return lastResourceCommit;
+        }
+    }
+
+    /**
+     * Delegating {@link TransactionStatus} remembering the mode the transaction was begun in.
+     */
+    private static class AdaptiveTransactionStatus implements TransactionStatus {
+
+        private final TransactionStatus status;
+        private final NarayanaGeodeAdaptivePolicy.Mode mode;
+        private final String type;
+        private final boolean outermost;
+
+        AdaptiveTransactionStatus(TransactionStatus status, NarayanaGeodeAdaptivePolicy.Mode mode, String type,
+                                  boolean outermost) {
+            this.status = status;
+            this.mode = mode;
+            this.type = type;
+            this.outermost = outermost;
+        }
+
+        @Override
+        public boolean isNewTransaction() {
+            return status.isNewTransaction();
+        }
+
+        @Override
+        public boolean hasSavepoint() {
+            return status.hasSavepoint();
+        }
+
+        @Override
+        public void setRollbackOnly() {
+            status.setRollbackOnly();
+        }
+
+        @Override
+        public boolean isRollbackOnly() {
+            return status.isRollbackOnly();
+        }
+
+        @Override
+        public void flush() {
+            status.flush();
+        }
+
+        @Override
+        public boolean isCompleted() {
+            return status.isCompleted();
+        }
+
+        @Override
+        public Object createSavepoint() throws TransactionException {
+            return status.createSavepoint();
+        }
+
+        @Override
+        public void rollbackToSavepoint(Object savepoint) throws TransactionException {
+            status.rollbackToSavepoint(savepoint);
+        }
+
+        @Override
+        public void releaseSavepoint(Object savepoint) throws TransactionException {
+            status.releaseSavepoint(savepoint);
+        }
+    }
+}
@@ -0,0 +1,225 @@
+/*
+ * Copyright (c) 2026. The original author or authors.
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package io.datalake.geode.jta.narayana;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Metrics;
+import io.opentelemetry.api.GlobalOpenTelemetry;
+import io.opentelemetry.api.OpenTelemetry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.AnyNestedCondition;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnClass;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingClass;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Conditional;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.concurrent.ExecutorService;
+
+/**
+ * The {@link NarayanaGeodeCommonConfiguration} is a Spring {@link Configuration @Configuration} annotated class
+ * defining the beans shared by all {@link NarayanaLrcoMode} modes: the standalone JNDI server, the Geode cache
+ * bean ordering, the lazy enlistment Region proxies, the commit conflict retries, the key
+ * contention profiler, the metrics, the tracing, the virtual thread executor and the object store selection.
+ */
+@Configuration
+@SuppressWarnings("unused")
+public class NarayanaGeodeCommonConfiguration implements InitializingBean {
+
+    private final Logger logger = LoggerFactory.getLogger(getClass());
+
+    @Value("${spring.jta.narayana.onePhaseCommit:false}")
+    private boolean jtaNarayanaOnePhaseCommitEnabled;
+
+    @Value("${spring.jta.narayana.clientCache:false}")
+    private boolean clientCache;
+
+    /* (non-Javadoc) */
+    @Override
+    public void afterPropertiesSet() {
+        if (clientCache) {
+            // Enlist the ClientCache transactions instead of the peer cache ones.
+            NarayanaGeodeSupport.setClientCache(true);
+        }
+        if (!jtaNarayanaOnePhaseCommitEnabled) {
+            logger.warn("The Last Resource Commit Optimization is Disabled!. " +
+                    "To enable it set spring.jta.narayana.onePhaseCommit=true.");
+        }
+    }
+
+    // Wraps the Region beans to enlist Geode on the first region operation, instead of before every
+    // @Transactional method.
+    @Bean
+    @ConditionalOnProperty(name = {"spring.jta.narayana.onePhaseCommit", "spring.jta.narayana.lazyEnlistment"},
+            havingValue = "true")
+    public static LazyEnlistingRegionBeanPostProcessor lazyEnlistingRegionBeanPostProcessor() {
+        return new LazyEnlistingRegionBeanPostProcessor();
+    }
+
+    // Runs every submitted task on a new virtual thread (Java 21+). Each virtual thread has its own Narayana and
+    // Geode transaction association, so @Transactional methods called from the tasks keep their begin and commit
+    // on one context.
+    @Bean(destroyMethod = "shutdown")
+    @ConditionalOnProperty(name = "spring.jta.narayana.virtualThreads", havingValue = "true")
+    public ExecutorService narayanaVirtualThreadExecutor() {
+        return VirtualThreadSupport.newVirtualThreadPerTaskExecutor();
+    }
+
+    // Selects the Narayana journal or volatile object store before Narayana is initialized.
+    @Bean
+    @ConditionalOnProperty(name = "spring.jta.narayana.objectStore.type")
+    public static NarayanaObjectStoreBeanFactoryPostProcessor narayanaObjectStoreBeanFactoryPostProcessor() {
+        return new NarayanaObjectStoreBeanFactoryPostProcessor();
+    }
+
+    // Re-runs the @RetryOnGeodeConflict annotated methods failed with a Geode commit conflict.
+    @Bean
+    public GeodeConflictRetryAspect geodeConflictRetryAspect() {
+        return new GeodeConflictRetryAspect();
+    }
+
+    @Bean
+    public GeodeDependsOnBeanFactoryPostProcessor gemfireDependsOnBeanFactoryPostProcessor() {
+        return new GeodeDependsOnBeanFactoryPostProcessor().add("NarayanaNamingServer");
+    }
+
+    // Starts standalone JNDI server used by Gemfire to lookup global transactions.
+    // Gemfire uses JNDI java:/TransactionManager name to lookup the JTA transaction manager.
+    // The narayanaNamingServer also pre-bind all narayana transaction managers.
+    @Configuration
+    @ConditionalOnClass(name = "org.jnp.server.SingletonNamingServer")
+    @ConditionalOnProperty(name = "spring.jta.narayana.inProcessJndi", havingValue = "false", matchIfMissing = true)
+    static class NarayanaNamingServerConfiguration {
+
+        private final Logger logger = LoggerFactory.getLogger(getClass());
+
+        @Bean(name = "NarayanaNamingServer")
+        @ConditionalOnMissingBean(type = "org.jnp.server.NamingServer")
+        public NarayanaNamingServerFactoryBean narayanaNamingServer() {
+            logger.info("Start standalone JNDI and bind narayana TM");
+            return new NarayanaNamingServerFactoryBean();
+        }
+    }
+
+    // Serves the Narayana JTA bindings from an in-process, read-only JNDI context. Used when the JNP server is not
+    // on the classpath or spring.jta.narayana.inProcessJndi=true. Shares the "NarayanaNamingServer" name, so the Geode
+    // cache still depends on it.
+    @Configuration
+    @Conditional(InProcessJndiCondition.class)
+    static class NarayanaInProcessJndiConfiguration {
+
+        private final Logger logger = LoggerFactory.getLogger(getClass());
+
+        @Bean(name = "NarayanaNamingServer", initMethod = "install", destroyMethod = "uninstall")
+        public NarayanaJtaInitialContextFactory narayanaInProcessJndi() {
+            logger.info("Bind narayana TM in the in-process JNDI context");
+            return new NarayanaJtaInitialContextFactory();
+        }
+
+        // Initializes Narayana on a background thread, overlapping with the Geode cache and other beans creation.
+        @Bean
+        @ConditionalOnProperty(name = "spring.jta.narayana.parallelInit", havingValue = "true")
+        public static NarayanaParallelInitializer narayanaParallelInitializer() {
+            return new NarayanaParallelInitializer();
+        }
+    }
+
+    static class InProcessJndiCondition extends AnyNestedCondition {
+
+        InProcessJndiCondition() {
+            super(ConfigurationPhase.REGISTER_BEAN);
+        }
+
+        @ConditionalOnProperty(name = "spring.jta.narayana.inProcessJndi", havingValue = "true")
+        static class InProcessJndiEnabled {
+        }
+
+        @ConditionalOnMissingClass("org.jnp.server.SingletonNamingServer")
+        static class NamingServerMissing {
+        }
+    }
+
+    // Records the Region keys involved in Geode commit conflicts and slow commits. Exposed as JMX MBean and, when the
+    // Spring Boot actuator is on the classpath, as the /geodecontention endpoint.
+    @Configuration
+    @ConditionalOnProperty(name = "spring.jta.narayana.contentionProfiler.enabled", havingValue = "true")
+    static class GeodeKeyContentionProfilerConfiguration {
+
+        @Bean(initMethod = "register", destroyMethod = "unregister")
+        @ConditionalOnMissingBean(GeodeKeyContentionProfiler.class)
+        public GeodeKeyContentionProfiler geodeKeyContentionProfiler(
+                @Value("${spring.jta.narayana.contentionProfiler.capacity:100}") int capacity,
+                @Value("${spring.jta.narayana.contentionProfiler.slowCommitThresholdMillis:100}")
+                        long slowCommitThresholdMillis) {
+            return new GeodeKeyContentionProfiler(capacity, slowCommitThresholdMillis);
+        }
+
+        @Configuration
+        @ConditionalOnClass(name = "org.springframework.boot.actuate.endpoint.AbstractEndpoint")
+        static class GeodeKeyContentionEndpointConfiguration {
+
+            @Bean
+            @ConditionalOnMissingBean(GeodeKeyContentionEndpoint.class)
+            public GeodeKeyContentionEndpoint geodeKeyContentionEndpoint(GeodeKeyContentionProfiler profiler) {
+                return new GeodeKeyContentionEndpoint(profiler);
+            }
+        }
+    }
+
+    // Publishes the LRCO transaction metrics when Micrometer is on the classpath. Falls back to the Micrometer global
+    // registry if the application context defines no MeterRegistry.
+    @Configuration
+    @ConditionalOnClass(name = "io.micrometer.core.instrument.MeterRegistry")
+    @ConditionalOnProperty(name = "spring.jta.narayana.metrics.enabled", havingValue = "true", matchIfMissing = true)
+    static class NarayanaGeodeMetricsConfiguration {
+
+        @Bean
+        @ConditionalOnMissingBean(MicrometerNarayanaGeodeMetrics.class)
+        public MicrometerNarayanaGeodeMetrics narayanaGeodeMetrics(ObjectProvider<MeterRegistry> meterRegistry) {
+            MeterRegistry registry = meterRegistry.getIfAvailable();
+            return new MicrometerNarayanaGeodeMetrics(registry != null ? registry : Metrics.globalRegistry);
+        }
+    }
+
+    // Traces the LRCO commit path with OpenTelemetry spans, children of the span of the @Transactional method. Falls
+    // back to the global OpenTelemetry if the application context defines none.
+    @Configuration
+    @ConditionalOnClass(name = "io.opentelemetry.api.OpenTelemetry")
+    @ConditionalOnProperty(name = "spring.jta.narayana.tracing.enabled", havingValue = "true")
+    static class NarayanaGeodeTracingConfiguration {
+
+        @Bean(initMethod = "register", destroyMethod = "unregister")
+        @ConditionalOnMissingBean(NarayanaGeodeTracingListener.class)
+        public NarayanaGeodeTracingListener narayanaGeodeTracingListener(ObjectProvider<OpenTelemetry> openTelemetry,
+                @Value("${spring.jta.narayana.tracing.regionCount:true}") boolean regionCount) {
+            OpenTelemetry instance = openTelemetry.getIfAvailable();
+            return new NarayanaGeodeTracingListener(instance != null ? instance : GlobalOpenTelemetry.get(),
+                    regionCount);
+        }
+    }
+}
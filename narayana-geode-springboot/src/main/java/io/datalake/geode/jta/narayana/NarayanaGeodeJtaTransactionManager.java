@@ -0,0 +1,128 @@
+/*
+ * Copyright (c) 2026. The original author or authors.
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package io.datalake.geode.jta.narayana;
+
+import org.apache.geode.internal.cache.TXManagerImpl;
+import org.apache.geode.internal.cache.TXStateProxy;
+import org.springframework.transaction.CannotCreateTransactionException;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.jta.JtaTransactionManager;
+import org.springframework.transaction.jta.JtaTransactionObject;
+
+import javax.transaction.InvalidTransactionException;
+import javax.transaction.NotSupportedException;
+import javax.transaction.SystemException;
+import javax.transaction.Transaction;
+import javax.transaction.TransactionManager;
+import javax.transaction.UserTransaction;
+
+/**
+ * {@link JtaTransactionManager} that enlists Geode as Last Resource Commit right after it begins a new JTA transaction.
+ * <p>
+ * Compared with the {@link NarayanaLrcoAspect}, the enlistment is part of the transaction begin, so there is no extra
+ * interceptor on the @Transactional invocations and no ordering requirement. Spring calls doJtaBegin only for new
+ * transactions, so nested invocations joining an existing transaction never attempt a second enlistment. Read-only
+ * transactions are not enlisted.
+ * <p>
+ * Geode associates its transaction with the thread, not with the JTA transaction. When a JTA transaction is suspended
+ * (e.g. by a REQUIRES_NEW or NOT_SUPPORTED method) the Geode transaction of the thread is suspended and resumed with
+ * it, so the nested JTA transaction gets a Geode transaction of its own.
+ */
+@SuppressWarnings("serial")
+public class NarayanaGeodeJtaTransactionManager extends JtaTransactionManager {
+
+    private boolean lazyEnlistment;
+
+    public NarayanaGeodeJtaTransactionManager(UserTransaction userTransaction, TransactionManager transactionManager) {
+        super(userTransaction, transactionManager);
+    }
+
+    /**
+     * @param lazyEnlistment If true Geode is not enlisted on begin, but by the lazy enlisting Region proxies on the
+     *                       first region operation.
+     */
+    public void setLazyEnlistment(boolean lazyEnlistment) {
+        this.lazyEnlistment = lazyEnlistment;
+    }
+
+    public boolean isLazyEnlistment() {
+        return lazyEnlistment;
+    }
+
+    @Override
+    protected void doJtaBegin(JtaTransactionObject txObject, TransactionDefinition definition)
+            throws NotSupportedException, SystemException {
+
+        super.doJtaBegin(txObject, definition);
+
+        if (lazyEnlistment || definition.isReadOnly()) {
+            return;
+        }
+
+        try {
+            NarayanaGeodeSupport.enlistGeodeAsLastCommitResourceIfNecessary();
+        } catch (RuntimeException e) {
+            // Do not leave the just begun JTA transaction associated with the thread.
+            try {
+                txObject.getUserTransaction().rollback();
+            } catch (Exception rollbackException) {
+                logger.warn("Failed to rollback the JTA transaction after a failed Geode enlistment",
+                        rollbackException);
+            }
+            throw new CannotCreateTransactionException("Failed to enlist Geode as Last Resource Commit", e);
+        }
+    }
+
+    @Override
+    protected Object doJtaSuspend(JtaTransactionObject txObject) throws SystemException {
+        Object suspendedTransaction = super.doJtaSuspend(txObject);
+        if (TXManagerImpl.getCurrentTXState() == null) {
+            return suspendedTransaction;
+        }
+        TXStateProxy geodeTxState = NarayanaGeodeSupport.cacheContext().getTxManager().internalSuspend();
+        return new SuspendedTransactions((Transaction) suspendedTransaction, geodeTxState);
+    }
+
+    @Override
+    protected void doJtaResume(JtaTransactionObject txObject, Object suspendedTransaction)
+            throws InvalidTransactionException, SystemException {
+
+        if (!(suspendedTransaction instanceof SuspendedTransactions)) {
+            super.doJtaResume(txObject, suspendedTransaction);
+            return;
+        }
+        SuspendedTransactions suspended = (SuspendedTransactions) suspendedTransaction;
+        super.doJtaResume(txObject, suspended.jtaTransaction);
+        NarayanaGeodeSupport.cacheContext().getTxManager().internalResume(suspended.geodeTxState);
+    }
+
+    private static class SuspendedTransactions {
+
+        private final Transaction jtaTransaction;
+        private final TXStateProxy geodeTxState;
+
+        SuspendedTransactions(Transaction jtaTransaction, TXStateProxy geodeTxState) {
+            this.jtaTransaction = jtaTransaction;
+            this.geodeTxState = geodeTxState;
+        }
+    }
+}
@@ -0,0 +1,108 @@
+/*
+ * Copyright (c) 2026. The original author or authors.
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package io.datalake.geode.jta.narayana;
+
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Import;
+import org.springframework.context.annotation.Primary;
+
+import javax.transaction.TransactionManager;
+import javax.transaction.UserTransaction;
+
+/**
+ * The {@link NarayanaLrcoAdaptiveConfiguration} is a Spring {@link Configuration @Configuration} annotated class used
+ * for the {@link NarayanaLrcoMode#ADAPTIVE} mode. It defines the {@link NarayanaGeodeJtaTransactionManager} as the
+ * transactionManager, so the Spring Boot JTA and JPA auto-configurations still find a JtaTransactionManager, and
+ * the {@link NarayanaGeodeAdaptiveTransactionManager} on top of it as the {@link Primary @Primary}
+ * adaptiveTransactionManager used by the @Transactional methods. The {@link NarayanaGeodeAdaptivePolicy} it consults
+ * is configured by the spring.jta.narayana.adaptive.* properties, spring.jta.narayana.adaptive.geodeLocalTypes lists
+ * the transaction types (class and method names) allowed to run as Geode-only local transactions.
+ */
+@Configuration
+@Import(NarayanaGeodeCommonConfiguration.class)
+@SuppressWarnings("unused")
+public class NarayanaLrcoAdaptiveConfiguration implements InitializingBean {
+
+    @Value("${spring.jta.narayana.lazyEnlistment:false}")
+    private boolean lazyEnlistment;
+
+    @Value("${spring.jta.narayana.adaptive.geodeLocalTypes:}")
+    private String[] geodeLocalTypes;
+
+    @Value("${spring.jta.narayana.adaptive.conflictThreshold:" + NarayanaGeodeAdaptivePolicy.DEFAULT_CONFLICT_THRESHOLD + "}")
+    private double conflictThreshold;
+
+    @Value("${spring.jta.narayana.adaptive.probeInterval:" + NarayanaGeodeAdaptivePolicy.DEFAULT_PROBE_INTERVAL + "}")
+    private int probeInterval;
+
+    @Value("${spring.jta.narayana.adaptive.latencyRatio:" + NarayanaGeodeAdaptivePolicy.DEFAULT_LATENCY_RATIO + "}")
+    private double latencyRatio;
+
+    /* (non-Javadoc) */
+    @Override
+    public void afterPropertiesSet() {
+        if (lazyEnlistment) {
+            // The lazy enlisting Region proxies would enlist Geode as Last Resource Commit in every mode.
+            throw new IllegalStateException(String.format(
+                    "The @%1$s(mode = %2$s) can not be combined with spring.jta.narayana.lazyEnlistment=true",
+                    EnableGeodeNarayanaJta.class.getSimpleName(), NarayanaLrcoMode.ADAPTIVE));
+        }
+    }
+
+    /* (non-Javadoc) */
+    @Bean
+    @ConditionalOnMissingBean
+    public NarayanaGeodeAdaptivePolicy narayanaGeodeAdaptivePolicy() {
+        NarayanaGeodeAdaptivePolicy policy = new NarayanaGeodeAdaptivePolicy();
+        for (String type : geodeLocalTypes) {
+            if (!type.trim().isEmpty()) {
+                policy.pin(type.trim(), NarayanaGeodeAdaptivePolicy.Mode.GEODE_LOCAL);
+            }
+        }
+        policy.setConflictThreshold(conflictThreshold);
+        policy.setProbeInterval(probeInterval);
+        policy.setLatencyRatio(latencyRatio);
+        return policy;
+    }
+
+    /* (non-Javadoc) */
+    @Bean
+    @ConditionalOnProperty(name = "spring.jta.narayana.onePhaseCommit", havingValue = "true")
+    public NarayanaGeodeJtaTransactionManager transactionManager(UserTransaction userTransaction,
+                                                                 TransactionManager transactionManager) {
+        return new NarayanaGeodeJtaTransactionManager(userTransaction, transactionManager);
+    }
+
+    /* (non-Javadoc) */
+    @Bean
+    @Primary
+    @ConditionalOnProperty(name = "spring.jta.narayana.onePhaseCommit", havingValue = "true")
+    public NarayanaGeodeAdaptiveTransactionManager adaptiveTransactionManager(
+            NarayanaGeodeJtaTransactionManager transactionManager, NarayanaGeodeAdaptivePolicy policy) {
+        return new NarayanaGeodeAdaptiveTransactionManager(transactionManager, policy);
+    }
+}
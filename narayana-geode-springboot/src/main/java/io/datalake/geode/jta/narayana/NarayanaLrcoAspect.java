@@ -30,6 +30,7 @@ import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.core.Ordered;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
 /**
  * {@link NarayanaLrcoAspect} is a Spring {@link Aspect}, that gets activated when the process
@@ -41,6 +42,16 @@ import org.springframework.transaction.annotation.Transactional;
  * within the current Narayana {@link javax.transaction.Transaction Transaction}.
  *
  * You can Enable or Disable the LRCO behavior using the spring.jta.narayana.onePhaseCommit property. Later defaults to true.
+ * The property is evaluated once, at configuration time: when disabled the {@link NarayanaLrcoConfiguration} does not
+ * register the aspect at all, so the @Transactional invocations pay no extra interceptor cost.
+ * <p>
+ * When spring.jta.narayana.lazyEnlistment is set to true the aspect does not enlist Geode. Instead the Region beans
+ * are wrapped by the {@link LazyEnlistingRegionBeanPostProcessor} and Geode is enlisted on the first region operation.
+ * Transactional methods that never touch a Region skip the Geode resource enlistment, begin and commit.
+ * <p>
+ * The enlistment is skipped for invocations that do not need it: read-only transactions, invocations running without
+ * an actual transaction (e.g. SUPPORTS or NOT_SUPPORTED propagation) and nested invocations joining a transaction
+ * in which Geode is already enlisted.
  *
  * @author Christian Tzolov (christian.tzolov@gmail.com)
  */
@@ -51,8 +62,8 @@ public class NarayanaLrcoAspect implements Ordered {
 
     private int order;
 
-    @Value("${spring.jta.narayana.onePhaseCommit:false}")
-    private boolean jtaNarayanaOnePhaseCommitEnabled;
+    @Value("${spring.jta.narayana.lazyEnlistment:false}")
+    private boolean lazyEnlistment;
 
     @Pointcut("@within(org.springframework.transaction.annotation.Transactional)")
     protected void atTransactionalType() {}
@@ -64,14 +75,18 @@ public class NarayanaLrcoAspect implements Ordered {
     @Before("atTransactionalType() || atTransactionalMethod()")
     public void doEnableGeodeNarayanaLastResourceCommitOptimization() {
 
-        if (jtaNarayanaOnePhaseCommitEnabled) {
-            if (logger.isDebugEnabled()) {
-                logger.debug("Enlisting Geode as Last Resource Commit Optimization.");
-            }
-            NarayanaGeodeSupport.enlistGeodeAsLastCommitResource();
-        } else {
-            logger.warn("The Last Resource Commit Optimization is Disabled!. " +
-                    "To enable it set spring.jta.narayana.onePhaseCommit=true.");
+        if (lazyEnlistment) {
+            // Geode is enlisted by the Region proxies on the first region operation.
+            return;
+        }
+        // The aspect runs inside the Spring transaction interceptor, so the synchronization manager reflects the
+        // effective transaction definition of this invocation.
+        if (!TransactionSynchronizationManager.isActualTransactionActive()
+                || TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            return;
+        }
+        if (NarayanaGeodeSupport.enlistGeodeAsLastCommitResourceIfNecessary() && logger.isDebugEnabled()) {
+            logger.debug("Enlisted Geode as Last Resource Commit Optimization.");
         }
     }
 
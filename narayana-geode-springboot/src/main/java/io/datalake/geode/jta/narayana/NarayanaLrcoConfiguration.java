@@ -21,12 +21,10 @@
 
 package io.datalake.geode.jta.narayana;
 
-import org.jnp.server.NamingServer;
-import org.slf4j.Logger;
-import org.slf4j.LoggerFactory;
-import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Import;
 import org.springframework.context.annotation.ImportAware;
 import org.springframework.core.annotation.AnnotationAttributes;
 import org.springframework.core.type.AnnotationMetadata;
@@ -38,6 +36,7 @@ import java.util.Optional;
 /**
  * The {@link NarayanaLrcoConfiguration} is a Spring {@link Configuration @Configuration}
  * annotated class used to configure the Geode's "Last Resource Commit Optimization" {@link org.aspectj.lang.annotation.Aspect Aspects}.
+ * Used for the {@link NarayanaLrcoMode#ASPECT} mode.
  * <p>
  * Note: The {@link org.springframework.core.annotation.Order} management implementation here is copied
  * from John Blum's SDG LR work.
@@ -45,11 +44,10 @@ import java.util.Optional;
  * @author Christian Tzolov (christian.tzolov@gmail.com)
  */
 @Configuration
+@Import(NarayanaGeodeCommonConfiguration.class)
 @SuppressWarnings("unused")
 public class NarayanaLrcoConfiguration implements ImportAware {
 
-    private final Logger logger = LoggerFactory.getLogger(getClass());
-
     private Integer enableTransactionManagementOrder;
 
     /* (non-Javadoc) */
@@ -103,6 +101,7 @@ public class NarayanaLrcoConfiguration implements ImportAware {
 
     /* (non-Javadoc) */
     @Bean
+    @ConditionalOnProperty(name = "spring.jta.narayana.onePhaseCommit", havingValue = "true")
     public NarayanaLrcoAspect geodeLastResourceCommitAspect() {
 
         NarayanaLrcoAspect geodeLastResourceCommitAspect = new NarayanaLrcoAspect();
@@ -114,19 +113,4 @@ public class NarayanaLrcoConfiguration implements ImportAware {
 
         return geodeLastResourceCommitAspect;
     }
-
-    @Bean
-    public GeodeDependsOnBeanFactoryPostProcessor gemfireDependsOnBeanFactoryPostProcessor() {
-        return new GeodeDependsOnBeanFactoryPostProcessor().add("NarayanaNamingServer");
-    }
-
-    // Starts standalone JNDI server used by Gemfire to lookup global transactions.
-    // Gemfire uses JNDI java:/TransactionManager name to lookup the JTA transaction manager.
-    // The narayanaNamingServer also pre-bind all narayana transaction managers.
-    @Bean(name = "NarayanaNamingServer")
-    @ConditionalOnMissingBean(NamingServer.class)
-    public NarayanaNamingServerFactoryBean narayanaNamingServer() {
-        logger.info("Start standalone JNDI and bind narayana TM");
-        return new NarayanaNamingServerFactoryBean();
-    }
 }
@@ -0,0 +1,52 @@
+/*
+ * Copyright (c) 2026. The original author or authors.
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package io.datalake.geode.jta.narayana;
+
+import org.springframework.context.annotation.ImportSelector;
+import org.springframework.core.annotation.AnnotationAttributes;
+import org.springframework.core.type.AnnotationMetadata;
+
+/**
+ * Imports the {@link NarayanaLrcoConfiguration}, the {@link NarayanaLrcoTransactionManagerConfiguration} or the
+ * {@link NarayanaLrcoAdaptiveConfiguration} depending on the {@link EnableGeodeNarayanaJta#mode()} attribute.
+ */
+public class NarayanaLrcoConfigurationSelector implements ImportSelector {
+
+    @Override
+    public String[] selectImports(AnnotationMetadata importingClassMetadata) {
+
+        AnnotationAttributes attributes = AnnotationAttributes.fromMap(
+                importingClassMetadata.getAnnotationAttributes(EnableGeodeNarayanaJta.class.getName()));
+
+        NarayanaLrcoMode mode = (attributes != null) ? attributes.<NarayanaLrcoMode>getEnum("mode") : NarayanaLrcoMode.ASPECT;
+
+        switch (mode) {
+            case TRANSACTION_MANAGER:
+                return new String[]{NarayanaLrcoTransactionManagerConfiguration.class.getName()};
+            case ADAPTIVE:
+                return new String[]{NarayanaLrcoAdaptiveConfiguration.class.getName()};
+            case ASPECT:
+            default:
+                return new String[]{NarayanaLrcoConfiguration.class.getName()};
+        }
+    }
+}
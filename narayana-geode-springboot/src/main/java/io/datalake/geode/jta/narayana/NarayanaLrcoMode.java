@@ -0,0 +1,48 @@
+/*
+ * Copyright (c) 2026. The original author or authors.
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package io.datalake.geode.jta.narayana;
+
+/**
+ * Selects how {@link EnableGeodeNarayanaJta} enlists Geode as Last Resource Commit in the Spring managed transactions.
+ */
+public enum NarayanaLrcoMode {
+
+    /**
+     * The {@link NarayanaLrcoAspect} enlists Geode before every @Transactional method. Requires an explicit
+     * {@link org.springframework.transaction.annotation.EnableTransactionManagement#order()}.
+     */
+    ASPECT,
+
+    /**
+     * The {@link NarayanaGeodeJtaTransactionManager} enlists Geode when it begins a new JTA transaction. No additional
+     * interceptor runs on the @Transactional invocations and no explicit
+     * {@link org.springframework.transaction.annotation.EnableTransactionManagement#order()} is required.
+     */
+    TRANSACTION_MANAGER,
+
+    /**
+     * The {@link NarayanaGeodeAdaptiveTransactionManager} chooses per @Transactional method between the Last Resource
+     * Commit, the Geode JTA Synchronization and a Geode-only local transaction, as decided by the
+     * {@link NarayanaGeodeAdaptivePolicy}. Fails at startup if spring.jta.narayana.lazyEnlistment is set to true.
+     */
+    ADAPTIVE
+}
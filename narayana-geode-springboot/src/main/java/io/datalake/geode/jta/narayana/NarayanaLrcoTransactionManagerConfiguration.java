@@ -0,0 +1,61 @@
+/*
+ * Copyright (c) 2026. The original author or authors.
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package io.datalake.geode.jta.narayana;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Import;
+
+import javax.transaction.TransactionManager;
+import javax.transaction.UserTransaction;
+
+/**
+ * The {@link NarayanaLrcoTransactionManagerConfiguration} is a Spring {@link Configuration @Configuration} annotated
+ * class used for the {@link NarayanaLrcoMode#TRANSACTION_MANAGER} mode. It defines a
+ * {@link NarayanaGeodeJtaTransactionManager} as the application transactionManager, replacing the default
+ * {@link org.springframework.transaction.jta.JtaTransactionManager} created by the Spring Boot Narayana
+ * auto-configuration.
+ */
+@Configuration
+@Import(NarayanaGeodeCommonConfiguration.class)
+@SuppressWarnings("unused")
+public class NarayanaLrcoTransactionManagerConfiguration {
+
+    @Value("${spring.jta.narayana.lazyEnlistment:false}")
+    private boolean lazyEnlistment;
+
+    /* (non-Javadoc) */
+    @Bean
+    @ConditionalOnProperty(name = "spring.jta.narayana.onePhaseCommit", havingValue = "true")
+    public NarayanaGeodeJtaTransactionManager transactionManager(UserTransaction userTransaction,
+                                                                 TransactionManager transactionManager) {
+
+        NarayanaGeodeJtaTransactionManager jtaTransactionManager =
+                new NarayanaGeodeJtaTransactionManager(userTransaction, transactionManager);
+
+        jtaTransactionManager.setLazyEnlistment(lazyEnlistment);
+
+        return jtaTransactionManager;
+    }
+}
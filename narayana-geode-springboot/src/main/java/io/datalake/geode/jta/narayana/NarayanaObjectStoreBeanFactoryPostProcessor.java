@@ -0,0 +1,97 @@
+/*
+ * Copyright (c) 2026. The original author or authors.
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package io.datalake.geode.jta.narayana;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.BeansException;
+import org.springframework.beans.factory.config.BeanFactoryPostProcessor;
+import org.springframework.beans.factory.config.ConfigurableListableBeanFactory;
+import org.springframework.context.EnvironmentAware;
+import org.springframework.core.Ordered;
+import org.springframework.core.PriorityOrdered;
+import org.springframework.core.env.Environment;
+
+/**
+ * Applies the spring.jta.narayana.objectStore.* properties with the {@link NarayanaObjectStoreConfigurer}. Runs as a
+ * bean factory post processor, so the store is selected before any bean can initialize Narayana.
+ * <ul>
+ * <li>spring.jta.narayana.objectStore.type - file (default), journal or volatile.</li>
+ * <li>spring.jta.narayana.objectStore.journal.syncWrites, syncDeletes, asyncIO, bufferSize, bufferFlushesPerSecond
+ * and fileSize - the journal tuning, see the {@link NarayanaObjectStoreConfigurer} for the defaults.</li>
+ * </ul>
+ * The store directory is the spring.jta.log-dir, if set. Runs before the other post processors, e.g. the
+ * {@link NarayanaParallelInitializer} that can initialize Narayana.
+ */
+public class NarayanaObjectStoreBeanFactoryPostProcessor implements BeanFactoryPostProcessor, EnvironmentAware,
+        PriorityOrdered {
+
+    private static final String PREFIX = "spring.jta.narayana.objectStore.";
+
+    private final Logger logger = LoggerFactory.getLogger(getClass());
+
+    private Environment environment;
+
+    /* (non-Javadoc) */
+    @Override
+    public void setEnvironment(Environment environment) {
+        this.environment = environment;
+    }
+
+    /* (non-Javadoc) */
+    @Override
+    public int getOrder() {
+        return Ordered.HIGHEST_PRECEDENCE;
+    }
+
+    /* (non-Javadoc) */
+    @Override
+    public void postProcessBeanFactory(ConfigurableListableBeanFactory beanFactory) throws BeansException {
+        NarayanaObjectStoreConfigurer configurer = new NarayanaObjectStoreConfigurer();
+        configurer.setStoreType(NarayanaObjectStoreConfigurer.StoreType.valueOf(
+                environment.getProperty(PREFIX + "type", "file").trim().toUpperCase()));
+        configurer.setStoreDir(environment.getProperty("spring.jta.log-dir"));
+
+        String journal = PREFIX + "journal.";
+        configurer.setSyncWrites(environment.getProperty(journal + "syncWrites", Boolean.class, true));
+        configurer.setSyncDeletes(environment.getProperty(journal + "syncDeletes", Boolean.class, false));
+        configurer.setAsyncIO(environment.getProperty(journal + "asyncIO", Boolean.class, false));
+        Integer bufferSize = environment.getProperty(journal + "bufferSize", Integer.class);
+        if (bufferSize != null) {
+            configurer.setBufferSize(bufferSize);
+        }
+        Integer bufferFlushesPerSecond = environment.getProperty(journal + "bufferFlushesPerSecond", Integer.class);
+        if (bufferFlushesPerSecond != null) {
+            configurer.setBufferFlushesPerSecond(bufferFlushesPerSecond);
+        }
+        Integer fileSize = environment.getProperty(journal + "fileSize", Integer.class);
+        if (fileSize != null) {
+            configurer.setFileSize(fileSize);
+        }
+
+        configurer.apply();
+        logger.info("Narayana object store: " + configurer.getStoreType());
+        if (configurer.getStoreType() == NarayanaObjectStoreConfigurer.StoreType.VOLATILE) {
+            logger.warn("The volatile Narayana object store can not recover the in-doubt transactions after a crash!");
+        }
+    }
+}
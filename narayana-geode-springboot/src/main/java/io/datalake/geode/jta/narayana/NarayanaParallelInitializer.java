@@ -0,0 +1,97 @@
+/*
+ * Copyright (c) 2026. The original author or authors.
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package io.datalake.geode.jta.narayana;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.BeansException;
+import org.springframework.beans.factory.config.BeanFactoryPostProcessor;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.beans.factory.config.ConfigurableListableBeanFactory;
+import org.springframework.util.ClassUtils;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Initializes Narayana and the in-process JNDI bindings on a background thread, in parallel with the rest of the
+ * application context startup (e.g. the Geode distributed system connect, the data sources and JPA). Without it the
+ * Narayana initialization runs serially, on the first JNDI lookup made by the Geode cache creation.
+ * <p>
+ * If the Spring Boot Narayana auto-configuration is used, the background initialization starts right after the
+ * NarayanaConfigurationBean has applied the spring.jta.narayana.* properties. Otherwise it starts once the bean
+ * definitions are loaded. Either way the Geode cache lookups wait for the initialization to complete.
+ */
+public class NarayanaParallelInitializer implements BeanFactoryPostProcessor, BeanPostProcessor {
+
+    private static final String NARAYANA_CONFIGURATION_BEAN =
+            "org.springframework.boot.jta.narayana.NarayanaConfigurationBean";
+
+    private final Logger logger = LoggerFactory.getLogger(getClass());
+
+    private final AtomicBoolean started = new AtomicBoolean();
+
+    /* (non-Javadoc) */
+    @Override
+    public void postProcessBeanFactory(ConfigurableListableBeanFactory beanFactory) throws BeansException {
+        NarayanaJtaInitialContextFactory.install();
+        if (!hasNarayanaConfigurationBean(beanFactory)) {
+            start();
+        }
+    }
+
+    /* (non-Javadoc) */
+    @Override
+    public Object postProcessBeforeInitialization(Object bean, String beanName) throws BeansException {
+        return bean;
+    }
+
+    /* (non-Javadoc) */
+    @Override
+    public Object postProcessAfterInitialization(Object bean, String beanName) throws BeansException {
+        if (bean.getClass().getName().equals(NARAYANA_CONFIGURATION_BEAN)) {
+            start();
+        }
+        return bean;
+    }
+
+    private boolean hasNarayanaConfigurationBean(ConfigurableListableBeanFactory beanFactory) {
+        if (!ClassUtils.isPresent(NARAYANA_CONFIGURATION_BEAN, beanFactory.getBeanClassLoader())) {
+            return false;
+        }
+        Class<?> type = ClassUtils.resolveClassName(NARAYANA_CONFIGURATION_BEAN, beanFactory.getBeanClassLoader());
+        return beanFactory.getBeanNamesForType(type, true, false).length > 0;
+    }
+
+    private void start() {
+        if (started.compareAndSet(false, true)) {
+            long startNanos = System.nanoTime();
+            NarayanaJtaInitialContextFactory.initializeInBackground().whenComplete((result, error) -> {
+                if (error != null) {
+                    logger.error("Background Narayana initialization failed", error);
+                } else if (logger.isDebugEnabled()) {
+                    logger.debug("Background Narayana initialization completed in "
+                            + (System.nanoTime() - startNanos) / 1000000 + " ms");
+                }
+            });
+        }
+    }
+}
@@ -0,0 +1,56 @@
+/*
+ * Copyright (c) 2026. The original author or authors.
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package io.datalake.geode.jta.narayana;
+
+import java.lang.annotation.*;
+
+/**
+ * Re-runs the annotated {@link org.springframework.transaction.annotation.Transactional @Transactional} method (or
+ * all methods of the annotated type) when its transaction fails with a Geode
+ * {@link org.apache.geode.cache.CommitConflictException CommitConflictException}. The retries are delayed by a
+ * jittered, exponential backoff, capped by {@link #maxBackoff()}.
+ * <p>
+ * The {@link GeodeConflictRetryAspect} wraps the Spring transaction interceptor, so every attempt runs in its own
+ * transaction. Invocations joining an already running transaction are not retried: the conflict rolls back the
+ * outer transaction and the outermost annotated method (if any) re-runs the whole unit.
+ */
+@Target({ElementType.METHOD, ElementType.TYPE})
+@Retention(RetentionPolicy.RUNTIME)
+@Inherited
+@Documented
+public @interface RetryOnGeodeConflict {
+
+    /**
+     * @return Returns the maximum number of attempts, including the first one.
+     */
+    int maxAttempts() default NarayanaGeodeRetryTemplate.DEFAULT_MAX_ATTEMPTS;
+
+    /**
+     * @return Returns the upper bound (in milliseconds) of the delay before the first retry.
+     */
+    long initialBackoff() default NarayanaGeodeRetryTemplate.DEFAULT_INITIAL_BACKOFF_MILLIS;
+
+    /**
+     * @return Returns the cap (in milliseconds) of the delay upper bound.
+     */
+    long maxBackoff() default NarayanaGeodeRetryTemplate.DEFAULT_MAX_BACKOFF_MILLIS;
+}
@@ -0,0 +1,116 @@
+/*
+ * Copyright (c) 2026. The original author or authors.
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package io.datalake.geode.jta.narayana;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.apache.geode.cache.TransactionId;
+import org.junit.Test;
+
+import javax.transaction.xa.XAException;
+import java.io.ObjectInput;
+import java.io.ObjectOutput;
+import java.util.concurrent.TimeUnit;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertThat;
+
+/**
+ * Drives the {@link MicrometerNarayanaGeodeMetrics} listener callbacks directly and checks the meters.
+ */
+public class MicrometerNarayanaGeodeMetricsTestCase {
+
+    private final MeterRegistry registry = new SimpleMeterRegistry();
+    private final MicrometerNarayanaGeodeMetrics metrics = new MicrometerNarayanaGeodeMetrics(registry);
+
+    @Test
+    public void commitAndRollback() {
+        TransactionId committed = new TestTransactionId();
+        TransactionId rolledBack = new TestTransactionId();
+
+        metrics.afterEnlist(null, 1000);
+        metrics.afterStart(null, committed, 1000);
+        metrics.afterEnlist(null, 1000);
+        metrics.afterStart(null, rolledBack, 1000);
+        assertThat(inflight(), is(2.0));
+
+        metrics.afterCommit(null, committed, TimeUnit.MILLISECONDS.toNanos(2), TimeUnit.MILLISECONDS.toNanos(5));
+        assertThat(inflight(), is(1.0));
+        metrics.afterRollback(null, rolledBack, 1000, TimeUnit.MILLISECONDS.toNanos(3));
+        assertThat(inflight(), is(0.0));
+
+        assertThat(registry.get("narayana.geode.lrco.enlist").counter().count(), is(2.0));
+        assertThat(registry.get("narayana.geode.lrco.start").counter().count(), is(2.0));
+        assertThat(registry.get("narayana.geode.lrco.commit").counter().count(), is(1.0));
+        assertThat(registry.get("narayana.geode.lrco.rollback").counter().count(), is(1.0));
+        assertThat(registry.get("narayana.geode.lrco.commit.duration").timer().count(), is(1L));
+        assertThat(registry.get("narayana.geode.lrco.commit.duration").timer().totalTime(TimeUnit.MILLISECONDS),
+                is(2.0));
+        assertThat(registry.get("narayana.geode.lrco.transaction.duration").timer().totalTime(TimeUnit.MILLISECONDS),
+                is(5.0));
+    }
+
+    @Test
+    public void failure() {
+        TransactionId failed = new TestTransactionId();
+
+        metrics.afterStart(null, failed, 1000);
+        metrics.onFailure(null, failed, new XAException(XAException.XA_RBROLLBACK));
+        metrics.onFailure(null, null, new XAException(XAException.XAER_RMERR));
+
+        assertThat(inflight(), is(0.0));
+        assertThat(registry.get("narayana.geode.lrco.failure")
+                .tag("errorCode", String.valueOf(XAException.XA_RBROLLBACK)).counter().count(), is(1.0));
+        assertThat(registry.get("narayana.geode.lrco.failure")
+                .tag("errorCode", String.valueOf(XAException.XAER_RMERR)).counter().count(), is(1.0));
+    }
+
+    @Test
+    public void transactionsStartedBeforeRegistration() {
+        // Completions of transactions started before the metrics were registered do not drive the gauge negative.
+        metrics.afterCommit(null, new TestTransactionId(), 1000, 1000);
+        metrics.afterRollback(null, new TestTransactionId(), 1000, 1000);
+        metrics.onFailure(null, new TestTransactionId(), new XAException(XAException.XA_RBROLLBACK));
+
+        assertThat(inflight(), is(0.0));
+        assertThat(registry.get("narayana.geode.lrco.commit").counter().count(), is(1.0));
+        assertThat(registry.get("narayana.geode.lrco.rollback").counter().count(), is(1.0));
+    }
+
+    private double inflight() {
+        return registry.get("narayana.geode.lrco.inflight").gauge().value();
+    }
+
+    /**
+     * Identity based Geode transaction id.
+     */
+    private static class TestTransactionId implements TransactionId {
+
+        @Override
+        public void writeExternal(ObjectOutput out) {
+        }
+
+        @Override
+        public void readExternal(ObjectInput in) {
+        }
+    }
+}
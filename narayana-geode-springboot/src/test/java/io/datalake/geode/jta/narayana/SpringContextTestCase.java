@@ -0,0 +1,478 @@
+/*
+ * Copyright (c) 2026. The original author or authors.
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package io.datalake.geode.jta.narayana;
+
+import com.arjuna.ats.jta.common.jtaPropertyManager;
+import io.datalake.geode.jta.narayana.NarayanaGeodeAdaptivePolicy.Mode;
+import org.apache.geode.cache.Cache;
+import org.apache.geode.cache.CacheFactory;
+import org.apache.geode.cache.Region;
+import org.apache.geode.internal.cache.PartitionedRegion;
+import org.apache.geode.internal.cache.TXManagerImpl;
+import org.apache.geode.internal.cache.TXStateProxy;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.beans.factory.BeanCreationException;
+import org.springframework.beans.factory.FactoryBean;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.EnableAspectJAutoProxy;
+import org.springframework.context.annotation.Import;
+import org.springframework.context.annotation.Primary;
+import org.springframework.context.support.PropertySourcesPlaceholderConfigurer;
+import org.springframework.core.env.MapPropertySource;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.EnableTransactionManagement;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.jta.JtaTransactionManager;
+
+import javax.transaction.SystemException;
+import javax.transaction.TransactionManager;
+import javax.transaction.UserTransaction;
+import javax.transaction.xa.Xid;
+import java.lang.reflect.Proxy;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.apache.geode.cache.DataPolicy.PARTITION;
+import static org.hamcrest.CoreMatchers.containsString;
+import static org.hamcrest.CoreMatchers.instanceOf;
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * Runs @Transactional methods against a Geode peer cache in the {@link EnableGeodeNarayanaJta} modes. Every test
+ * starts its own application context and cache.
+ */
+public class SpringContextTestCase {
+
+    private AnnotationConfigApplicationContext context;
+
+    private final AtomicInteger enlistments = new AtomicInteger();
+    private final NarayanaGeodeTransactionListener enlistmentCounter = new NarayanaGeodeTransactionListener() {
+        @Override
+        public void afterEnlist(Xid xid, long enlistNanos) {
+            enlistments.incrementAndGet();
+        }
+    };
+
+    @Before
+    public void before() {
+        NarayanaGeodeTransactionListeners.add(enlistmentCounter);
+    }
+
+    @After
+    public void after() {
+        NarayanaGeodeTransactionListeners.remove(enlistmentCounter);
+        if (context != null) {
+            context.close();
+        }
+    }
+
+    // The transaction type the Spring transaction interceptor names the ModeService.put transactions.
+    private static final String PUT_TYPE = ModeService.class.getName() + ".put";
+
+    @Test
+    public void aspectMode() {
+        start(AspectModeConfiguration.class);
+
+        assertThat(context.getBean(ModeService.class).put("key"), is(Mode.LAST_RESOURCE_COMMIT));
+        assertThat(region().get("key"), is("key"));
+    }
+
+    @Test
+    public void aspectModeSkipsReadOnlyTransactions() {
+        start(AspectModeConfiguration.class);
+        region().put("key", "key");
+
+        assertThat(context.getBean(ModeService.class).get("key"), is("key"));
+        assertThat(enlistments.get(), is(0));
+    }
+
+    @Test
+    public void aspectModeEnlistsNestedCallsOnce() {
+        start(AspectModeConfiguration.class);
+
+        assertThat(context.getBean(ModeService.class).putNested("outer", "inner"), is(Mode.LAST_RESOURCE_COMMIT));
+        assertThat(enlistments.get(), is(1));
+        assertThat(region().get("outer"), is("outer"));
+        assertThat(region().get("inner"), is("inner"));
+    }
+
+    @Test
+    public void noAspectWithoutOnePhaseCommit() {
+        start(AspectModeConfiguration.class, "spring.jta.narayana.onePhaseCommit=false");
+
+        assertTrue(context.getBeansOfType(NarayanaLrcoAspect.class).isEmpty());
+        assertThat("Geode joins as JTA Synchronization", context.getBean(ModeService.class).put("key"),
+                is(Mode.SYNCHRONIZATION));
+        assertThat(enlistments.get(), is(0));
+    }
+
+    @Test
+    public void transactionManagerMode() {
+        start(TransactionManagerModeConfiguration.class);
+
+        assertThat(context.getBean(ModeService.class).put("key"), is(Mode.LAST_RESOURCE_COMMIT));
+        assertThat(region().get("key"), is("key"));
+    }
+
+    @Test
+    public void transactionManagerModeSkipsReadOnlyTransactions() {
+        start(TransactionManagerModeConfiguration.class);
+        region().put("key", "key");
+
+        assertThat(context.getBean(ModeService.class).get("key"), is("key"));
+        assertThat(enlistments.get(), is(0));
+    }
+
+    @Test
+    public void transactionManagerModeEnlistsNestedCallsOnce() {
+        start(TransactionManagerModeConfiguration.class);
+
+        assertThat(context.getBean(ModeService.class).putNested("outer", "inner"), is(Mode.LAST_RESOURCE_COMMIT));
+        assertThat(enlistments.get(), is(1));
+    }
+
+    @Test
+    public void requiresNewInTransactionManagerMode() {
+        start(TransactionManagerModeConfiguration.class);
+        OuterService outerService = context.getBean(OuterService.class);
+
+        try {
+            outerService.putThenFail("outer", "inner");
+            fail("Expected the outer transaction to roll back");
+        } catch (IllegalStateException e) {
+            // expected
+        }
+
+        assertNull("The outer transaction must roll back", region().get("outer"));
+        assertThat("The REQUIRES_NEW transaction must commit on its own", region().get("inner"), is("inner"));
+    }
+
+    @Test
+    public void lazyEnlistmentWrapsRegionBeans() {
+        start(RegionBeansConfiguration.class, "spring.jta.narayana.lazyEnlistment=true");
+
+        assertTrue("@Bean Region", isLazyEnlisting(context.getBean("testRegion")));
+        assertTrue("FactoryBean<Region>", isLazyEnlisting(context.getBean("factoryRegion")));
+        assertFalse("Declared as PartitionedRegion", isLazyEnlisting(context.getBean("partitionedRegion")));
+
+        assertThat(context.getBean(ModeService.class).put("key"), is(Mode.LAST_RESOURCE_COMMIT));
+        assertThat(region().get("key"), is("key"));
+    }
+
+    @Test
+    public void adaptiveModeKeepsJtaTransactionManager() {
+        start(AdaptiveModeConfiguration.class);
+
+        assertThat(context.getBean("transactionManager"), instanceOf(JtaTransactionManager.class));
+        assertThat(context.getBean(JtaTransactionManager.class),
+                instanceOf(NarayanaGeodeJtaTransactionManager.class));
+        assertThat("The @Transactional methods use the adaptive transaction manager",
+                context.getBean(PlatformTransactionManager.class),
+                instanceOf(NarayanaGeodeAdaptiveTransactionManager.class));
+    }
+
+    @Test
+    public void adaptiveModeLastResourceCommit() {
+        start(AdaptiveModeConfiguration.class);
+
+        assertThat(context.getBean(ModeService.class).put("key"), is(Mode.LAST_RESOURCE_COMMIT));
+        assertThat(region().get("key"), is("key"));
+    }
+
+    @Test
+    public void adaptiveModeSynchronization() {
+        start(AdaptiveModeConfiguration.class);
+        context.getBean(NarayanaGeodeAdaptivePolicy.class).pin(PUT_TYPE, Mode.SYNCHRONIZATION);
+
+        assertThat(context.getBean(ModeService.class).put("key"), is(Mode.SYNCHRONIZATION));
+        assertThat(region().get("key"), is("key"));
+    }
+
+    @Test
+    public void adaptiveModeGeodeLocal() {
+        start(AdaptiveModeConfiguration.class, "spring.jta.narayana.adaptive.geodeLocalTypes=" + PUT_TYPE);
+
+        assertThat(context.getBean(ModeService.class).put("key"), is(Mode.GEODE_LOCAL));
+        assertThat(region().get("key"), is("key"));
+    }
+
+    @Test
+    public void adaptiveModeRejectsLazyEnlistment() {
+        try {
+            start(AdaptiveModeConfiguration.class, "spring.jta.narayana.lazyEnlistment=true");
+            fail("Expected the ADAPTIVE mode to reject the lazy enlistment");
+        } catch (BeanCreationException e) {
+            assertThat(e.getMostSpecificCause(), instanceOf(IllegalStateException.class));
+            assertThat(e.getMostSpecificCause().getMessage(), containsString("lazyEnlistment"));
+        }
+    }
+
+    private static boolean isLazyEnlisting(Object region) {
+        return Proxy.isProxyClass(region.getClass())
+                && Proxy.getInvocationHandler(region) instanceof LazyEnlistingRegionInvocationHandler;
+    }
+
+    @SuppressWarnings("unchecked")
+    private Region<String, String> region() {
+        return context.getBean("testRegion", Region.class);
+    }
+
+    private void start(Class<?> configuration, String... properties) {
+        Map<String, Object> propertyMap = new HashMap<>();
+        propertyMap.put("spring.jta.narayana.onePhaseCommit", "true");
+        propertyMap.put("spring.jta.narayana.inProcessJndi", "true");
+        for (String property : properties) {
+            String[] keyValue = property.split("=", 2);
+            propertyMap.put(keyValue[0], keyValue[1]);
+        }
+
+        context = new AnnotationConfigApplicationContext();
+        context.getEnvironment().getPropertySources().addFirst(new MapPropertySource("test", propertyMap));
+        context.register(configuration);
+        context.refresh();
+    }
+
+    @Configuration
+    static class GeodeConfiguration {
+
+        @Bean
+        public static PropertySourcesPlaceholderConfigurer propertySourcesPlaceholderConfigurer() {
+            return new PropertySourcesPlaceholderConfigurer();
+        }
+
+        @Bean
+        public UserTransaction userTransaction() {
+            return jtaPropertyManager.getJTAEnvironmentBean().getUserTransaction();
+        }
+
+        @Bean
+        public TransactionManager narayanaTransactionManager() {
+            return jtaPropertyManager.getJTAEnvironmentBean().getTransactionManager();
+        }
+
+        @Bean(destroyMethod = "close")
+        public Cache geodeCache() {
+            return new CacheFactory()
+                    .set("mcast-port", "0")
+                    .set("locators", "")
+                    .set("log-level", "error")
+                    .create();
+        }
+
+        @Bean
+        @Primary
+        public Region<String, String> testRegion(Cache geodeCache) {
+            return geodeCache.<String, String>createRegionFactory()
+                    .setDataPolicy(PARTITION)
+                    .create("testRegion");
+        }
+
+        @Bean
+        public ModeService modeService() {
+            return new ModeService();
+        }
+
+        @Bean
+        public OuterService outerService() {
+            return new OuterService();
+        }
+
+        @Bean
+        public InnerService innerService() {
+            return new InnerService();
+        }
+    }
+
+    @Configuration
+    @EnableGeodeNarayanaJta(mode = NarayanaLrcoMode.ASPECT)
+    @EnableTransactionManagement(order = 1)
+    @EnableAspectJAutoProxy
+    @Import(GeodeConfiguration.class)
+    static class AspectModeConfiguration {
+
+        @Bean
+        public JtaTransactionManager transactionManager(UserTransaction userTransaction,
+                                                        TransactionManager narayanaTransactionManager) {
+            return new JtaTransactionManager(userTransaction, narayanaTransactionManager);
+        }
+    }
+
+    @Configuration
+    @EnableGeodeNarayanaJta(mode = NarayanaLrcoMode.TRANSACTION_MANAGER)
+    @EnableTransactionManagement
+    @Import(GeodeConfiguration.class)
+    static class TransactionManagerModeConfiguration {
+    }
+
+    @Configuration
+    @EnableGeodeNarayanaJta(mode = NarayanaLrcoMode.ADAPTIVE)
+    @EnableTransactionManagement
+    @Import(GeodeConfiguration.class)
+    static class AdaptiveModeConfiguration {
+    }
+
+    @Configuration
+    @Import(TransactionManagerModeConfiguration.class)
+    static class RegionBeansConfiguration {
+
+        @Bean
+        public PartitionRegionFactoryBean factoryRegion(Cache geodeCache) {
+            return new PartitionRegionFactoryBean(geodeCache, "factoryRegion");
+        }
+
+        @Bean
+        public PartitionedRegion partitionedRegion(Cache geodeCache) {
+            return (PartitionedRegion) geodeCache.createRegionFactory()
+                    .setDataPolicy(PARTITION)
+                    .create("partitionedRegion");
+        }
+    }
+
+    /**
+     * Like the Spring Data Geode RegionFactoryBean, reports the concrete region class once the region exists.
+     */
+    static class PartitionRegionFactoryBean implements FactoryBean<Region<String, String>>, InitializingBean {
+
+        private final Cache cache;
+        private final String name;
+        private Region<String, String> region;
+
+        PartitionRegionFactoryBean(Cache cache, String name) {
+            this.cache = cache;
+            this.name = name;
+        }
+
+        @Override
+        public void afterPropertiesSet() {
+            region = cache.<String, String>createRegionFactory()
+                    .setDataPolicy(PARTITION)
+                    .create(name);
+        }
+
+        @Override
+        public Region<String, String> getObject() {
+            return region;
+        }
+
+        @Override
+        public Class<?> getObjectType() {
+            return (region != null) ? region.getClass() : Region.class;
+        }
+
+        @Override
+        public boolean isSingleton() {
+            return true;
+        }
+    }
+
+    static class ModeService {
+
+        @Autowired
+        private Region<String, String> region;
+
+        @Autowired
+        private TransactionManager narayanaTransactionManager;
+
+        @Autowired
+        private InnerService innerService;
+
+        /**
+         * @return Returns how Geode took part in the transaction of the put.
+         */
+        @Transactional
+        public Mode put(String key) {
+            region.put(key, key);
+            TXStateProxy txState = TXManagerImpl.getCurrentTXState();
+            if (txState == null) {
+                throw new IllegalStateException("The put did not run in a Geode transaction");
+            }
+            try {
+                if (narayanaTransactionManager.getTransaction() == null) {
+                    return Mode.GEODE_LOCAL;
+                }
+            } catch (SystemException e) {
+                throw new IllegalStateException(e);
+            }
+            return txState.isJCATransaction() ? Mode.LAST_RESOURCE_COMMIT : Mode.SYNCHRONIZATION;
+        }
+
+        @Transactional(readOnly = true)
+        public String get(String key) {
+            return region.get(key);
+        }
+
+        /**
+         * @return Returns how Geode took part in the transaction, after the joining inner put.
+         */
+        @Transactional
+        public Mode putNested(String key, String innerKey) {
+            Mode mode = put(key);
+            innerService.join(innerKey);
+            return mode;
+        }
+    }
+
+    static class OuterService {
+
+        @Autowired
+        private Region<String, String> region;
+
+        @Autowired
+        private InnerService innerService;
+
+        @Transactional
+        public void putThenFail(String key, String innerKey) {
+            region.put(key, key);
+            innerService.put(innerKey);
+            throw new IllegalStateException("Rolls back the outer transaction");
+        }
+    }
+
+    static class InnerService {
+
+        @Autowired
+        private Region<String, String> region;
+
+        @Transactional(propagation = Propagation.REQUIRES_NEW)
+        public void put(String key) {
+            region.put(key, key);
+        }
+
+        @Transactional
+        public void join(String key) {
+            region.put(key, key);
+        }
+    }
+}